@@ -1,33 +1,54 @@
 package cn.com.vortexa.agent_hub;
 
 
+import cn.com.vortexa.agent_hub.answer.AnswerStore;
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
 import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import cn.com.vortexa.agent_hub.dto.QuizCatalogue;
+import cn.com.vortexa.agent_hub.event.RunEvent;
+import cn.com.vortexa.agent_hub.event.RunEvents;
+import cn.com.vortexa.agent_hub.mail.ImapServerInfo;
+import cn.com.vortexa.agent_hub.mail.VerifyCodeService;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.parser.CountingReader;
+import cn.com.vortexa.agent_hub.parser.LearnEarnStreamParser;
+import cn.com.vortexa.agent_hub.proxy.ProxyHealth;
+import cn.com.vortexa.agent_hub.proxy.ProxyHealthTracker;
+import cn.com.vortexa.agent_hub.quiz.LearnEarnCatalogueCache;
+import cn.com.vortexa.agent_hub.resilience.AdaptiveConcurrencyLimiter;
+import cn.com.vortexa.agent_hub.resilience.ResilientCaller;
+import cn.com.vortexa.agent_hub.transport.HttpTransport;
+import cn.com.vortexa.agent_hub.transport.HubHttpClient;
 import cn.com.vortexa.base.constants.HeaderKey;
 import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
 import cn.com.vortexa.common.constants.HttpMethod;
 import cn.com.vortexa.common.util.CastUtil;
-import cn.com.vortexa.common.util.http.RestApiClientFactory;
 import cn.com.vortexa.mail.factory.MailReaderFactory;
 import cn.com.vortexa.mail.reader.MailReader;
 import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.StrUtil;
-import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
 import okhttp3.ResponseBody;
 
 import javax.mail.Message;
 import javax.mail.MessagingException;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.Reader;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -38,60 +59,145 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 public class AgentHubApi {
-    public static final String BASE_URL = "https://hub-api.agnthub.ai/api";
     public static final String MAIL_FROM_1 = "no-reply@mail.privy.io";
     public static final String MAIL_FROM_2 = "no-reply@privy.io";
     public static final Pattern V_CODE_PATTERN = Pattern.compile("\\b\\d{6}\\b");
     public static final String IMAP_PASSWORD = "imap_password";
-
-    private static final Map<String, Map<String, String>> answerMap;
-
-    static {
-        answerMap = new HashMap<>();
-        try (InputStream is = new FileInputStream(
-                System.getProperty("user.dir") + File.separator + "question-answer.json"
-        )) {
-            String content = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-            List<QuestionAnswer> questionAnswers = JSONArray.parseArray(content, QuestionAnswer.class);
-            for (QuestionAnswer questionAnswer : questionAnswers) {
-                answerMap.computeIfAbsent(questionAnswer.getQuizId(), k -> new HashMap<>())
-                        .computeIfAbsent(questionAnswer.getQuestionId(), k -> questionAnswer.getAnswerId());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * 验证码投递到共用收件箱（catch-all）时，该收件箱的登录名；未设置时使用账户邮箱
+     */
+    public static final String IMAP_USERNAME = "imap_username";
+    public static final String COOKIE_EXPIRE_AT = "cookie_expire_at";
+    /**
+     * Set-Cookie 未携带过期时间时的默认有效期
+     */
+    public static final long DEFAULT_COOKIE_TTL = TimeUnit.HOURS.toMillis(1);
+
+    public static final String ENDPOINT_PRIVY_INIT = "privy_init";
+    public static final String ENDPOINT_PRIVY_AUTHENTICATE = "privy_authenticate";
+    public static final String ENDPOINT_TASKS_MY = "tasks_my";
+    public static final String ENDPOINT_TASK_START = "task_start";
+    public static final String ENDPOINT_LEARN_EARN = "learn_earn";
+    public static final String ENDPOINT_START_QUIZ = "start_quiz";
+    public static final String ENDPOINT_CHECK_QUESTION = "check_question";
+    public static final String ENDPOINT_DAILY_CLAIM = "daily_claim";
+
+    /**
+     * 各接口遇到网络异常、429、5xx 时的最大重试次数；authenticate 会消耗验证码，不重试
+     */
+    private static final Map<String, Integer> ENDPOINT_MAX_RETRIES = Map.of(
+            ENDPOINT_PRIVY_INIT, 1,
+            ENDPOINT_TASKS_MY, 2,
+            ENDPOINT_TASK_START, 1,
+            ENDPOINT_LEARN_EARN, 2,
+            ENDPOINT_START_QUIZ, 1,
+            ENDPOINT_CHECK_QUESTION, 2,
+            ENDPOINT_DAILY_CLAIM, 1
+    );
+
+    /**
+     * 邮件服务器与本机的时钟误差容忍
+     */
+    private static final long MAIL_CLOCK_SKEW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final Duration CHECK_CODE_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * 执行阻塞式降级逻辑（轮询邮箱）的线程池
+     */
+    private static final ExecutorService BLOCKING_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final VerifyCodeService verifyCodeService = new VerifyCodeService();
+
+    private final AnswerStore answerStore = new AnswerStore();
+
+    private final LearnEarnCatalogueCache catalogueCache = new LearnEarnCatalogueCache(AgentHubConfig.get().getCatalogue());
+
+    private final ResilientCaller resilientCaller = new ResilientCaller(AgentHubConfig.get().getResilience());
+
+    private final ProxyHealthTracker proxyHealthTracker = new ProxyHealthTracker(AgentHubConfig.get().getProxyHealth());
+
+    private final AdaptiveConcurrencyLimiter hubLimiter = AdaptiveConcurrencyLimiter.create(
+            "hub", AgentHubConfig.get().getConcurrency(), AgentHubConfig.get().getConcurrency().getHub()
+    );
+
+    private final AdaptiveConcurrencyLimiter privyLimiter = AdaptiveConcurrencyLimiter.create(
+            "privy", AgentHubConfig.get().getConcurrency(), AgentHubConfig.get().getConcurrency().getPrivy()
+    );
+
+    private final HttpTransport httpTransport = new HttpTransport(AgentHubConfig.get().getTransport());
+
+    private final String hubBaseUrl = AgentHubConfig.get().getEndpoint().getHubBaseUrl();
+
+    private final String privyBaseUrl = AgentHubConfig.get().getEndpoint().getPrivyBaseUrl();
+
+    private final AgentHubConfig.Mail mailConfig = AgentHubConfig.get().getMail();
+
+    public AgentHubApi() {
+        AgentHubMetrics.init(AgentHubConfig.get().getMetrics());
+        RunEvents.init(AgentHubConfig.get().getEvents());
+        AgentHubMetrics.registry().gauge("agent_hub_catalogue_hit", catalogueCache::getHitCount);
+        AgentHubMetrics.registry().gauge("agent_hub_catalogue_miss", catalogueCache::getMissCount);
+        AgentHubMetrics.registry().gauge("agent_hub_catalogue_saved_bytes", catalogueCache::getSavedSize);
+        proxyHealthTracker.startProbe(this::probeProxyAsync);
     }
 
-
     public String signInAccount(FullAccountContext fullAccountContext) throws Exception {
-        log.info("account[{}] send get check code request...", fullAccountContext.getId());
-        JSONObject initResult = sendSignInInit(fullAccountContext).get();
-        if (!BooleanUtil.isTrue(initResult.getBoolean("success"))) {
-            throw new RuntimeException("get check code request failed");
-        }
+        return signInAccountAsync(fullAccountContext).get();
+    }
 
-        log.info("account[{}] get check code from email...", fullAccountContext.getId());
-        String checkCode = getAccountCheckCode(fullAccountContext);
-        if (StrUtil.isBlank(checkCode)) {
-            throw new RuntimeException("get email check code failed");
-        }
-        log.info("account[{}] get check code success, code: {}...", fullAccountContext.getId(), checkCode);
-        log.info("account[{}] send sign in request...", fullAccountContext.getAccount());
+    /**
+     * 登录：passwordless/init -> 邮箱验证码 -> passwordless/authenticate，全程不阻塞调用线程
+     *
+     * @param fullAccountContext fullAccountContext
+     * @return cookie
+     */
+    public CompletableFuture<String> signInAccountAsync(FullAccountContext fullAccountContext) {
+        Object accountId = fullAccountContext.getId();
+        log.debug("account[{}] send get check code request...", accountId);
+        long initAt = System.currentTimeMillis();
+        // 后两个阶段在前一阶段的回调线程上发起，运行 id 需显式传递
+        String runId = RunEvents.currentRun();
+        return timeLoginPhase(
+                runId, accountId, AgentHubMetrics.PHASE_INIT, () -> sendSignInInit(fullAccountContext)
+        ).thenCompose(initResult -> {
+            if (!BooleanUtil.isTrue(initResult.getBoolean("success"))) {
+                throw new RuntimeException("get check code request failed");
+            }
+            log.debug("account[{}] get check code from email...", accountId);
+            return timeLoginPhase(
+                    runId, accountId, AgentHubMetrics.PHASE_OTP, () -> getAccountCheckCodeAsync(fullAccountContext, initAt)
+            );
+        }).thenCompose(checkCode -> {
+            if (StrUtil.isBlank(checkCode)) {
+                throw new RuntimeException("get email check code failed");
+            }
+            log.debug("account[{}] get check code success, send sign in request...", accountId);
+            return timeLoginPhase(
+                    runId, accountId, AgentHubMetrics.PHASE_AUTHENTICATE, () -> authenticate(fullAccountContext, checkCode)
+            );
+        });
+    }
 
-        Map<String, String> headers = buildHeader(fullAccountContext);
-        headers.put("privy-app-id", "cm6jesuxd00a9ojo0i9rlxudk");
-        headers.put("privy-ca-id", "695ef102-583a-4816-bb32-d8e225ba08fe");
-        headers.put("privy-client", "react-auth:2.4.2");
+    /**
+     * 登录阶段同时计入指标与运行事件
+     */
+    private static <T> CompletableFuture<T> timeLoginPhase(
+            String runId, Object accountId, String phase, Supplier<CompletableFuture<T>> stage
+    ) {
+        return RunEvents.time(runId, RunEvent.Type.LOGIN_PHASE, accountId, phase, () -> AgentHubMetrics.timeLoginPhase(phase, stage));
+    }
+
+    private CompletableFuture<String> authenticate(FullAccountContext fullAccountContext, String checkCode) {
+        Map<String, String> headers = buildPrivyHeader(fullAccountContext);
 
         JSONObject body = new JSONObject();
         body.put("code", checkCode);
         body.put("email", fullAccountContext.getAccount());
         body.put("mode", "login-or-sign-up");
-        RestApiClientFactory.getClient(fullAccountContext.getProxy()).rawRequest(
-                "https://privy.agnthub.ai/api/v1/passwordless/authenticate",
+        return call(ENDPOINT_PRIVY_AUTHENTICATE, fullAccountContext, () -> httpClient(fullAccountContext).rawRequest(
+                privyBaseUrl + "/passwordless/authenticate",
                 HttpMethod.POST,
                 headers,
-                null,
                 body,
                 response -> {
                     if (response.code() != 200) {
@@ -104,21 +210,106 @@ public class AgentHubApi {
                             .collect(Collectors.joining("; "));
 
                     fullAccountContext.putParam(HeaderKey.COOKIE, cookie);
+                    fullAccountContext.putParam(COOKIE_EXPIRE_AT, resolveCookieExpireAt(response.request().url(), cookies));
                 }
-        ).get();
+        )).thenApply(v -> {
+            if (fullAccountContext.getParam(HeaderKey.COOKIE) == null) {
+                throw new RuntimeException("get cookie failed");
+            }
+            String cookie = CastUtil.autoCast(fullAccountContext.getParam(HeaderKey.COOKIE));
+            return cookie;
+        });
+    }
 
-        if (fullAccountContext.getParam(HeaderKey.COOKIE) == null) {
-            throw new RuntimeException("get cookie failed");
-        }
+    /**
+     * 用一次轻量请求检查当前 cookie 是否仍然有效
+     *
+     * @param fullAccountContext fullAccountContext
+     * @return 是否有效
+     */
+    public boolean probeSession(FullAccountContext fullAccountContext) throws ExecutionException, InterruptedException {
+        return probeSessionAsync(fullAccountContext).get();
+    }
 
-        return CastUtil.autoCast(fullAccountContext.getParam(HeaderKey.COOKIE));
+    public CompletableFuture<Boolean> probeSessionAsync(FullAccountContext fullAccountContext) {
+        Map<String, String> headers = buildHeader(fullAccountContext);
+        AtomicBoolean valid = new AtomicBoolean(false);
+        return call(ENDPOINT_TASKS_MY, fullAccountContext, () -> httpClient(fullAccountContext).rawRequest(
+                hubBaseUrl + "/tasks/my",
+                HttpMethod.GET,
+                headers,
+                null,
+                response -> valid.set(response.code() == 200)
+        )).thenApply(v -> valid.get());
+    }
+
+    /**
+     * 取所有 Set-Cookie 中最早的过期时间
+     */
+    private static long resolveCookieExpireAt(HttpUrl url, List<String> setCookies) {
+        long now = System.currentTimeMillis();
+        long expireAt = Long.MAX_VALUE;
+        for (String setCookie : setCookies) {
+            Cookie cookie = Cookie.parse(url, setCookie);
+            if (cookie != null && cookie.persistent()) {
+                expireAt = Math.min(expireAt, cookie.expiresAt());
+            }
+        }
+        return expireAt == Long.MAX_VALUE || expireAt <= now ? now + DEFAULT_COOKIE_TTL : expireAt;
     }
 
-    private String getAccountCheckCode(FullAccountContext fullAccountContext) throws InterruptedException {
+    private CompletableFuture<String> getAccountCheckCodeAsync(FullAccountContext fullAccountContext, long initAt) {
         String password = CastUtil.autoCast(fullAccountContext.getParam(IMAP_PASSWORD));
         if (StrUtil.isBlank(password)) {
-            throw new IllegalArgumentException("imap password is empty");
+            return CompletableFuture.failedFuture(new IllegalArgumentException("imap password is empty"));
+        }
+
+        // 共用收件箱时按收件人区分账户，自有邮箱不限制收件人，避免别名地址匹配不上
+        String email = fullAccountContext.getAccount();
+        String imapUsername = CastUtil.autoCast(fullAccountContext.getParam(IMAP_USERNAME));
+        boolean sharedInbox = StrUtil.isNotBlank(imapUsername) && !imapUsername.equalsIgnoreCase(email);
+        String mailboxUsername = sharedInbox ? imapUsername : email;
+
+        return verifyCodeService.awaitCode(
+                resolveImapServer(mailboxUsername), mailboxUsername, password, sharedInbox ? email : null,
+                initAt - MAIL_CLOCK_SKEW_MILLIS, CHECK_CODE_TIMEOUT
+        ).exceptionallyCompose(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            if (cause instanceof TimeoutException) {
+                log.warn("account[{}] wait check code from mailbox timeout", fullAccountContext.getId());
+                return CompletableFuture.completedFuture(null);
+            }
+            if (sharedInbox) {
+                // 轮询降级不区分收件人，共用收件箱时可能取到其它账户的验证码
+                log.warn("account[{}] wait check code from shared mailbox error, {}",
+                        fullAccountContext.getId(), cause.toString());
+                return CompletableFuture.completedFuture(null);
+            }
+            log.warn("account[{}] wait check code from mailbox error, fallback to poll, {}",
+                    fullAccountContext.getId(), cause.toString());
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pollAccountCheckCode(fullAccountContext, password);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }, BLOCKING_EXECUTOR);
+        });
+    }
+
+    /**
+     * 配置了 imap-host 时所有收件箱都使用该服务器
+     */
+    private ImapServerInfo resolveImapServer(String mailboxUsername) {
+        if (StrUtil.isNotBlank(mailConfig.getImapHost())) {
+            return new ImapServerInfo(mailConfig.getImapHost(), mailConfig.getImapPort(), mailConfig.isImapSsl());
         }
+        return ImapServerInfo.resolve(mailboxUsername);
+    }
+
+    private String pollAccountCheckCode(FullAccountContext fullAccountContext, String password) throws InterruptedException {
 
         MailReader mailReader = MailReaderFactory.getImapMailReader(fullAccountContext.getAccount());
 
@@ -181,145 +372,284 @@ public class AgentHubApi {
     }
 
     private CompletableFuture<JSONObject> sendSignInInit(FullAccountContext fullAccountContext) {
-        Map<String, String> headers = buildHeader(fullAccountContext);
-        headers.put("privy-app-id", "cm6jesuxd00a9ojo0i9rlxudk");
-        headers.put("privy-ca-id", "695ef102-583a-4816-bb32-d8e225ba08fe");
-        headers.put("privy-client", "react-auth:2.4.2");
+        Map<String, String> headers = buildPrivyHeader(fullAccountContext);
         JSONObject body = new JSONObject();
         body.put("email", fullAccountContext.getAccount());
-        return RestApiClientFactory.getClient(fullAccountContext.getProxy()).jsonRequest(
-                "https://privy.agnthub.ai/api/v1/passwordless/init",
+        return call(ENDPOINT_PRIVY_INIT, fullAccountContext, () -> httpClient(fullAccountContext).jsonRequest(
+                privyBaseUrl + "/passwordless/init",
                 HttpMethod.POST,
                 headers,
-                null,
                 body
-        );
+        ));
     }
 
 
     public void answerQuestion(
             FullAccountContext fullAccountContext, QuestionAnswer questionAnswer
     ) throws ExecutionException, InterruptedException {
+        try {
+            answerQuestionAsync(fullAccountContext, questionAnswer).get();
+        } catch (ExecutionException e) {
+            // 答错与原同步接口保持一致，直接抛出 IllegalStateException
+            if (e.getCause() instanceof IllegalStateException illegalStateException) {
+                throw illegalStateException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 提交答案，答案错误时以 IllegalStateException 结束，questionAnswer 的 answerId 会被更新为正确答案
+     */
+    public CompletableFuture<Void> answerQuestionAsync(FullAccountContext fullAccountContext, QuestionAnswer questionAnswer) {
         Map<String, String> headers = buildHeader(fullAccountContext);
         JSONObject body = new JSONObject();
         body.put("answerId", questionAnswer.getAnswerId());
         body.put("quizId", questionAnswer.getQuizId());
         body.put("questionId", questionAnswer.getQuestionId());
 
-        JSONObject result = RestApiClientFactory.getClient(fullAccountContext.getProxy()).request(
-                BASE_URL + "/learn-earn/check-question",
+        return call(ENDPOINT_CHECK_QUESTION, fullAccountContext, () -> httpClient(fullAccountContext).request(
+                hubBaseUrl + "/learn-earn/check-question",
                 HttpMethod.POST,
                 headers,
-                null,
-                body,
-                2
-        ).thenApply(JSONObject::parseObject).get();
-
-        questionAnswer.setAnswerId(result.getString("correctAnswer"));
-        if (!questionAnswer.getAnswerId().equals(result.getString("correctAnswer"))) {
-            throw new IllegalStateException("question answer is not correct, need " + result.getString("correctAnswer"));
-        }
+                body
+        )).thenApply(JSONObject::parseObject).thenAccept(result -> {
+            String correctAnswer = result.getString("correctAnswer");
+            String submitted = questionAnswer.getAnswerId();
+            answerStore.recordCorrect(questionAnswer.getQuizId(), questionAnswer.getQuestionId(), correctAnswer);
+            questionAnswer.setAnswerId(correctAnswer);
+            if (correctAnswer != null && !correctAnswer.equals(submitted)) {
+                throw new IllegalStateException("question answer is not correct, need " + correctAnswer);
+            }
+        });
     }
 
     public void startQuiz(FullAccountContext fullAccountContext, String quizId) throws ExecutionException, InterruptedException {
+        startQuizAsync(fullAccountContext, quizId).get();
+    }
+
+    public CompletableFuture<String> startQuizAsync(FullAccountContext fullAccountContext, String quizId) {
         Map<String, String> headers = buildHeader(fullAccountContext);
-        RestApiClientFactory.getClient(fullAccountContext.getProxy()).request(
-                BASE_URL + "/learn-earn/start-quiz/" + quizId,
+        return call(ENDPOINT_START_QUIZ, fullAccountContext, () -> httpClient(fullAccountContext).request(
+                hubBaseUrl + "/learn-earn/start-quiz/" + quizId,
                 HttpMethod.POST,
                 headers,
-                null,
-                new JSONObject(),
-                1
-        ).get();
+                new JSONObject()
+        ));
     }
 
     public List<QuestionAnswer> queryAccountAvailableQATask(FullAccountContext fullAccountContext) throws ExecutionException, InterruptedException {
-        Map<String, String> headers = buildHeader(fullAccountContext);
-        return RestApiClientFactory.getClient(fullAccountContext.getProxy()).listRequest(
-                BASE_URL + "/learn-earn",
-                HttpMethod.GET,
-                headers,
-                null,
-                null
-        ).thenApply(result -> {
-            List<QuestionAnswer> questionAnswers = new ArrayList<>();
-            for (int i = 0; i < result.size(); i++) {
-                JSONObject quiz = result.getJSONObject(i);
-                String quizId = quiz.getString("id");
-                Map<String, String> qaMap = answerMap.get(quizId);
-
-                if (qaMap == null || qaMap.isEmpty()) {
-                    qaMap = new HashMap<>();
-                }
+        return queryAccountAvailableQATaskAsync(fullAccountContext).get();
+    }
 
-                JSONArray questions = quiz.getJSONArray("questions");
-                for (int i1 = 0; i1 < questions.size(); i1++) {
-                    JSONObject question = questions.getJSONObject(i1);
-                    String questionId = question.getString("id");
-                    String answerId = qaMap.get(questionId);
+    /**
+     * 查询可答题目。quiz 目录各账户相同，走共享缓存，只有答案按当前答案库解析
+     */
+    public CompletableFuture<List<QuestionAnswer>> queryAccountAvailableQATaskAsync(FullAccountContext fullAccountContext) {
+        return catalogueCache.get(() -> queryQuizCatalogueAsync(fullAccountContext)).thenApply(quizzes -> {
+            List<QuestionAnswer> questionAnswers = new ArrayList<>();
+            for (QuizCatalogue.Quiz quiz : quizzes) {
+                List<String> questionIds = quiz.getQuestionIds();
+                for (int i = 0; i < questionIds.size(); i++) {
+                    String answerId = answerStore.getAnswer(quiz.getQuizId(), questionIds.get(i));
                     if (StrUtil.isBlank(answerId)) {
-                        answerId = question.getJSONArray("answers")
-                                .getJSONObject(0).getString("id");
+                        answerId = quiz.getFirstAnswerIds().get(i);
                     }
-
-                    questionAnswers.add(new QuestionAnswer(
-                            quizId, questionId, answerId
-                    ));
+                    questionAnswers.add(new QuestionAnswer(quiz.getQuizId(), questionIds.get(i), answerId));
                 }
             }
             return questionAnswers;
-        }).get();
+        });
+    }
+
+    public CompletableFuture<QuizCatalogue> queryQuizCatalogueAsync(FullAccountContext fullAccountContext) {
+        return streamRequest(fullAccountContext, ENDPOINT_LEARN_EARN, hubBaseUrl + "/learn-earn", reader -> {
+            CountingReader countingReader = new CountingReader(reader);
+            Map<String, QuizCatalogue.Quiz> quizMap = new LinkedHashMap<>();
+            LearnEarnStreamParser.parseQuizzes(countingReader, (quizId, questionId, firstAnswerId) -> {
+                QuizCatalogue.Quiz quiz = quizMap.computeIfAbsent(
+                        quizId, k -> new QuizCatalogue.Quiz(k, new ArrayList<>(), new ArrayList<>())
+                );
+                quiz.getQuestionIds().add(questionId);
+                quiz.getFirstAnswerIds().add(firstAnswerId);
+            });
+            return new QuizCatalogue(new ArrayList<>(quizMap.values()), countingReader.getCount());
+        });
+    }
+
+    public LearnEarnCatalogueCache getCatalogueCache() {
+        return catalogueCache;
     }
 
 
     public void completeViewTask(FullAccountContext accountContext, String taskId) throws ExecutionException, InterruptedException {
+        completeViewTaskAsync(accountContext, taskId).get();
+    }
+
+    public CompletableFuture<JSONObject> completeViewTaskAsync(FullAccountContext accountContext, String taskId) {
         Map<String, String> headers = buildHeader(accountContext);
-        RestApiClientFactory.getClient(accountContext.getProxy()).jsonRequest(
-                BASE_URL + "/tasks/start/" + taskId,
+        return call(ENDPOINT_TASK_START, accountContext, () -> httpClient(accountContext).jsonRequest(
+                hubBaseUrl + "/tasks/start/" + taskId,
                 HttpMethod.POST,
                 headers,
-                null,
                 new JSONObject()
-        ).get();
+        ));
+    }
+
+    /**
+     * 查询并完成账户所有可用的 view 任务，单个任务失败不影响其它任务
+     *
+     * @return 成功完成的任务数
+     */
+    public CompletableFuture<Integer> completeAvailableViewTaskAsync(FullAccountContext accountContext) {
+        return queryAccountAvailableViewTaskAsync(accountContext).thenCompose(ids -> {
+            List<CompletableFuture<Boolean>> futures = ids.stream()
+                    .map(id -> completeViewTaskAsync(accountContext, id).handle((r, e) -> {
+                        if (e != null) {
+                            log.error("[Learn & Earn][View] account[{}] complete task: {} error, {}",
+                                    accountContext.getId(), id, e.getMessage());
+                        }
+                        return e == null;
+                    }))
+                    .toList();
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .thenApply(v -> (int) futures.stream().filter(CompletableFuture::join).count());
+        });
     }
 
     public List<String> queryAccountAvailableViewTask(FullAccountContext accountContext)
             throws ExecutionException, InterruptedException {
+        return queryAccountAvailableViewTaskAsync(accountContext).get();
+    }
+
+    public CompletableFuture<List<String>> queryAccountAvailableViewTaskAsync(FullAccountContext accountContext) {
+        return streamRequest(
+                accountContext, ENDPOINT_TASKS_MY, hubBaseUrl + "/tasks/my", LearnEarnStreamParser::parseAvailableLearnEarnTaskIds
+        );
+    }
+
+    /**
+     * GET 请求，响应体不整体读入内存，直接交给流式解析器
+     */
+    private <T> CompletableFuture<T> streamRequest(
+            FullAccountContext accountContext, String endpoint, String url, Function<Reader, T> parser
+    ) {
         Map<String, String> headers = buildHeader(accountContext);
-        return RestApiClientFactory.getClient(accountContext.getProxy()).jsonRequest(
-                BASE_URL + "/tasks/my",
+        AtomicReference<T> result = new AtomicReference<>();
+        return call(endpoint, accountContext, () -> httpClient(accountContext).rawRequest(
+                url,
                 HttpMethod.GET,
                 headers,
                 null,
-                null
-        ).thenApply(result -> {
-            JSONArray available = result.getJSONArray("available");
-            List<String> ids = new ArrayList<>();
-            for (int i = 0; i < available.size(); i++) {
-                JSONObject task = available.getJSONObject(i);
-                if (
-                        "LEARN_EARN".equals(task.getString("type")) &&
-                                "ACTIVE".equals(task.getString("taskStatus"))
-                ) {
-                    ids.add(task.getString("id"));
+                response -> {
+                    ResponseBody rb = response.body();
+                    if (response.code() != 200 || rb == null) {
+                        throw new RuntimeException("request " + url + " failed, code " + response.code()
+                                + ", " + (rb == null ? "" : rb.string()));
+                    }
+                    try (Reader reader = rb.charStream()) {
+                        result.set(parser.apply(reader));
+                    }
                 }
-            }
-            return ids;
-        }).get();
+        )).thenApply(v -> result.get());
+    }
+
+    /**
+     * 所有接口请求的统一入口：按代理、接口熔断与重试，每次实际发出的请求记录耗时、在途数与成功失败次数。
+     * 客户端自身只请求一次，重试统一由 ResilientCaller 按退避与预算控制；每次尝试都受所属接口组的自适应并发上限约束
+     *
+     * @param endpoint 接口名
+     * @param request  发起请求
+     */
+    private <T> CompletableFuture<T> call(
+            String endpoint, FullAccountContext accountContext, Supplier<CompletableFuture<T>> request
+    ) {
+        String proxyKey = proxyHealthTracker.keyOf(accountContext);
+        return resilientCaller.call(
+                proxyKey,
+                endpoint,
+                ENDPOINT_MAX_RETRIES.getOrDefault(endpoint, 0),
+                () -> limiterOf(endpoint).submit(() -> proxyHealthTracker.track(
+                        accountContext, () -> AgentHubMetrics.timeRequest(endpoint, accountContext, proxyKey, request)
+                ))
+        );
+    }
+
+    private AdaptiveConcurrencyLimiter limiterOf(String endpoint) {
+        return ENDPOINT_PRIVY_INIT.equals(endpoint) || ENDPOINT_PRIVY_AUTHENTICATE.equals(endpoint) ? privyLimiter : hubLimiter;
+    }
+
+    /**
+     * 各接口组当前的并发上限
+     */
+    public String concurrencyReport() {
+        return hubLimiter + "; " + privyLimiter;
+    }
+
+    public ResilientCaller getResilientCaller() {
+        return resilientCaller;
+    }
+
+    public ProxyHealthTracker getProxyHealthTracker() {
+        return proxyHealthTracker;
+    }
+
+    public HttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * 预热账户实际使用的代理到 hub-api 与 privy 的连接
+     */
+    public CompletableFuture<Void> warmUpConnections(List<FullAccountContext> accounts) {
+        Map<String, Object> proxies = new LinkedHashMap<>();
+        accounts.forEach(account -> proxies.putIfAbsent(proxyHealthTracker.keyOf(account), proxyHealthTracker.route(account)));
+        return httpTransport.warmUp(proxies.values());
+    }
+
+    /**
+     * 账户实际代理对应的 HTTP 客户端
+     */
+    private HubHttpClient httpClient(FullAccountContext accountContext) {
+        return httpTransport.client(proxyHealthTracker.route(accountContext));
+    }
+
+    /**
+     * 经由指定代理发出一次探测请求，收到任意 HTTP 响应即视为代理可用
+     */
+    private CompletableFuture<?> probeProxyAsync(ProxyHealth proxyHealth) {
+        return httpTransport.client(proxyHealth.getProxy()).rawRequest(
+                AgentHubConfig.get().getProxyHealth().getProbeUrl(),
+                HttpMethod.GET,
+                new HashMap<>(),
+                null,
+                response -> {
+                }
+        );
     }
 
 
     public JSONObject dailyCheckIn(FullAccountContext fullAccountContext) throws ExecutionException, InterruptedException {
+        return dailyCheckInAsync(fullAccountContext).get();
+    }
+
+    public CompletableFuture<JSONObject> dailyCheckInAsync(FullAccountContext fullAccountContext) {
         Map<String, String> headers = buildHeader(fullAccountContext);
-        return RestApiClientFactory.getClient(fullAccountContext.getProxy()).jsonRequest(
-                BASE_URL + "/daily-rewards/claim",
+        return call(ENDPOINT_DAILY_CLAIM, fullAccountContext, () -> httpClient(fullAccountContext).jsonRequest(
+                hubBaseUrl + "/daily-rewards/claim",
                 HttpMethod.POST,
                 headers,
-                null,
                 new JSONObject()
-        ).get();
+        ));
     }
 
+    private Map<String, String> buildPrivyHeader(FullAccountContext accountContext) {
+        Map<String, String> headers = buildHeader(accountContext);
+        headers.put("privy-app-id", "cm6jesuxd00a9ojo0i9rlxudk");
+        headers.put("privy-ca-id", "695ef102-583a-4816-bb32-d8e225ba08fe");
+        headers.put("privy-client", "react-auth:2.4.2");
+        return headers;
+    }
 
     private Map<String, String> buildHeader(FullAccountContext accountContext) {
         Map<String, String> headers = accountContext.buildHeader();
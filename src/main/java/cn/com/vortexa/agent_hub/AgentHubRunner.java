@@ -0,0 +1,557 @@
+package cn.com.vortexa.agent_hub;
+
+import cn.com.vortexa.agent_hub.checkin.CheckInScheduleStore;
+import cn.com.vortexa.agent_hub.checkin.CheckInScheduler;
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.AccountSession;
+import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import cn.com.vortexa.agent_hub.dto.QuizRunResult;
+import cn.com.vortexa.agent_hub.dto.WorkflowReport;
+import cn.com.vortexa.agent_hub.event.RunEvent;
+import cn.com.vortexa.agent_hub.event.RunEvents;
+import cn.com.vortexa.agent_hub.event.RunSummary;
+import cn.com.vortexa.agent_hub.executor.AccountTaskExecutor;
+import cn.com.vortexa.agent_hub.journal.ProgressJournal;
+import cn.com.vortexa.agent_hub.login.BulkLoginService;
+import cn.com.vortexa.agent_hub.parser.DailyRewardCooldownParser;
+import cn.com.vortexa.agent_hub.proxy.ProxyHealthTracker;
+import cn.com.vortexa.agent_hub.quiz.QuizAnswerPipeline;
+import cn.com.vortexa.agent_hub.session.AccountSessionStore;
+import cn.com.vortexa.agent_hub.shard.AccountSharding;
+import cn.com.vortexa.agent_hub.transport.HttpStatusException;
+import cn.com.vortexa.base.constants.HeaderKey;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.common.util.CastUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * AgentHub 各任务的执行逻辑，与 bot 框架解耦，入参为本次要执行的账户；
+ * AgentHubBot 与离线压测都通过它执行，退出时由持有者 close，写入登录态与进度日志中未落盘的修改
+ *
+ * @author helei
+ * @since 2025-08-31
+ */
+@Slf4j
+public class AgentHubRunner implements AutoCloseable {
+
+    /**
+     * 缓存 cookie 在该间隔内视为有效，不再探活
+     */
+    private static final long SESSION_PROBE_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    @Getter
+    private final AgentHubApi agentHubApi = new AgentHubApi();
+
+    private final AccountSessionStore sessionStore = new AccountSessionStore();
+
+    private final AccountTaskExecutor taskExecutor = new AccountTaskExecutor(
+            AgentHubConfig.get().getExecutor(), agentHubApi.getResilientCaller(), agentHubApi.getProxyHealthTracker()
+    );
+
+    private final AgentHubConfig.Quiz quizConfig = AgentHubConfig.get().getQuiz();
+
+    private final AgentHubConfig.Login loginConfig = AgentHubConfig.get().getLogin();
+
+    private final BulkLoginService bulkLoginService
+            = new BulkLoginService(agentHubApi, sessionStore, taskExecutor, loginConfig);
+
+    private final ProgressJournal progressJournal = new ProgressJournal();
+
+    private final QuizAnswerPipeline quizAnswerPipeline
+            = new QuizAnswerPipeline(agentHubApi, taskExecutor, progressJournal, quizConfig);
+
+    private final AgentHubConfig.CheckIn checkInConfig = AgentHubConfig.get().getCheckIn();
+
+    private final CheckInScheduleStore checkInScheduleStore = new CheckInScheduleStore(checkInConfig.getScheduleFile());
+
+    private final CheckInScheduler checkInScheduler
+            = new CheckInScheduler(checkInConfig, checkInScheduleStore, this::dailyCheckIn, this::ownedAccounts);
+
+    private final AgentHubConfig.Workflow workflowConfig = AgentHubConfig.get().getWorkflow();
+
+    private final AccountSharding accountSharding = new AccountSharding(AgentHubConfig.get().getShard());
+
+    public void dailyCheckIn(List<FullAccountContext> accounts) {
+        // 未到可领取时间的账户不登录、不请求，没有冷却记录时按当天是否已签到判断
+        long now = System.currentTimeMillis();
+        List<FullAccountContext> eligible = accounts.stream()
+                .filter(fullAccountContext -> isCheckInEligible(fullAccountContext, now))
+                .toList();
+        if (eligible.size() < accounts.size()) {
+            log.info("[Check In] [{}/{}] account not eligible yet, skip", accounts.size() - eligible.size(), accounts.size());
+        }
+        if (eligible.isEmpty()) return;
+
+        runForEachAccount("Check In", eligible, fullAccountContext -> {
+            if (!tryLogin(fullAccountContext)) return;
+            checkInStage(fullAccountContext);
+        });
+    }
+
+    /**
+     * 启动按冷却时间签到的调度，重复调用时加入新的账户
+     */
+    public void startCheckInScheduler(List<FullAccountContext> accounts) {
+        checkInScheduler.start(accounts);
+    }
+
+    public void completeLearnAndEarnViewTask(List<FullAccountContext> accounts) {
+        runForEachAccount("Learn & Earn-[view-task]", accounts, fullAccountContext -> {
+            if (!tryLogin(fullAccountContext)) return;
+            viewTaskStage(fullAccountContext);
+        });
+    }
+
+    public void completeLearnAndEarnQATask(List<FullAccountContext> accounts) {
+        runForEachAccount("Learn & Earn-[QA-task]", accounts, fullAccountContext -> {
+            if (!tryLogin(fullAccountContext)) return;
+            qaStage(fullAccountContext);
+        });
+        log.info("[Learn & Earn][QA] {}", agentHubApi.getCatalogueCache().stats());
+    }
+
+    /**
+     * 每个账户只登录一次，按配置的顺序依次执行各阶段，结果汇总为一份报告
+     */
+    public WorkflowReport runWorkflow(List<FullAccountContext> accounts) {
+        // 报告只统计归属本实例的账户
+        accounts = ownedAccounts(accounts);
+        List<WorkflowReport.Stage> stages = workflowConfig.getStages();
+        WorkflowReport report = new WorkflowReport(accounts.size(), stages);
+        runForEachAccount("Workflow", accounts, fullAccountContext -> {
+            if (!tryLogin(fullAccountContext)) {
+                report.recordLoginFailed(fullAccountContext.getId());
+                return;
+            }
+
+            boolean sessionLost = false;
+            for (WorkflowReport.Stage stage : stages) {
+                if (sessionLost) {
+                    report.record(fullAccountContext.getId(), stage, WorkflowReport.StageResult.skipped("session invalid"), 0);
+                    continue;
+                }
+                long start = System.nanoTime();
+                WorkflowReport.StageResult result;
+                try {
+                    result = switch (stage) {
+                        case CHECK_IN -> checkInStage(fullAccountContext);
+                        case VIEW_TASK -> viewTaskStage(fullAccountContext);
+                        case QA -> qaStage(fullAccountContext);
+                    };
+                } catch (Exception e) {
+                    log.error("[Workflow] account[{}] stage [{}] error", fullAccountContext.getId(), stage, e);
+                    result = WorkflowReport.StageResult.failed(e.getMessage());
+                }
+                long cost = System.nanoTime() - start;
+                report.record(fullAccountContext.getId(), stage, result, cost);
+                RunEvents.emit(RunEvent.Type.STAGE, fullAccountContext.getId(), stage.name(),
+                        toEventOutcome(result.getOutcome()), cost, result.getMessage());
+                // 401 时 cookie 已被丢弃，后续阶段不再请求
+                sessionLost = result.getOutcome() == WorkflowReport.Outcome.FAILED
+                        && sessionStore.getValid(fullAccountContext.getId()) == null;
+            }
+        });
+        report.finish();
+        log.info("[Workflow] run report\n{}", report.summary());
+        writeWorkflowReport(report);
+        return report;
+    }
+
+    private boolean isCheckInEligible(FullAccountContext fullAccountContext, long now) {
+        Long nextEligibleAt = checkInScheduleStore.getNextEligibleAt(fullAccountContext.getId());
+        return nextEligibleAt != null
+                ? nextEligibleAt <= now
+                : !progressJournal.isDone(fullAccountContext.getId(), ProgressJournal.Kind.CHECK_IN, ProgressJournal.today());
+    }
+
+    private WorkflowReport.StageResult checkInStage(FullAccountContext fullAccountContext) {
+        if (!isCheckInEligible(fullAccountContext, System.currentTimeMillis())) {
+            log.debug("[Check In] [{}] not eligible yet, skip", fullAccountContext.getAccount());
+            RunEvents.emit(RunEvent.Type.CHECK_IN, fullAccountContext.getId(), null, RunEvent.Outcome.SKIPPED, 0);
+            return WorkflowReport.StageResult.skipped("not eligible yet");
+        }
+        log.debug("[Check In] start [{}] daily check in...", fullAccountContext.getAccount());
+
+        long start = System.nanoTime();
+        try {
+            JSONObject jsonObject = agentHubApi.dailyCheckIn(fullAccountContext);
+            progressJournal.markDone(fullAccountContext.getId(), ProgressJournal.Kind.CHECK_IN, ProgressJournal.today());
+            recordNextCheckIn(fullAccountContext, DailyRewardCooldownParser.nextEligibleAt(jsonObject,
+                    System.currentTimeMillis(), TimeUnit.HOURS.toMillis(checkInConfig.getFallbackIntervalHours())));
+            RunEvents.emit(RunEvent.Type.CHECK_IN, fullAccountContext.getId(), null,
+                    RunEvent.Outcome.SUCCESS, System.nanoTime() - start);
+            log.debug("[Check In] [{}] daily check in complete, {}",
+                    fullAccountContext.getAccount(), jsonObject);
+            return WorkflowReport.StageResult.success(1, 1);
+        } catch (Exception e) {
+            RunEvents.emit(RunEvent.Type.CHECK_IN, fullAccountContext.getId(), null,
+                    RunEvent.Outcome.FAILED, System.nanoTime() - start, e.getMessage());
+            // 已领取时错误响应中同样带有下次可领取时间
+            Long nextEligibleAt = resolveCooldownFromError(e);
+            if (nextEligibleAt != null) {
+                recordNextCheckIn(fullAccountContext, nextEligibleAt);
+            }
+            handleRequestError(fullAccountContext, e);
+            log.error("[Check In] daily check in error, {}" , e.getMessage());
+            return WorkflowReport.StageResult.failed(e.getMessage());
+        }
+    }
+
+    private WorkflowReport.StageResult viewTaskStage(FullAccountContext fullAccountContext) {
+        List<String> ids;
+        try {
+            ids = agentHubApi.queryAccountAvailableViewTask(fullAccountContext).stream()
+                    .filter(id -> !progressJournal.isDone(fullAccountContext.getId(), ProgressJournal.Kind.VIEW_TASK, id))
+                    .toList();
+            log.debug("[Learn & Earn][View] account[{}] have available task: {}", fullAccountContext.getId(), ids.size());
+        } catch (Exception e) {
+            handleRequestError(fullAccountContext, e);
+            log.error("[Learn & Earn][View] account[{}] query available task error, {}", fullAccountContext.getId(), e.getMessage());
+            return WorkflowReport.StageResult.failed("query available task error, " + e.getMessage());
+        }
+
+        if (CollUtil.isEmpty(ids)) {
+            log.debug("[Learn & Earn][View] account[{}] no available task", fullAccountContext.getId());
+            return WorkflowReport.StageResult.skipped("no available task");
+        }
+
+        int errorCount = 0;
+        for (String id : ids) {
+            long start = System.nanoTime();
+            try {
+                taskExecutor.pace(fullAccountContext);
+                start = System.nanoTime();
+                agentHubApi.completeViewTask(fullAccountContext, id);
+                progressJournal.markDone(fullAccountContext.getId(), ProgressJournal.Kind.VIEW_TASK, id);
+                RunEvents.emit(RunEvent.Type.VIEW_TASK, fullAccountContext.getId(), id,
+                        RunEvent.Outcome.SUCCESS, System.nanoTime() - start);
+            } catch (Exception e) {
+                errorCount++;
+                RunEvents.emit(RunEvent.Type.VIEW_TASK, fullAccountContext.getId(), id,
+                        RunEvent.Outcome.FAILED, System.nanoTime() - start, e.getMessage());
+                log.error("[Learn & Earn][View] account[{}] complete task: {} error, {}", fullAccountContext.getId(), id, e.getMessage());
+            }
+        }
+        log.debug("[Learn & Earn][View] account[{}] task complete [{}/{}]"
+                , fullAccountContext.getId(), ids.size() - errorCount, ids.size());
+        return WorkflowReport.StageResult.success(ids.size() - errorCount, ids.size());
+    }
+
+    private WorkflowReport.StageResult qaStage(FullAccountContext fullAccountContext) {
+        List<QuestionAnswer> questionAnswers;
+        try {
+            questionAnswers = agentHubApi.queryAccountAvailableQATask(fullAccountContext).stream()
+                    .filter(qa -> !progressJournal.isDone(fullAccountContext.getId(),
+                            ProgressJournal.Kind.QUESTION, qa.getQuizId() + "/" + qa.getQuestionId()))
+                    .toList();
+            log.debug("[Learn & Earn][QA] account[{}] have available QA task: {}",
+                    fullAccountContext.getId(), questionAnswers.size()
+            );
+        } catch (Exception e) {
+            handleRequestError(fullAccountContext, e);
+            log.error("[Learn & Earn][QA] account[{}] query available QA task error, {}", fullAccountContext.getId(), e.getMessage());
+            return WorkflowReport.StageResult.failed("query available QA task error, " + e.getMessage());
+        }
+
+        if (CollUtil.isEmpty(questionAnswers)) {
+            log.debug("[Learn & Earn][QA] account[{}] no available QA task", fullAccountContext.getId());
+            return WorkflowReport.StageResult.skipped("no available QA task");
+        }
+
+        if (quizConfig.isPipelined()) {
+            QuizRunResult result = quizAnswerPipeline.run(fullAccountContext, questionAnswers);
+            log.debug("[Learn & Earn][QA] account[{}] QA task complete [{}/{}], wrong: {}, error: {}, skipped: {}",
+                    fullAccountContext.getId(), result.getCorrectCount().get(), result.getTotal(),
+                    result.getWrongCount().get(), result.getErrorCount().get(), result.getSkippedCount().get());
+            // 答错的题也已作答完毕，只有出错的算未完成
+            return WorkflowReport.StageResult.success(
+                    result.getCorrectCount().get() + result.getWrongCount().get(), result.getTotal()
+            );
+        }
+
+        Map<String, List<QuestionAnswer>> quizMap =
+                questionAnswers.stream().collect(Collectors.groupingBy(QuestionAnswer::getQuizId));
+
+        int errorCount = 0;
+        for (Map.Entry<String, List<QuestionAnswer>> entry : quizMap.entrySet()) {
+            String quizId = entry.getKey();
+            try {
+                taskExecutor.pace(fullAccountContext);
+                agentHubApi.startQuiz(fullAccountContext, quizId);
+                RunEvents.emit(RunEvent.Type.QUIZ_START, fullAccountContext.getId(), quizId, RunEvent.Outcome.SUCCESS, 0);
+            } catch (ExecutionException | InterruptedException e) {
+                RunEvents.emit(RunEvent.Type.QUIZ_START, fullAccountContext.getId(), quizId,
+                        RunEvent.Outcome.FAILED, 0, e.getMessage());
+                log.error("[Learn & Earn][QA] account[{}] start quiz [{}] error, {}",
+                        fullAccountContext.getId(), quizId, e.getMessage()
+                );
+                if (!e.getMessage().contains("Quiz already started")) {
+                    continue;
+                }
+            }
+
+            for (QuestionAnswer questionAnswer : entry.getValue()) {
+                String questionKey = questionAnswer.getQuizId() + "/" + questionAnswer.getQuestionId();
+                long start = System.nanoTime();
+                try {
+                    taskExecutor.pace(fullAccountContext);
+                    start = System.nanoTime();
+                    agentHubApi.answerQuestion(fullAccountContext, questionAnswer);
+                    progressJournal.markDone(fullAccountContext.getId(), ProgressJournal.Kind.QUESTION, questionKey);
+                    RunEvents.emit(RunEvent.Type.QUESTION, fullAccountContext.getId(), questionKey,
+                            RunEvent.Outcome.SUCCESS, System.nanoTime() - start);
+                } catch (IllegalStateException e) {
+                    progressJournal.markDone(fullAccountContext.getId(), ProgressJournal.Kind.QUESTION, questionKey);
+                    RunEvents.emit(RunEvent.Type.QUESTION, fullAccountContext.getId(), questionKey,
+                            RunEvent.Outcome.WRONG, System.nanoTime() - start);
+                    log.error("[Learn & Earn][QA] complete QA[{}/{}] error break...., {}",
+                            questionAnswer.getQuizId(), questionAnswer.getQuestionId(), e.getMessage()
+                    );
+                    break;
+                } catch (Exception e) {
+                    errorCount++;
+                    RunEvents.emit(RunEvent.Type.QUESTION, fullAccountContext.getId(), questionKey,
+                            RunEvent.Outcome.FAILED, System.nanoTime() - start, e.getMessage());
+                    log.error("[Learn & Earn][QA] complete QA[{}/{}] error, {}",
+                            questionAnswer.getQuizId(), questionAnswer.getQuestionId(), e.getMessage()
+                    );
+                }
+            }
+        }
+        log.debug("[Learn & Earn][QA] account[{}] QA task complete [{}/{}]", fullAccountContext.getId(),
+                questionAnswers.size() - errorCount, questionAnswers.size());
+        return WorkflowReport.StageResult.success(questionAnswers.size() - errorCount, questionAnswers.size());
+    }
+
+    /**
+     * 把账户交给执行器，按配置串行或并发执行
+     */
+    private void runForEachAccount(String taskName, List<FullAccountContext> accounts, Consumer<FullAccountContext> task) {
+        if (accountSharding.isEnabled()) {
+            Set<String> claimed = accountSharding.claim(accounts.stream().map(this::accountKey).toList());
+            // 排队期间租约可能因续期失败被其他节点接管，执行前再确认一次
+            Consumer<FullAccountContext> leasedTask = fullAccountContext -> {
+                if (!accountSharding.isHeld(accountKey(fullAccountContext))) {
+                    log.warn("[{}] account[{}] lease lost, skip", taskName, fullAccountContext.getId());
+                    return;
+                }
+                task.accept(fullAccountContext);
+            };
+            try {
+                doRunForEachAccount(taskName, accounts.stream()
+                        .filter(fullAccountContext -> claimed.contains(accountKey(fullAccountContext))).toList(), leasedTask);
+            } finally {
+                accountSharding.release(claimed);
+            }
+        } else {
+            doRunForEachAccount(taskName, accounts, task);
+        }
+    }
+
+    private void doRunForEachAccount(String taskName, List<FullAccountContext> accounts, Consumer<FullAccountContext> task) {
+        List<FullAccountContext> runnable = new ArrayList<>(accounts);
+
+        ProxyHealthTracker proxyHealthTracker = agentHubApi.getProxyHealthTracker();
+        proxyHealthTracker.reassign(runnable, agentHubApi.getResilientCaller()::isProxyOpen);
+        runnable = proxyHealthTracker.orderByScore(runnable);
+        agentHubApi.warmUpConnections(runnable).join();
+
+        String runId = RunEvents.beginRun(taskName);
+        RunSummary summary;
+        try {
+            if (loginConfig.isBulk()) {
+                runnable = bulkLogin(taskName, runnable);
+            }
+            taskExecutor.runAll(taskName, runnable, task);
+        } finally {
+            summary = RunEvents.endRun(runId);
+        }
+        if (summary != null) {
+            log.info("[{}] {}", taskName, summary);
+        }
+        log.info("[{}] {}", taskName, proxyHealthTracker.report());
+        log.info("[{}] {}", taskName, agentHubApi.getHttpTransport().report());
+        log.info("[{}] {}", taskName, agentHubApi.concurrencyReport());
+    }
+
+    /**
+     * 多实例分片时只保留哈希环上归属本实例的账户
+     */
+    private List<FullAccountContext> ownedAccounts(List<FullAccountContext> accounts) {
+        if (!accountSharding.isEnabled()) return accounts;
+        Set<String> owned = new HashSet<>(accountSharding.owned(accounts.stream().map(this::accountKey).toList()));
+        return accounts.stream().filter(fullAccountContext -> owned.contains(accountKey(fullAccountContext))).toList();
+    }
+
+    private String accountKey(FullAccountContext fullAccountContext) {
+        return String.valueOf(fullAccountContext.getId());
+    }
+
+    /**
+     * 任务开始前统一处理登录：先并发恢复缓存的 session，剩余账户批量登录，登录失败的账户本次不再执行
+     *
+     * @return 可以执行任务的账户
+     */
+    private List<FullAccountContext> bulkLogin(String taskName, List<FullAccountContext> accounts) {
+        List<FullAccountContext> needSignIn = Collections.synchronizedList(new ArrayList<>());
+        taskExecutor.runAll(taskName + "-restore session", accounts, fullAccountContext -> {
+            if (!tryRestoreSession(fullAccountContext)) {
+                needSignIn.add(fullAccountContext);
+            }
+        });
+
+        if (needSignIn.isEmpty()) {
+            return accounts;
+        }
+        Set<Object> signedIn = bulkLoginService.signInAll(new ArrayList<>(needSignIn));
+        Set<Object> failed = needSignIn.stream()
+                .map(FullAccountContext::getId)
+                .filter(id -> !signedIn.contains(id))
+                .collect(Collectors.toSet());
+        return accounts.stream().filter(fullAccountContext -> !failed.contains(fullAccountContext.getId())).toList();
+    }
+
+    private boolean tryLogin(FullAccountContext fullAccountContext) {
+        if (tryRestoreSession(fullAccountContext)) {
+            log.debug("account[{}] reuse cached session", fullAccountContext.getId());
+            RunEvents.emit(RunEvent.Type.LOGIN, fullAccountContext.getId(), "cached", RunEvent.Outcome.SKIPPED, 0);
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            log.debug("start sign in account[{}], {}", fullAccountContext.getId(),
+                    agentHubApi.getProxyHealthTracker().keyOf(fullAccountContext)
+            );
+            String cookie = agentHubApi.signInAccount(fullAccountContext);
+            if (StrUtil.isBlank(cookie)) {
+                log.warn("sign in account[{}] fail", fullAccountContext.getId());
+                RunEvents.emit(RunEvent.Type.LOGIN, fullAccountContext.getId(), null,
+                        RunEvent.Outcome.FAILED, System.nanoTime() - start, "empty cookie");
+                return false;
+            }
+            Long expireAt = CastUtil.autoCast(fullAccountContext.getParam(AgentHubApi.COOKIE_EXPIRE_AT));
+            sessionStore.save(fullAccountContext.getId(), cookie,
+                    expireAt == null ? System.currentTimeMillis() + AgentHubApi.DEFAULT_COOKIE_TTL : expireAt);
+        } catch (Exception e) {
+            log.error("sign in account[{}] error", fullAccountContext.getId(), e);
+            RunEvents.emit(RunEvent.Type.LOGIN, fullAccountContext.getId(), null,
+                    RunEvent.Outcome.FAILED, System.nanoTime() - start, e.getMessage());
+            return false;
+        }
+        RunEvents.emit(RunEvent.Type.LOGIN, fullAccountContext.getId(), null,
+                RunEvent.Outcome.SUCCESS, System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * 尝试复用磁盘中缓存的 cookie，超过探活间隔时先发一次轻量请求确认有效
+     */
+    private boolean tryRestoreSession(FullAccountContext fullAccountContext) {
+        AccountSession session = sessionStore.getValid(fullAccountContext.getId());
+        if (session == null) {
+            return false;
+        }
+
+        fullAccountContext.putParam(HeaderKey.COOKIE, session.getCookie());
+        if (System.currentTimeMillis() - session.getVerifiedAt() < SESSION_PROBE_INTERVAL) {
+            return true;
+        }
+
+        try {
+            if (agentHubApi.probeSession(fullAccountContext)) {
+                sessionStore.markVerified(session);
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("account[{}] probe session error, {}", fullAccountContext.getId(), e.getMessage());
+        }
+        invalidateSession(fullAccountContext);
+        return false;
+    }
+
+    /**
+     * 请求返回 401 时丢弃缓存的 cookie，下次任务重新登录
+     */
+    private void handleRequestError(FullAccountContext fullAccountContext, Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException httpStatusException) {
+                if (httpStatusException.getCode() == 401) {
+                    log.warn("account[{}] session unauthorized, drop cached cookie", fullAccountContext.getId());
+                    invalidateSession(fullAccountContext);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 记录下次可签到时间，加上容忍时钟误差的延迟
+     */
+    private void recordNextCheckIn(FullAccountContext fullAccountContext, long nextEligibleAt) {
+        checkInScheduleStore.update(fullAccountContext.getId(),
+                nextEligibleAt + TimeUnit.SECONDS.toMillis(checkInConfig.getClaimDelaySeconds()));
+    }
+
+    private Long resolveCooldownFromError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException httpStatusException) {
+                Long at = DailyRewardCooldownParser.parseNextClaimAt(httpStatusException.getBody());
+                return at != null && at > System.currentTimeMillis() ? at : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 报告写入工作目录，覆盖上一次
+     */
+    private void writeWorkflowReport(WorkflowReport report) {
+        if (StrUtil.isBlank(workflowConfig.getReportFile())) return;
+        Path path = AgentHubConfig.workDir().resolve(workflowConfig.getReportFile());
+        try {
+            Files.writeString(path, JSON.toJSONString(report, SerializerFeature.PrettyFormat), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("[Workflow] write run report to {} error, {}", path, e.getMessage());
+        }
+    }
+
+    private static RunEvent.Outcome toEventOutcome(WorkflowReport.Outcome outcome) {
+        return switch (outcome) {
+            case SUCCESS -> RunEvent.Outcome.SUCCESS;
+            case SKIPPED -> RunEvent.Outcome.SKIPPED;
+            case PARTIAL, FAILED -> RunEvent.Outcome.FAILED;
+        };
+    }
+
+    private void invalidateSession(FullAccountContext fullAccountContext) {
+        sessionStore.invalidate(fullAccountContext.getId());
+    }
+
+    @Override
+    public void close() {
+        sessionStore.close();
+        progressJournal.close();
+    }
+}
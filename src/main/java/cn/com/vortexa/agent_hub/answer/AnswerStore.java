@@ -0,0 +1,294 @@
+package cn.com.vortexa.agent_hub.answer;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 题目答案库。启动时读取 question-answer.json 与学习到的答案日志，
+ * 答题时记录服务端返回的 correctAnswer，批量追加写入日志，文件被外部修改时自动重新加载
+ *
+ * @author helei
+ * @since 2025-08-21
+ */
+@Slf4j
+public class AnswerStore implements AutoCloseable {
+    public static final String ANSWER_FILE_NAME = "question-answer.json";
+    public static final String LEARNED_FILE_NAME = "question-answer.learned.jsonl";
+    public static final String SNAPSHOT_FILE_NAME = "question-answer.idx";
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+
+    private final Path answerFile;
+    private final Path learnedFile;
+    private final Path snapshotFile;
+    private final Queue<QuestionAnswer> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "answer-store-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 已落盘答案的紧凑索引，只读，整体替换
+     */
+    private volatile UuidAnswerIndex index = UuidAnswerIndex.empty();
+    /**
+     * 新学到、尚未并入索引的答案
+     */
+    private final Map<String, Map<String, String>> overlay = new ConcurrentHashMap<>();
+    private volatile WatchService watchService;
+
+    public AnswerStore() {
+        this(AgentHubConfig.workDir());
+    }
+
+    public AnswerStore(Path dir) {
+        this.answerFile = dir.resolve(ANSWER_FILE_NAME);
+        this.learnedFile = dir.resolve(LEARNED_FILE_NAME);
+        this.snapshotFile = dir.resolve(SNAPSHOT_FILE_NAME);
+        reload();
+        flushScheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        startWatch(dir);
+    }
+
+    /**
+     * 查询答案，命中索引时不分配对象
+     *
+     * @return answerId，未知返回null
+     */
+    public String getAnswer(String quizId, String questionId) {
+        if (!overlay.isEmpty()) {
+            Map<String, String> qaMap = overlay.get(quizId);
+            String answerId = qaMap == null ? null : qaMap.get(questionId);
+            if (answerId != null) {
+                return answerId;
+            }
+        }
+        return index.get(quizId, questionId);
+    }
+
+    /**
+     * 记录服务端确认的正确答案，立即对其它账户可见，稍后批量落盘
+     */
+    public void recordCorrect(String quizId, String questionId, String answerId) {
+        if (StrUtil.hasBlank(quizId, questionId, answerId)) return;
+        if (answerId.equals(getAnswer(quizId, questionId))) return;
+
+        pending.add(new QuestionAnswer(quizId, questionId, answerId));
+        overlay.computeIfAbsent(quizId, k -> new ConcurrentHashMap<>()).put(questionId, answerId);
+        log.debug("learn answer [{}/{}] -> {}", quizId, questionId, answerId);
+    }
+
+    public int size() {
+        return index.size() + overlay.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * 重新加载答案。question-answer.json 未变化时直接读取二进制快照，否则解析 json 并重写快照；
+     * 学习日志总是叠加在上面
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        UuidAnswerIndex base = readSnapshot();
+        boolean fromSnapshot = base != null;
+        Map<String, Map<String, String>> extra = new HashMap<>();
+        if (base == null) {
+            base = UuidAnswerIndex.empty();
+            for (QuestionAnswer qa : readAnswerFile()) {
+                put(extra, qa);
+            }
+        }
+        for (QuestionAnswer qa : readLearnedFile()) {
+            put(extra, qa);
+        }
+        for (QuestionAnswer qa : pending) {
+            put(extra, qa);
+        }
+        index = base.copyWith(extra);
+        if (!fromSnapshot) {
+            writeSnapshot();
+        }
+        log.info("answer store loaded {}, [{}] question, cost {} ms",
+                fromSnapshot ? "from snapshot" : "from json", size(), System.currentTimeMillis() - start);
+    }
+
+    private List<QuestionAnswer> readAnswerFile() {
+        try {
+            if (Files.exists(answerFile)) {
+                List<QuestionAnswer> list = JSONArray.parseArray(
+                        Files.readString(answerFile, StandardCharsets.UTF_8), QuestionAnswer.class
+                );
+                if (list != null) return list;
+            }
+        } catch (Exception e) {
+            log.error("read answer file error", e);
+        }
+        return List.of();
+    }
+
+    private List<QuestionAnswer> readLearnedFile() {
+        List<QuestionAnswer> all = new ArrayList<>();
+        try {
+            if (Files.exists(learnedFile)) {
+                for (String line : Files.readAllLines(learnedFile, StandardCharsets.UTF_8)) {
+                    if (StrUtil.isNotBlank(line)) {
+                        all.add(JSONObject.parseObject(line, QuestionAnswer.class));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("read learned answer file error", e);
+        }
+        return all;
+    }
+
+    private static void put(Map<String, Map<String, String>> map, QuestionAnswer qa) {
+        if (StrUtil.hasBlank(qa.getQuizId(), qa.getQuestionId(), qa.getAnswerId())) return;
+        map.computeIfAbsent(qa.getQuizId(), k -> new HashMap<>()).put(qa.getQuestionId(), qa.getAnswerId());
+    }
+
+    /**
+     * 快照头部记录 question-answer.json 的修改时间和长度，不一致视为过期
+     */
+    private UuidAnswerIndex readSnapshot() {
+        if (!Files.exists(snapshotFile) || !Files.exists(answerFile)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readLong() != Files.getLastModifiedTime(answerFile).toMillis() || in.readLong() != Files.size(answerFile)) {
+                return null;
+            }
+            return UuidAnswerIndex.readSnapshot(in);
+        } catch (IOException e) {
+            log.warn("read answer snapshot error, {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot() {
+        if (!Files.exists(answerFile)) return;
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeLong(Files.getLastModifiedTime(answerFile).toMillis());
+            out.writeLong(Files.size(answerFile));
+            index.writeSnapshot(out);
+        } catch (IOException e) {
+            log.warn("write answer snapshot error, {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("replace answer snapshot error, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把攒下的答案一次性追加到学习日志，并合入索引
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        StringBuilder sb = new StringBuilder();
+        int count = 0;
+        QuestionAnswer qa;
+        while ((qa = pending.poll()) != null) {
+            sb.append(JSONObject.toJSONString(qa)).append('\n');
+            count++;
+        }
+        try (Writer writer = Files.newBufferedWriter(learnedFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(sb.toString());
+            log.info("flush [{}] learned answer to {}", count, learnedFile);
+        } catch (IOException e) {
+            log.error("flush learned answer error", e);
+        }
+
+        Map<String, Map<String, String>> folded = new HashMap<>();
+        overlay.forEach((quizId, qaMap) -> folded.put(quizId, new HashMap<>(qaMap)));
+        index = index.copyWith(folded);
+        folded.forEach((quizId, qaMap) -> {
+            Map<String, String> current = overlay.get(quizId);
+            if (current == null) return;
+            // 只移除已并入索引的值，flush 期间新学到的答案保留在 overlay 中
+            qaMap.forEach((questionId, answerId) -> current.remove(questionId, answerId));
+            if (current.isEmpty()) overlay.remove(quizId, current);
+        });
+        writeSnapshot();
+    }
+
+    private void startWatch(Path dir) {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            log.warn("watch answer file error, hot reload disabled, {}", e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        // 学习日志由本进程追加，内容已在内存中，只关心人工维护的答案文件
+                        if (context instanceof Path path && path.toString().equals(ANSWER_FILE_NAME)) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    if (changed) {
+                        log.info("{} changed, reload answer store", ANSWER_FILE_NAME);
+                        reload();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // closed
+            }
+        }, "answer-store-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+        flush();
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package cn.com.vortexa.agent_hub.answer;
+
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * (quizId, questionId) -> answerId 的紧凑索引。
+ * id 均为 UUID，按高低两个 long 存进开放寻址表，查询时直接从字符串解析，不产生临时对象；
+ * 非 UUID 格式的 id 放入兜底 HashMap。
+ * <p>
+ * 构建完成后只读，可在线程间安全共享；更新通过 {@link #copyWith} 生成新索引
+ *
+ * @author helei
+ * @since 2025-08-22
+ */
+public final class UuidAnswerIndex {
+    private static final int SNAPSHOT_MAGIC = 0x41484958; // AHIX
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int UUID_LENGTH = 36;
+    private static final float LOAD_FACTOR = 0.5f;
+    /**
+     * ASCII 字符 -> 十六进制值，非十六进制字符为 -1，比 Character.digit 少了 Unicode 分支
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * 每个槽位 4 个 long：quizHi, quizLo, questionHi, questionLo
+     */
+    private final long[] keys;
+    /**
+     * 答案字符串，构建时生成，查询直接返回；快照中的高低位由它解析
+     */
+    private final String[] answerStrings;
+    private final int mask;
+    private int size;
+    private final Map<String, String> fallback = new HashMap<>();
+
+    private UuidAnswerIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity * 4];
+        this.answerStrings = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static UuidAnswerIndex empty() {
+        return new UuidAnswerIndex(16);
+    }
+
+    public int size() {
+        return size + fallback.size();
+    }
+
+    /**
+     * 查询答案，不分配对象
+     *
+     * @return answerId，未知返回null
+     */
+    public String get(CharSequence quizId, CharSequence questionId) {
+        if (!isUuid(quizId) || !isUuid(questionId)) {
+            return fallback.isEmpty() ? null : fallback.get(fallbackKey(quizId, questionId));
+        }
+        long qzHi = high(quizId), qzLo = low(quizId), qsHi = high(questionId), qsLo = low(questionId);
+        int slot = hash(qzHi, qzLo, qsHi, qsLo) & mask;
+        while (answerStrings[slot] != null) {
+            int k = slot << 2;
+            if (keys[k] == qzHi && keys[k + 1] == qzLo && keys[k + 2] == qsHi && keys[k + 3] == qsLo) {
+                return answerStrings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 生成包含额外答案的新索引，原索引不变
+     */
+    public UuidAnswerIndex copyWith(Map<String, Map<String, String>> extra) {
+        int extraSize = extra.values().stream().mapToInt(Map::size).sum();
+        UuidAnswerIndex copy = new UuidAnswerIndex(size() + extraSize);
+        forEach(copy::putAll);
+        extra.forEach((quizId, qaMap) -> qaMap.forEach((questionId, answerId) -> copy.put(quizId, questionId, answerId)));
+        return copy;
+    }
+
+    private void putAll(String quizId, Map<String, String> qaMap) {
+        qaMap.forEach((questionId, answerId) -> put(quizId, questionId, answerId));
+    }
+
+    private void put(String quizId, String questionId, String answerId) {
+        if (!isUuid(quizId) || !isUuid(questionId) || !isUuid(answerId)) {
+            fallback.put(fallbackKey(quizId, questionId), answerId);
+            return;
+        }
+        put(high(quizId), low(quizId), high(questionId), low(questionId), answerId);
+    }
+
+    private void put(long qzHi, long qzLo, long qsHi, long qsLo, String answerId) {
+        if (size + 1 > (mask + 1) * LOAD_FACTOR) {
+            throw new IllegalStateException("answer index capacity exceeded");
+        }
+        int slot = hash(qzHi, qzLo, qsHi, qsLo) & mask;
+        while (answerStrings[slot] != null) {
+            int k = slot << 2;
+            if (keys[k] == qzHi && keys[k + 1] == qzLo && keys[k + 2] == qsHi && keys[k + 3] == qsLo) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (answerStrings[slot] == null) {
+            size++;
+        }
+        int k = slot << 2;
+        keys[k] = qzHi;
+        keys[k + 1] = qzLo;
+        keys[k + 2] = qsHi;
+        keys[k + 3] = qsLo;
+        answerStrings[slot] = answerId;
+    }
+
+    /**
+     * 按 quiz 分组遍历全部答案（会生成字符串，仅用于重建/导出）
+     */
+    public void forEach(BiConsumer<String, Map<String, String>> consumer) {
+        Map<String, Map<String, String>> grouped = new HashMap<>();
+        for (int slot = 0; slot <= mask; slot++) {
+            if (answerStrings[slot] == null) continue;
+            int k = slot << 2;
+            grouped.computeIfAbsent(toUuid(keys[k], keys[k + 1]), key -> new HashMap<>())
+                    .put(toUuid(keys[k + 2], keys[k + 3]), answerStrings[slot]);
+        }
+        fallback.forEach((key, answerId) -> {
+            int split = key.indexOf('\n');
+            grouped.computeIfAbsent(key.substring(0, split), k -> new HashMap<>()).put(key.substring(split + 1), answerId);
+        });
+        grouped.forEach(consumer);
+    }
+
+    /**
+     * 写出二进制快照
+     */
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(size);
+        for (int slot = 0; slot <= mask; slot++) {
+            if (answerStrings[slot] == null) continue;
+            int k = slot << 2;
+            out.writeLong(keys[k]);
+            out.writeLong(keys[k + 1]);
+            out.writeLong(keys[k + 2]);
+            out.writeLong(keys[k + 3]);
+            out.writeLong(high(answerStrings[slot]));
+            out.writeLong(low(answerStrings[slot]));
+        }
+        out.writeInt(fallback.size());
+        for (Map.Entry<String, String> entry : fallback.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    /**
+     * 读取二进制快照
+     */
+    public static UuidAnswerIndex readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("not an answer index snapshot");
+        }
+        int count = in.readInt();
+        UuidAnswerIndex index = new UuidAnswerIndex(count);
+        for (int i = 0; i < count; i++) {
+            long qzHi = in.readLong(), qzLo = in.readLong(), qsHi = in.readLong(), qsLo = in.readLong();
+            index.put(qzHi, qzLo, qsHi, qsLo, toUuid(in.readLong(), in.readLong()));
+        }
+        int fallbackCount = in.readInt();
+        for (int i = 0; i < fallbackCount; i++) {
+            index.fallback.put(in.readUTF(), in.readUTF());
+        }
+        return index;
+    }
+
+    public static UuidAnswerIndex build(Map<String, Map<String, String>> answerMap) {
+        return empty().copyWith(answerMap);
+    }
+
+    private static String fallbackKey(CharSequence quizId, CharSequence questionId) {
+        return quizId + "\n" + questionId;
+    }
+
+    private static int hash(long a, long b, long c, long d) {
+        long h = a * 0x9E3779B97F4A7C15L;
+        h = (h ^ b) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ c) * 0x165667B19E3779F9L;
+        h = (h ^ d) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static boolean isUuid(CharSequence s) {
+        if (s == null || s.length() != UUID_LENGTH) return false;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = s.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (c >= HEX_VALUES.length || HEX_VALUES[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * UUID 高 64 位：xxxxxxxx-xxxx-xxxx
+     */
+    static long high(CharSequence s) {
+        return hex(s, 0, 8) << 32 | hex(s, 9, 13) << 16 | hex(s, 14, 18);
+    }
+
+    /**
+     * UUID 低 64 位：xxxx-xxxxxxxxxxxx
+     */
+    static long low(CharSequence s) {
+        return hex(s, 19, 23) << 48 | hex(s, 24, 36);
+    }
+
+    private static long hex(CharSequence s, int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            v = v << 4 | HEX_VALUES[s.charAt(i)];
+        }
+        return v;
+    }
+
+    static String toUuid(long hi, long lo) {
+        char[] buf = new char[UUID_LENGTH];
+        writeHex(buf, 0, hi >>> 32, 8);
+        buf[8] = '-';
+        writeHex(buf, 9, hi >>> 16, 4);
+        buf[13] = '-';
+        writeHex(buf, 14, hi, 4);
+        buf[18] = '-';
+        writeHex(buf, 19, lo >>> 48, 4);
+        buf[23] = '-';
+        writeHex(buf, 24, lo, 12);
+        return new String(buf);
+    }
+
+    private static void writeHex(char[] buf, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+}
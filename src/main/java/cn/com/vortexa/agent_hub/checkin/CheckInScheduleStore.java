@@ -0,0 +1,103 @@
+package cn.com.vortexa.agent_hub.checkin;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 各账户下次可签到时间，持久化到磁盘；更新只标记脏，定时整体重写，避免每次领取都重写整个文件
+ *
+ * @author helei
+ * @since 2025-09-01
+ */
+@Slf4j
+public class CheckInScheduleStore implements AutoCloseable {
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+
+    private final Path storePath;
+    private final Map<String, Long> nextEligibleMap = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "check-in-schedule-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CheckInScheduleStore(String fileName) {
+        this(AgentHubConfig.workDir().resolve(fileName));
+    }
+
+    public CheckInScheduleStore(Path storePath) {
+        this.storePath = storePath;
+        load();
+        flushScheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return 下次可签到的毫秒时间戳，没有记录返回 null
+     */
+    public Long getNextEligibleAt(Object accountId) {
+        return nextEligibleMap.get(String.valueOf(accountId));
+    }
+
+    /**
+     * 没有记录时视为可签到
+     */
+    public boolean isEligible(Object accountId, long now) {
+        Long at = getNextEligibleAt(accountId);
+        return at == null || at <= now;
+    }
+
+    public void update(Object accountId, long nextEligibleAt) {
+        nextEligibleMap.put(String.valueOf(accountId), nextEligibleAt);
+        dirty.set(true);
+    }
+
+    private void load() {
+        if (!Files.exists(storePath)) return;
+        try {
+            JSONObject content = JSONObject.parseObject(Files.readString(storePath, StandardCharsets.UTF_8));
+            if (content == null) return;
+            content.forEach((accountId, at) -> {
+                if (at instanceof Number number) {
+                    nextEligibleMap.put(accountId, number.longValue());
+                }
+            });
+            log.info("load [{}] check in schedule from {}", nextEligibleMap.size(), storePath);
+        } catch (Exception e) {
+            log.warn("load check in schedule from {} error, {}", storePath, e.getMessage());
+        }
+    }
+
+    public synchronized void flush() {
+        if (!dirty.getAndSet(false)) return;
+        try {
+            Path tmp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            Files.writeString(tmp, JSONObject.toJSONString(new TreeMap<>(nextEligibleMap)), StandardCharsets.UTF_8);
+            Files.move(tmp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("flush check in schedule to {} error, {}", storePath, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,168 @@
+package cn.com.vortexa.agent_hub.checkin;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 按各账户的冷却时间签到：每个账户在下次可领取时刻由时间轮触发，到期的账户按 tick 成批交给签到逻辑。
+ * 没有记录的账户在首次启动时按 id 散列分散到 initialSpread 时间窗内，之后各自按冷却时间滚动，
+ * 负载在一天内自然摊开，不会每个周期集中登录所有账户
+ *
+ * @author helei
+ * @since 2025-09-01
+ */
+@Slf4j
+public class CheckInScheduler implements AutoCloseable {
+    private final AgentHubConfig.CheckIn config;
+    private final CheckInScheduleStore scheduleStore;
+    private final Consumer<List<FullAccountContext>> checkIn;
+    /**
+     * 筛出归属本节点的账户，未开启分片时原样返回
+     */
+    private final UnaryOperator<List<FullAccountContext>> owned;
+    private final CheckInTimingWheel timingWheel;
+    private final Map<String, FullAccountContext> accountMap = new ConcurrentHashMap<>();
+    /**
+     * accountId -> 连续未签到成功的次数，只在 dispatcher 线程中读写
+     */
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    /**
+     * 按顺序执行到期批次，签到较慢时后续批次排队，不阻塞时间轮
+     */
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "check-in-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CheckInScheduler(
+            AgentHubConfig.CheckIn config, CheckInScheduleStore scheduleStore, Consumer<List<FullAccountContext>> checkIn
+    ) {
+        this(config, scheduleStore, checkIn, UnaryOperator.identity());
+    }
+
+    public CheckInScheduler(
+            AgentHubConfig.CheckIn config, CheckInScheduleStore scheduleStore, Consumer<List<FullAccountContext>> checkIn,
+            UnaryOperator<List<FullAccountContext>> owned
+    ) {
+        this.config = config;
+        this.scheduleStore = scheduleStore;
+        this.checkIn = checkIn;
+        this.owned = owned;
+        this.timingWheel = new CheckInTimingWheel(
+                TimeUnit.SECONDS.toMillis(config.getTickSeconds()), config.getWheelSize(), this::onExpire
+        );
+        AgentHubMetrics.registry().gauge("agent_hub_check_in_scheduled", timingWheel::size);
+    }
+
+    /**
+     * 登记账户并启动时间轮，重复调用时只加入新的账户
+     */
+    public void start(List<FullAccountContext> accounts) {
+        long now = System.currentTimeMillis();
+        int added = 0;
+        for (FullAccountContext account : accounts) {
+            String accountId = String.valueOf(account.getId());
+            if (accountMap.putIfAbsent(accountId, account) != null) continue;
+            Long at = scheduleStore.getNextEligibleAt(accountId);
+            timingWheel.schedule(accountId, at == null ? now + initialOffset(accountId) : at);
+            added++;
+        }
+        timingWheel.start();
+        log.info("[Check In] scheduler add [{}] account, scheduled [{}]", added, timingWheel.size());
+    }
+
+    public boolean isStarted() {
+        return timingWheel.isStarted();
+    }
+
+    private void onExpire(List<String> accountIds) {
+        List<FullAccountContext> due = accountIds.stream().map(accountMap::get).filter(Objects::nonNull).toList();
+        if (due.isEmpty()) return;
+        dispatcher.execute(() -> runBatch(due));
+    }
+
+    private void runBatch(List<FullAccountContext> due) {
+        long start = System.currentTimeMillis();
+        // 不归属本节点的账户由其它节点签到，不登录，只在一个签到周期后重新检查归属，节点下线时仍能接管
+        List<FullAccountContext> mine = owned.apply(due);
+        if (mine.size() < due.size()) {
+            Set<Object> mineIds = mine.stream().map(FullAccountContext::getId).collect(Collectors.toSet());
+            long recheckAt = start + TimeUnit.HOURS.toMillis(config.getFallbackIntervalHours());
+            List<String> parked = new ArrayList<>();
+            for (FullAccountContext account : due) {
+                if (mineIds.contains(account.getId())) continue;
+                String accountId = String.valueOf(account.getId());
+                failures.remove(accountId);
+                timingWheel.schedule(accountId, recheckAt);
+                parked.add(accountId);
+            }
+            log.info("[Check In] [{}] account not owned by this node, recheck later {}", parked.size(), parked);
+        }
+        if (mine.isEmpty()) return;
+
+        try {
+            checkIn.accept(mine);
+        } catch (Exception e) {
+            log.error("[Check In] scheduled batch error", e);
+        }
+
+        // 签到成功时已写入下次可领取时间，仍未到可领取时间之后的账户按指数退避重试
+        long now = System.currentTimeMillis();
+        List<String> retry = new ArrayList<>();
+        for (FullAccountContext account : mine) {
+            String accountId = String.valueOf(account.getId());
+            Long at = scheduleStore.getNextEligibleAt(accountId);
+            if (at != null && at > now) {
+                failures.remove(accountId);
+                timingWheel.schedule(accountId, at);
+            } else {
+                int attempt = failures.merge(accountId, 1, Integer::sum);
+                timingWheel.schedule(accountId, now + retryDelayMillis(attempt));
+                retry.add(accountId);
+            }
+        }
+        log.info("[Check In] scheduled batch [{}] account, retry later {}, cost {} ms",
+                mine.size(), retry, now - start);
+    }
+
+    /**
+     * 第 n 次失败后等待 retryDelay * 2^(n-1)，不超过 fallbackInterval
+     */
+    long retryDelayMillis(int attempt) {
+        long base = TimeUnit.SECONDS.toMillis(Math.max(1, config.getRetryDelaySeconds()));
+        long max = Math.max(base, TimeUnit.HOURS.toMillis(config.getFallbackIntervalHours()));
+        int shift = Math.min(attempt - 1, 20);
+        return Math.min(max, base << shift);
+    }
+
+    /**
+     * 按 id 散列的固定偏移，重启后同一账户落在相同位置
+     */
+    private long initialOffset(String accountId) {
+        long spread = TimeUnit.MINUTES.toMillis(Math.max(0, config.getInitialSpreadMinutes()));
+        return spread == 0 ? 0 : Math.floorMod(accountId.hashCode() * 0x9E3779B1L, spread);
+    }
+
+    @Override
+    public void close() {
+        timingWheel.close();
+        dispatcher.shutdownNow();
+    }
+}
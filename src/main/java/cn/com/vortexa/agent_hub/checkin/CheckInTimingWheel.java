@@ -0,0 +1,155 @@
+package cn.com.vortexa.agent_hub.checkin;
+
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮：每个 tick 推进一格，把到期的账户 id 一次性交给回调。
+ * 新增/改期先放入队列，由 tick 线程统一挂到格子上，格子本身只被 tick 线程访问，无需加锁；
+ * 同一账户重复调度时旧的条目作废
+ *
+ * @author helei
+ * @since 2025-09-01
+ */
+@Slf4j
+public class CheckInTimingWheel implements AutoCloseable {
+    private final long tickMillis;
+    private final List<LinkedList<Entry>> wheel;
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    /**
+     * 账户 id -> 当前有效的条目
+     */
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final Consumer<List<String>> onExpire;
+
+    private ScheduledExecutorService ticker;
+    private long startMillis;
+    private long tick;
+
+    /**
+     * @param tickMillis 每格时长
+     * @param wheelSize  格数，一圈时长 = tickMillis * wheelSize，更远的到期时间按圈数计
+     * @param onExpire   到期回调，在 tick 线程执行，不应阻塞
+     */
+    public CheckInTimingWheel(long tickMillis, int wheelSize, Consumer<List<String>> onExpire) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheel = new ArrayList<>(Math.max(1, wheelSize));
+        for (int i = 0; i < Math.max(1, wheelSize); i++) {
+            wheel.add(new LinkedList<>());
+        }
+        this.onExpire = onExpire;
+    }
+
+    public synchronized void start() {
+        if (ticker != null) return;
+        startMillis = System.currentTimeMillis();
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "check-in-timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isStarted() {
+        return ticker != null;
+    }
+
+    /**
+     * 在 deadline 触发账户，已调度的账户改期
+     */
+    public void schedule(String accountId, long deadline) {
+        Entry entry = new Entry(accountId, deadline);
+        Entry previous = current.put(accountId, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        incoming.add(entry);
+    }
+
+    public void cancel(String accountId) {
+        Entry previous = current.remove(accountId);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+    }
+
+    /**
+     * 已调度的账户数
+     */
+    public int size() {
+        return current.size();
+    }
+
+    private void advance() {
+        try {
+            transferIncoming();
+            LinkedList<Entry> bucket = wheel.get((int) (tick % wheel.size()));
+            List<String> expired = new ArrayList<>();
+            Iterator<Entry> iterator = bucket.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.cancelled) {
+                    iterator.remove();
+                } else if (entry.remainingRounds <= 0) {
+                    iterator.remove();
+                    if (current.remove(entry.accountId, entry)) {
+                        expired.add(entry.accountId);
+                    }
+                } else {
+                    entry.remainingRounds--;
+                }
+            }
+            tick++;
+            if (!expired.isEmpty()) {
+                onExpire.accept(expired);
+            }
+        } catch (Exception e) {
+            log.error("check in timing wheel tick error", e);
+        }
+    }
+
+    private void transferIncoming() {
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            if (entry.cancelled) continue;
+            // 已过期的放到当前格，本次 tick 即触发
+            long ticks = Math.max(tick, (entry.deadline - startMillis + tickMillis - 1) / tickMillis);
+            entry.remainingRounds = (ticks - tick) / wheel.size();
+            wheel.get((int) (ticks % wheel.size())).add(entry);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private static final class Entry {
+        private final String accountId;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Entry(String accountId, long deadline) {
+            this.accountId = accountId;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,598 @@
+package cn.com.vortexa.agent_hub.config;
+
+
+import cn.com.vortexa.agent_hub.dto.WorkflowReport;
+import com.alibaba.fastjson.JSONObject;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * AgentHub bot 自身的配置，读取 application.yml 中 vortexa.agent-hub 节点，
+ * 工作目录下的 application.yml 会覆盖 classpath 中的同名配置
+ *
+ * @author helei
+ * @since 2025-08-19
+ */
+@Slf4j
+@Data
+public class AgentHubConfig {
+    public static final String CONFIG_FILE_NAME = "application.yml";
+    public static final String CONFIG_PREFIX = "vortexa.agent-hub";
+    /**
+     * 指定工作目录的系统属性，未设置时使用 user.dir
+     */
+    public static final String WORK_DIR_PROPERTY = "vortexa.agent-hub.work-dir";
+
+    private static volatile AgentHubConfig instance;
+
+    /**
+     * 多账户执行配置
+     */
+    private Executor executor = new Executor();
+
+    /**
+     * 答题配置
+     */
+    private Quiz quiz = new Quiz();
+
+    /**
+     * quiz 目录缓存配置
+     */
+    private Catalogue catalogue = new Catalogue();
+
+    /**
+     * 指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 登录配置
+     */
+    private Login login = new Login();
+
+    /**
+     * 熔断与重试配置
+     */
+    private Resilience resilience = new Resilience();
+
+    /**
+     * 自适应并发限制配置
+     */
+    private Concurrency concurrency = new Concurrency();
+
+    /**
+     * 代理健康度与动态分配配置
+     */
+    private ProxyHealth proxyHealth = new ProxyHealth();
+
+    /**
+     * HTTP 传输层配置
+     */
+    private Transport transport = new Transport();
+
+    /**
+     * 接口地址配置
+     */
+    private Endpoint endpoint = new Endpoint();
+
+    /**
+     * 验证码邮箱配置
+     */
+    private Mail mail = new Mail();
+
+    /**
+     * 按冷却时间签到配置
+     */
+    private CheckIn checkIn = new CheckIn();
+
+    /**
+     * 组合流程配置
+     */
+    private Workflow workflow = new Workflow();
+
+    /**
+     * 运行事件配置
+     */
+    private Events events = new Events();
+
+    /**
+     * 多实例分片配置
+     */
+    private Shard shard = new Shard();
+
+    public static AgentHubConfig get() {
+        if (instance == null) {
+            synchronized (AgentHubConfig.class) {
+                if (instance == null) {
+                    instance = load();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 会话、答案库、进度等文件所在的工作目录
+     */
+    public static Path workDir() {
+        return Path.of(System.getProperty(WORK_DIR_PROPERTY, System.getProperty("user.dir")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AgentHubConfig load() {
+        Map<String, Object> merged = new HashMap<>();
+        try (InputStream is = AgentHubConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE_NAME)) {
+            if (is != null) {
+                deepMerge(merged, resolveSection(new Yaml().load(is)));
+            }
+        } catch (Exception e) {
+            log.warn("load classpath {} error, {}", CONFIG_FILE_NAME, e.getMessage());
+        }
+
+        Path external = workDir().resolve(CONFIG_FILE_NAME);
+        if (Files.exists(external)) {
+            try (InputStream is = Files.newInputStream(external)) {
+                deepMerge(merged, resolveSection(new Yaml().load(is)));
+            } catch (Exception e) {
+                log.warn("load {} error, {}", external, e.getMessage());
+            }
+        }
+
+        AgentHubConfig config = new JSONObject((Map<String, Object>) camelCaseKeys(merged)).toJavaObject(AgentHubConfig.class);
+        log.info("agent hub config: {}", config);
+        return config;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> resolveSection(Object root) {
+        Object node = root;
+        for (String key : CONFIG_PREFIX.split("\\.")) {
+            if (!(node instanceof Map<?, ?> map)) {
+                return Map.of();
+            }
+            node = map.get(key);
+        }
+        return node instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void deepMerge(Map<String, Object> target, Map<String, Object> source) {
+        source.forEach((key, value) -> {
+            Object exist = target.get(key);
+            if (exist instanceof Map<?, ?> existMap && value instanceof Map<?, ?> valueMap) {
+                Map<String, Object> merged = new HashMap<>((Map<String, Object>) existMap);
+                deepMerge(merged, (Map<String, Object>) valueMap);
+                target.put(key, merged);
+            } else {
+                target.put(key, value);
+            }
+        });
+    }
+
+    /**
+     * 把 yml 中 kebab-case 的 key 转为 camelCase
+     */
+    @SuppressWarnings("unchecked")
+    private static Object camelCaseKeys(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            Map<String, Object> result = new HashMap<>();
+            map.forEach((k, v) -> result.put(toCamelCase(String.valueOf(k)), camelCaseKeys(v)));
+            return result;
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().map(AgentHubConfig::camelCaseKeys).collect(Collectors.toList());
+        }
+        return node;
+    }
+
+    private static String toCamelCase(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        boolean upper = false;
+        for (char c : key.toCharArray()) {
+            if (c == '-') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    @Data
+    public static class Executor {
+        /**
+         * 是否并发执行多个账户
+         */
+        private boolean parallel = false;
+        /**
+         * 全局同时执行的账户数
+         */
+        private int globalConcurrency = 64;
+        /**
+         * 单个代理同时执行的账户数
+         */
+        private int perProxyConcurrency = 4;
+        /**
+         * 全局每秒请求数
+         */
+        private double globalRatePerSecond = 50;
+        /**
+         * 单个代理每秒请求数
+         */
+        private double perProxyRatePerSecond = 4;
+        /**
+         * 代理熔断的账户延后重新执行的轮数
+         */
+        private int maxDeferRounds = 2;
+        /**
+         * 单轮延后等待的最长时间
+         */
+        private long maxDeferWaitSeconds = 120;
+    }
+
+    @Data
+    public static class Quiz {
+        /**
+         * 是否流水线答题，所有 quiz 同时开始，题目并发提交
+         */
+        private boolean pipelined = true;
+        /**
+         * 单个 quiz 同时在途的 check-question 请求数
+         */
+        private int inFlightWindow = 4;
+        /**
+         * 服务端要求按顺序作答时开启，每个 quiz 内逐题提交
+         */
+        private boolean ordered = false;
+    }
+
+    @Data
+    public static class Catalogue {
+        /**
+         * 是否在账户间共享 quiz 目录
+         */
+        private boolean enabled = true;
+        /**
+         * 目录缓存有效期
+         */
+        private long ttlSeconds = 600;
+        /**
+         * 目录中的 quiz 数超过该值时告警，目录仍整体缓存
+         */
+        private int maxQuizzes = 1000;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * 是否采集请求与登录指标
+         */
+        private boolean enabled = true;
+        /**
+         * Prometheus 文本格式导出文件，位于工作目录
+         */
+        private String exportFile = "agent-hub-metrics.prom";
+        /**
+         * 导出间隔，<=0 不导出
+         */
+        private long exportIntervalSeconds = 15;
+    }
+
+    @Data
+    public static class Login {
+        /**
+         * 是否在执行任务前批量登录所有需要登录的账户
+         */
+        private boolean bulk = true;
+        /**
+         * 每批同时发起登录的账户数
+         */
+        private int batchSize = 32;
+    }
+
+    @Data
+    public static class Resilience {
+        /**
+         * 是否启用熔断与重试
+         */
+        private boolean enabled = true;
+        /**
+         * 连续失败多少次后打开熔断
+         */
+        private int failureThreshold = 5;
+        /**
+         * 熔断打开时长，连续打开时按倍数增加
+         */
+        private long openSeconds = 30;
+        /**
+         * 半开状态放行的试探请求数
+         */
+        private int halfOpenMaxCalls = 1;
+        /**
+         * 退避基数
+         */
+        private long backoffBaseMillis = 200;
+        /**
+         * 退避上限
+         */
+        private long backoffMaxMillis = 5000;
+        /**
+         * 每个请求允许的重试比例
+         */
+        private double retryBudgetRatio = 0.2;
+        /**
+         * 每秒保底重试数
+         */
+        private double retryBudgetMinPerSecond = 5;
+    }
+
+    @Data
+    public static class Concurrency {
+        /**
+         * 是否按接口分组自适应限制在途请求数
+         */
+        private boolean enabled = true;
+        /**
+         * 遇到 429/5xx 或延迟突增时限制乘以该比例
+         */
+        private double backoffRatio = 0.7;
+        /**
+         * 近期延迟超过基线的倍数视为延迟突增
+         */
+        private double latencyTolerance = 2.0;
+        /**
+         * 两次下调的最小间隔，避免同一批在途请求的失败连续下调
+         */
+        private long decreaseCooldownMillis = 1000;
+        /**
+         * AgentHub 接口
+         */
+        private ConcurrencyLimit hub = new ConcurrencyLimit(32, 4, 512);
+        /**
+         * Privy 登录接口
+         */
+        private ConcurrencyLimit privy = new ConcurrencyLimit(16, 2, 128);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConcurrencyLimit {
+        /**
+         * 初始在途请求上限
+         */
+        private int initialLimit = 32;
+        /**
+         * 下调不低于该值
+         */
+        private int minLimit = 4;
+        /**
+         * 上调不超过该值
+         */
+        private int maxLimit = 512;
+    }
+
+    @Data
+    public static class ProxyHealth {
+        /**
+         * 是否统计代理健康度
+         */
+        private boolean enabled = true;
+        /**
+         * 是否按评分把账户改派到更健康的代理
+         */
+        private boolean reassign = false;
+        /**
+         * 允许改派的代理池，为空时使用本次所有账户的代理。
+         * 每项为 host:port（包含该地址下所有认证账号的代理），或日志中带凭证摘要的完整 key host:port#摘要（只包含该账号）
+         */
+        private List<String> allowedPool = new ArrayList<>();
+        /**
+         * 自身代理评分比最优代理差多少倍时改派
+         */
+        private double reassignFactor = 2.0;
+        /**
+         * 改派时单个代理最多承载的账户数，<=0 不限制
+         */
+        private int maxAccountsPerProxy = 20;
+        /**
+         * 是否按代理评分排序执行顺序
+         */
+        private boolean orderByScore = true;
+        /**
+         * 代理空闲超过该时间后探测一次，<=0 不探测
+         */
+        private long probeIdleSeconds = 60;
+        /**
+         * 探测地址
+         */
+        private String probeUrl = "https://hub-api.agnthub.ai/api";
+        /**
+         * 无样本时的假定延迟
+         */
+        private double priorLatencyMillis = 1000;
+    }
+
+    @Data
+    public static class Transport {
+        /**
+         * 是否使用 bot 自有的按代理连接池，关闭时使用框架客户端
+         */
+        private boolean enabled = true;
+        /**
+         * 单个代理连接池最多保留的空闲连接
+         */
+        private int maxIdleConnections = 8;
+        /**
+         * 空闲连接保持时间
+         */
+        private long keepAliveSeconds = 300;
+        /**
+         * 单个代理同时进行的请求数
+         */
+        private int maxRequests = 64;
+        /**
+         * 单个代理到同一主机同时进行的请求数
+         */
+        private int maxRequestsPerHost = 16;
+        private long connectTimeoutSeconds = 15;
+        private long readTimeoutSeconds = 30;
+        /**
+         * 执行前预热连接的地址
+         */
+        private List<String> warmUpUrls = new ArrayList<>(List.of(
+                "https://hub-api.agnthub.ai/api", "https://privy.agnthub.ai/api/v1"
+        ));
+    }
+
+    @Data
+    public static class Endpoint {
+        /**
+         * hub 接口地址
+         */
+        private String hubBaseUrl = "https://hub-api.agnthub.ai/api";
+        /**
+         * privy 登录接口地址
+         */
+        private String privyBaseUrl = "https://privy.agnthub.ai/api/v1";
+    }
+
+    @Data
+    public static class Mail {
+        /**
+         * 指定后所有收件箱都连接该 IMAP 服务器，为空时按邮箱域名推断
+         */
+        private String imapHost;
+        /**
+         * 指定 imapHost 时使用的端口
+         */
+        private int imapPort = 993;
+        /**
+         * 指定 imapHost 时是否使用 SSL
+         */
+        private boolean imapSsl = true;
+    }
+
+    @Data
+    public static class CheckIn {
+        /**
+         * 下次可签到时间的持久化文件，位于工作目录
+         */
+        private String scheduleFile = "agent-hub-check-in.json";
+        /**
+         * 时间轮每格时长，同一格内到期的账户合并为一批执行
+         */
+        private long tickSeconds = 10;
+        /**
+         * 时间轮格数
+         */
+        private int wheelSize = 360;
+        /**
+         * 响应中解析不到下次可领取时间时使用的间隔
+         */
+        private long fallbackIntervalHours = 24;
+        /**
+         * 在可领取时间之后再延迟的时长，容忍与服务端的时钟误差
+         */
+        private long claimDelaySeconds = 30;
+        /**
+         * 签到失败后的重试间隔
+         */
+        private long retryDelaySeconds = 600;
+        /**
+         * 没有记录的账户首次签到分散到的时间窗
+         */
+        private long initialSpreadMinutes = 60;
+    }
+
+    @Data
+    public static class Workflow {
+        /**
+         * 一次登录后依次执行的阶段
+         */
+        private List<WorkflowReport.Stage> stages = new ArrayList<>(List.of(
+                WorkflowReport.Stage.CHECK_IN, WorkflowReport.Stage.VIEW_TASK, WorkflowReport.Stage.QA
+        ));
+        /**
+         * 运行报告文件，位于工作目录，为空不写
+         */
+        private String reportFile = "agent-hub-workflow-report.json";
+    }
+
+    @Data
+    public static class Events {
+        /**
+         * 是否记录结构化运行事件
+         */
+        private boolean enabled = true;
+        /**
+         * 事件文件（JSON lines），位于工作目录，为空只汇总不写文件
+         */
+        private String eventFile = "agent-hub-events.jsonl";
+        /**
+         * 每次运行的汇总文件（JSON lines），位于工作目录，为空不写
+         */
+        private String summaryFile = "agent-hub-run-summary.jsonl";
+        /**
+         * 环形缓冲容量，写满时丢弃新事件
+         */
+        private int ringCapacity = 65536;
+        /**
+         * 写线程每批最多处理的事件数
+         */
+        private int batchSize = 4096;
+        /**
+         * 事件文件超过该大小时滚动，<=0 不滚动
+         */
+        private long maxFileMb = 256;
+    }
+
+    @Data
+    public static class Shard {
+        /**
+         * 是否按一致性哈希把账户分到多个实例
+         */
+        private boolean enabled = false;
+        /**
+         * 本实例的节点名，需在 nodes 中
+         */
+        private String nodeId = "node-1";
+        /**
+         * 参与分片的全部节点
+         */
+        private List<String> nodes = new ArrayList<>(List.of("node-1"));
+        /**
+         * 每个节点在哈希环上的虚拟节点数
+         */
+        private int virtualNodes = 1024;
+        /**
+         * 各实例共享的租约与心跳目录，相对路径基于工作目录
+         */
+        private String storeDir = "agent-hub-shard";
+        /**
+         * 心跳与租约续期间隔
+         */
+        private long heartbeatSeconds = 10;
+        /**
+         * 心跳超过该时长的节点视为下线，其账户分给其余节点
+         */
+        private long nodeTimeoutSeconds = 30;
+        /**
+         * 租约有效期，持有节点下线后租约到期才能被其他节点接管
+         */
+        private long leaseSeconds = 60;
+    }
+}
@@ -0,0 +1,32 @@
+package cn.com.vortexa.agent_hub.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 持久化的账户登录态
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSession {
+    private String accountId;
+    private String cookie;
+    /**
+     * cookie 过期时间（毫秒时间戳）
+     */
+    private long expireAt;
+    /**
+     * 最近一次确认 cookie 有效的时间（毫秒时间戳）
+     */
+    private long verifiedAt;
+
+    public boolean isExpired(long now) {
+        return expireAt <= now;
+    }
+}
@@ -0,0 +1,37 @@
+package cn.com.vortexa.agent_hub.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * /learn-earn 返回的 quiz 目录，只保留答题需要的静态结构
+ *
+ * @author helei
+ * @since 2025-08-24
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuizCatalogue {
+    private List<Quiz> quizzes;
+    /**
+     * 响应体大小（字符数）
+     */
+    private long responseSize;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Quiz {
+        private String quizId;
+        private List<String> questionIds;
+        /**
+         * 与 questionIds 一一对应的第一个选项 id
+         */
+        private List<String> firstAnswerIds;
+    }
+}
@@ -0,0 +1,41 @@
+package cn.com.vortexa.agent_hub.dto;
+
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个账户一次答题的结果，按题目记录
+ *
+ * @author helei
+ * @since 2025-08-20
+ */
+@Data
+public class QuizRunResult {
+    public enum Outcome {
+        CORRECT,
+        WRONG,
+        ERROR,
+        SKIPPED
+    }
+
+    private final int total;
+    private final Map<String, Outcome> questionOutcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger correctCount = new AtomicInteger();
+    private final AtomicInteger wrongCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+
+    public void record(QuestionAnswer questionAnswer, Outcome outcome) {
+        questionOutcomes.put(questionAnswer.getQuizId() + "/" + questionAnswer.getQuestionId(), outcome);
+        switch (outcome) {
+            case CORRECT -> correctCount.incrementAndGet();
+            case WRONG -> wrongCount.incrementAndGet();
+            case ERROR -> errorCount.incrementAndGet();
+            case SKIPPED -> skippedCount.incrementAndGet();
+        }
+    }
+}
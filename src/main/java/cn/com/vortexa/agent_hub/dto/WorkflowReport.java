@@ -0,0 +1,141 @@
+package cn.com.vortexa.agent_hub.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一次组合流程（一次登录依次执行多个阶段）的运行报告，按阶段汇总，并保留每个账户各阶段的结果
+ *
+ * @author helei
+ * @since 2025-09-02
+ */
+@Data
+public class WorkflowReport {
+    public enum Stage {
+        CHECK_IN,
+        VIEW_TASK,
+        QA
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * 部分任务/题目失败
+         */
+        PARTIAL,
+        SKIPPED,
+        FAILED
+    }
+
+    /**
+     * 单个账户单个阶段的结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class StageResult {
+        private final Outcome outcome;
+        /**
+         * 完成的任务/题目数
+         */
+        private final int done;
+        /**
+         * 待处理的任务/题目数
+         */
+        private final int total;
+        /**
+         * 跳过或失败的原因
+         */
+        private final String message;
+
+        public static StageResult success(int done, int total) {
+            return new StageResult(done < total ? Outcome.PARTIAL : Outcome.SUCCESS, done, total, null);
+        }
+
+        public static StageResult skipped(String message) {
+            return new StageResult(Outcome.SKIPPED, 0, 0, message);
+        }
+
+        public static StageResult failed(String message) {
+            return new StageResult(Outcome.FAILED, 0, 0, message);
+        }
+    }
+
+    private final int accountCount;
+    private final List<Stage> stages;
+    private final long startAt = System.currentTimeMillis();
+    private volatile long endAt;
+
+    private final AtomicInteger loginFailedCount = new AtomicInteger();
+    private final Map<Stage, Map<Outcome, AtomicInteger>> outcomeCounts = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> doneUnits = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> totalUnits = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> costNanos = new EnumMap<>(Stage.class);
+    /**
+     * 账户 id -> 各阶段结果
+     */
+    private final Map<String, Map<Stage, StageResult>> accountResults = new ConcurrentHashMap<>();
+
+    public WorkflowReport(int accountCount, List<Stage> stages) {
+        this.accountCount = accountCount;
+        this.stages = stages;
+        for (Stage stage : Stage.values()) {
+            Map<Outcome, AtomicInteger> counts = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counts.put(outcome, new AtomicInteger());
+            }
+            outcomeCounts.put(stage, counts);
+            doneUnits.put(stage, new LongAdder());
+            totalUnits.put(stage, new LongAdder());
+            costNanos.put(stage, new LongAdder());
+        }
+    }
+
+    public void recordLoginFailed(Object accountId) {
+        loginFailedCount.incrementAndGet();
+        accountResults.putIfAbsent(String.valueOf(accountId), new ConcurrentHashMap<>());
+    }
+
+    public void record(Object accountId, Stage stage, StageResult result, long nanos) {
+        accountResults.computeIfAbsent(String.valueOf(accountId), k -> new ConcurrentHashMap<>()).put(stage, result);
+        outcomeCounts.get(stage).get(result.getOutcome()).incrementAndGet();
+        doneUnits.get(stage).add(result.getDone());
+        totalUnits.get(stage).add(result.getTotal());
+        costNanos.get(stage).add(nanos);
+    }
+
+    public void finish() {
+        endAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 批量登录失败的账户不会进入流程，按未出现在结果中的账户计
+     */
+    public int notRunCount() {
+        return Math.max(0, accountCount - accountResults.size());
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("account %d, login failed %d, not run %d, cost %d ms",
+                accountCount, loginFailedCount.get(), notRunCount(), (endAt == 0 ? System.currentTimeMillis() : endAt) - startAt));
+        for (Stage stage : stages) {
+            Map<Outcome, AtomicInteger> counts = outcomeCounts.get(stage);
+            int ran = counts.values().stream().mapToInt(AtomicInteger::get).sum();
+            sb.append(String.format("%n%-9s success %d, partial %d, skipped %d, failed %d, unit [%d/%d], avg %d ms",
+                    stage, counts.get(Outcome.SUCCESS).get(), counts.get(Outcome.PARTIAL).get(),
+                    counts.get(Outcome.SKIPPED).get(), counts.get(Outcome.FAILED).get(),
+                    doneUnits.get(stage).sum(), totalUnits.get(stage).sum(),
+                    ran == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(costNanos.get(stage).sum() / ran)));
+        }
+        return sb.toString();
+    }
+}
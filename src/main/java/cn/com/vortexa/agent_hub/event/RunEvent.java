@@ -0,0 +1,48 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+/**
+ * 一条运行事件：某账户在某阶段处理某个对象（题目、任务、登录阶段等）的结果与耗时
+ *
+ * @param timestamp     毫秒时间戳
+ * @param runId         所属运行 id，不在任何运行中产生的事件为空
+ * @param type          事件类型
+ * @param accountId     账户 id，运行开始/结束事件为空
+ * @param itemId        处理对象，如 quizId/questionId、taskId、登录阶段；运行开始/结束事件为空
+ * @param outcome       结果
+ * @param durationNanos 耗时，无耗时为 0
+ * @param detail        失败原因等附加信息，可为空
+ * @author helei
+ * @since 2025-09-03
+ */
+public record RunEvent(
+        long timestamp, String runId, Type type, String accountId, String itemId, Outcome outcome, long durationNanos, String detail
+) {
+    public enum Type {
+        RUN_START,
+        RUN_END,
+        /**
+         * 登录的 init/otp/authenticate 各阶段
+         */
+        LOGIN_PHASE,
+        LOGIN,
+        CHECK_IN,
+        VIEW_TASK,
+        QUIZ_START,
+        QUESTION,
+        /**
+         * 组合流程中的一个阶段
+         */
+        STAGE
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * 已作答但答错
+         */
+        WRONG,
+        FAILED,
+        SKIPPED
+    }
+}
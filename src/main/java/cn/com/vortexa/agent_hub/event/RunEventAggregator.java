@@ -0,0 +1,56 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 按运行汇总事件，只在写线程中调用。运行之间可能重叠（如签到调度与手动任务同时进行），
+ * 事件按所带的运行 id 只计入所属运行，不属于任何运行的事件只写入事件文件
+ *
+ * @author helei
+ * @since 2025-09-03
+ */
+public class RunEventAggregator {
+    private final Map<String, RunSummary> openRuns = new HashMap<>();
+    private final Map<String, CompletableFuture<RunSummary>> pending = new ConcurrentHashMap<>();
+    private final Consumer<RunSummary> onFinish;
+
+    public RunEventAggregator(Consumer<RunSummary> onFinish) {
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * 运行结束事件被处理后完成
+     */
+    CompletableFuture<RunSummary> await(String runId) {
+        return pending.computeIfAbsent(runId, k -> new CompletableFuture<>());
+    }
+
+    void accept(RunEvent event) {
+        switch (event.type()) {
+            case RUN_START -> openRuns.put(event.runId(), new RunSummary(event.runId(), event.timestamp()));
+            case RUN_END -> {
+                // 开始事件因缓冲已满被丢弃时没有汇总，等待方得到 null
+                RunSummary summary = openRuns.remove(event.runId());
+                if (summary != null) {
+                    summary.finish(event.timestamp());
+                    onFinish.accept(summary);
+                }
+                CompletableFuture<RunSummary> future = pending.remove(event.runId());
+                if (future != null) {
+                    future.complete(summary);
+                }
+            }
+            default -> {
+                RunSummary summary = event.runId() == null ? null : openRuns.get(event.runId());
+                if (summary != null) {
+                    summary.accept(event);
+                }
+            }
+        }
+    }
+}
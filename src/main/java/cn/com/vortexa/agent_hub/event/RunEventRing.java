@@ -0,0 +1,92 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多生产者单消费者的定长无锁环形缓冲。生产者 CAS 占位后写入槽位，写满时丢弃并计数，不阻塞业务线程；
+ * 消费者按序取出已写入的槽位，遇到已占位但尚未写入的槽位即停止本批
+ *
+ * @author helei
+ * @since 2025-09-03
+ */
+public class RunEventRing {
+    private final AtomicReferenceArray<RunEvent> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 只由消费者线程写
+     */
+    private volatile long head;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param capacity 容量，向上取 2 的幂
+     */
+    public RunEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return 缓冲已满时返回 false，事件被丢弃
+     */
+    public boolean offer(RunEvent event) {
+        return offer(event, true);
+    }
+
+    /**
+     * @param countDropped 已满时是否计入丢弃数，调用方会重试时传 false
+     */
+    public boolean offer(RunEvent event, boolean countDropped) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= slots.length()) {
+                if (countDropped) {
+                    dropped.increment();
+                }
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        slots.lazySet((int) (seq & mask), event);
+        return true;
+    }
+
+    /**
+     * 取出最多 max 条事件，只能由单个消费者线程调用
+     *
+     * @return 取出的条数
+     */
+    public int drainTo(List<RunEvent> batch, int max) {
+        long h = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (h & mask);
+            RunEvent event = slots.get(index);
+            if (event == null) break;
+            slots.lazySet(index, null);
+            batch.add(event);
+            h++;
+            count++;
+        }
+        head = h;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
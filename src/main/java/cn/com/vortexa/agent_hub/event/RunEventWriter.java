@@ -0,0 +1,143 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后台线程批量取出事件，写为 JSON lines 并交给汇总器。文件超过上限时滚动为 .1，只保留一个旧文件
+ *
+ * @author helei
+ * @since 2025-09-03
+ */
+@Slf4j
+public class RunEventWriter implements AutoCloseable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final RunEventRing ring;
+    private final RunEventAggregator aggregator;
+    private final Path eventFile;
+    private final int batchSize;
+    private final long maxFileBytes;
+    private final Thread thread;
+
+    private OutputStream writer;
+    private long fileBytes;
+    private volatile boolean running = true;
+
+    public RunEventWriter(RunEventRing ring, RunEventAggregator aggregator, Path eventFile, int batchSize, long maxFileBytes) {
+        this.ring = ring;
+        this.aggregator = aggregator;
+        this.eventFile = eventFile;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxFileBytes = maxFileBytes;
+        this.thread = new Thread(this::loop, "run-event-writer");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void loop() {
+        List<RunEvent> batch = new ArrayList<>(batchSize);
+        StringBuilder sb = new StringBuilder(256 * batchSize);
+        while (running || !ring.isEmpty()) {
+            batch.clear();
+            if (ring.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            sb.setLength(0);
+            for (RunEvent event : batch) {
+                appendJson(sb, event);
+                aggregator.accept(event);
+            }
+            write(sb);
+        }
+        closeWriter();
+    }
+
+    private void write(StringBuilder sb) {
+        if (eventFile == null) return;
+        try {
+            if (writer == null) {
+                writer = new BufferedOutputStream(Files.newOutputStream(eventFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+                fileBytes = Files.size(eventFile);
+            }
+            // 按编码后的字节数计入文件大小，detail 中的中文等多字节字符不会让文件超出上限
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            writer.write(bytes);
+            writer.flush();
+            fileBytes += bytes.length;
+            if (maxFileBytes > 0 && fileBytes > maxFileBytes) {
+                closeWriter();
+                Files.move(eventFile, eventFile.resolveSibling(eventFile.getFileName() + ".1"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("write run event to {} error, {}", eventFile, e.getMessage());
+            closeWriter();
+        }
+    }
+
+    static void appendJson(StringBuilder sb, RunEvent event) {
+        sb.append("{\"ts\":").append(event.timestamp())
+                .append(",\"type\":\"").append(event.type()).append('"');
+        if (event.runId() != null) {
+            sb.append(",\"run\":").append(JSON.toJSONString(event.runId()));
+        }
+        if (event.accountId() != null) {
+            sb.append(",\"account\":").append(JSON.toJSONString(event.accountId()));
+        }
+        if (event.itemId() != null) {
+            sb.append(",\"item\":").append(JSON.toJSONString(event.itemId()));
+        }
+        if (event.outcome() != null) {
+            sb.append(",\"outcome\":\"").append(event.outcome()).append('"');
+        }
+        if (event.durationNanos() > 0) {
+            sb.append(",\"us\":").append(TimeUnit.NANOSECONDS.toMicros(event.durationNanos()));
+        }
+        if (event.detail() != null) {
+            sb.append(",\"detail\":").append(JSON.toJSONString(event.detail()));
+        }
+        sb.append("}\n");
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+
+    /**
+     * 停止并写完缓冲中剩余的事件
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
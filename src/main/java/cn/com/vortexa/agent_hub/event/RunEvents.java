@@ -0,0 +1,221 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 运行事件入口，替代热路径上逐条拼接的 info 日志。业务线程只把事件放入环形缓冲，
+ * 格式化、写文件、汇总都在后台写线程中完成；未初始化或关闭时所有调用都是空操作。
+ * <p>
+ * 当前运行 id 保存在线程变量中：{@link #beginRun} 绑定到调用线程，账户任务经 {@link #bind} 带到执行线程；
+ * 异步回调运行在 HTTP 客户端等线程上，需在发起请求前用 {@link #currentRun()} 取出运行 id，回调中用 {@link #emitTo} 记录
+ *
+ * @author helei
+ * @since 2025-09-03
+ */
+@Slf4j
+public final class RunEvents {
+    private static volatile RunEventRing ring;
+    private static volatile RunEventAggregator aggregator;
+    private static RunEventWriter writer;
+    private static Path summaryFile;
+    private static final AtomicLong RUN_SEQ = new AtomicLong();
+    private static final ThreadLocal<String> CURRENT_RUN = new ThreadLocal<>();
+    private static final long MARKER_WAIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private RunEvents() {
+    }
+
+    /**
+     * 按配置启动后台写线程，重复调用无效
+     */
+    public static synchronized void init(AgentHubConfig.Events config) {
+        if (!config.isEnabled() || ring != null) return;
+
+        Path dir = AgentHubConfig.workDir();
+        summaryFile = StrUtil.isBlank(config.getSummaryFile()) ? null : dir.resolve(config.getSummaryFile());
+        RunEventRing newRing = new RunEventRing(config.getRingCapacity());
+        RunEventAggregator newAggregator = new RunEventAggregator(RunEvents::onRunFinish);
+        writer = new RunEventWriter(
+                newRing, newAggregator,
+                StrUtil.isBlank(config.getEventFile()) ? null : dir.resolve(config.getEventFile()),
+                config.getBatchSize(), config.getMaxFileMb() << 20
+        );
+        writer.start();
+        aggregator = newAggregator;
+        ring = newRing;
+        AgentHubMetrics.registry().gauge("agent_hub_run_event_dropped", newRing::getDropped);
+        Runtime.getRuntime().addShutdownHook(new Thread(RunEvents::close, "run-event-shutdown"));
+    }
+
+    public static void emit(RunEvent.Type type, Object accountId, String itemId, RunEvent.Outcome outcome, long durationNanos) {
+        emitTo(CURRENT_RUN.get(), type, accountId, itemId, outcome, durationNanos, null);
+    }
+
+    public static void emit(
+            RunEvent.Type type, Object accountId, String itemId, RunEvent.Outcome outcome, long durationNanos, String detail
+    ) {
+        emitTo(CURRENT_RUN.get(), type, accountId, itemId, outcome, durationNanos, detail);
+    }
+
+    /**
+     * 记录属于指定运行的事件，供异步回调使用
+     *
+     * @param runId 发起请求时 {@link #currentRun()} 的值
+     */
+    public static void emitTo(
+            String runId, RunEvent.Type type, Object accountId, String itemId, RunEvent.Outcome outcome,
+            long durationNanos, String detail
+    ) {
+        RunEventRing current = ring;
+        if (current == null) return;
+        current.offer(new RunEvent(System.currentTimeMillis(), runId, type,
+                accountId == null ? null : String.valueOf(accountId), itemId, outcome, durationNanos, detail));
+    }
+
+    /**
+     * 异步操作完成时记录一条带耗时的事件，异常结束记为 FAILED
+     */
+    public static <T> CompletableFuture<T> time(
+            RunEvent.Type type, Object accountId, String itemId, Supplier<CompletableFuture<T>> operation
+    ) {
+        return time(CURRENT_RUN.get(), type, accountId, itemId, operation);
+    }
+
+    /**
+     * 同 {@link #time(RunEvent.Type, Object, String, Supplier)}，用于在异步回调中发起、需显式指定运行的操作
+     */
+    public static <T> CompletableFuture<T> time(
+            String runId, RunEvent.Type type, Object accountId, String itemId, Supplier<CompletableFuture<T>> operation
+    ) {
+        if (ring == null) {
+            return operation.get();
+        }
+        long start = System.nanoTime();
+        return operation.get().whenComplete((r, e) -> emitTo(runId, type, accountId, itemId,
+                e == null ? RunEvent.Outcome.SUCCESS : RunEvent.Outcome.FAILED, System.nanoTime() - start,
+                e == null ? null : e.getMessage()));
+    }
+
+    /**
+     * 当前线程所属的运行 id，没有时返回 null
+     */
+    public static String currentRun() {
+        return CURRENT_RUN.get();
+    }
+
+    /**
+     * 把当前线程的运行 id 带到执行 task 的线程上，当前线程不在运行中时原样返回
+     */
+    public static <T> Consumer<T> bind(Consumer<T> task) {
+        String runId = CURRENT_RUN.get();
+        if (runId == null) return task;
+        return t -> runIn(runId, () -> task.accept(t));
+    }
+
+    public static Runnable bind(Runnable task) {
+        String runId = CURRENT_RUN.get();
+        if (runId == null) return task;
+        return () -> runIn(runId, task);
+    }
+
+    /**
+     * 开始一次运行并绑定到调用线程，之后该线程及经 {@link #bind} 传递的线程上的事件计入该运行的汇总。
+     * 必须在同一线程上调用 {@link #endRun}
+     *
+     * @return 运行 id，未启用时返回 null
+     */
+    public static String beginRun(String name) {
+        if (ring == null) return null;
+        String runId = name + "#" + RUN_SEQ.incrementAndGet();
+        emitMarker(RunEvent.Type.RUN_START, runId);
+        CURRENT_RUN.set(runId);
+        return runId;
+    }
+
+    /**
+     * 结束运行并解除调用线程上的绑定
+     *
+     * @return 写线程处理完此前所有事件后得到汇总；未启用或汇总超时返回 null
+     */
+    public static RunSummary endRun(String runId) {
+        if (runId != null && runId.equals(CURRENT_RUN.get())) {
+            CURRENT_RUN.remove();
+        }
+        RunEventAggregator current = aggregator;
+        if (runId == null || current == null) return null;
+        CompletableFuture<RunSummary> future = current.await(runId);
+        emitMarker(RunEvent.Type.RUN_END, runId);
+        try {
+            return future.get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("wait run [{}] summary error, {}", runId, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 运行开始/结束标记决定汇总范围，缓冲已满时等待写线程腾出空间，而不是像普通事件一样丢弃
+     */
+    private static void emitMarker(RunEvent.Type type, String runId) {
+        RunEventRing current = ring;
+        if (current == null) return;
+        RunEvent event = new RunEvent(System.currentTimeMillis(), runId, type, null, null, null, 0, null);
+        long deadline = System.nanoTime() + MARKER_WAIT_NANOS;
+        while (!current.offer(event, false)) {
+            if (System.nanoTime() > deadline) {
+                log.warn("run event ring full, drop [{}] marker of run [{}]", type, runId);
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void runIn(String runId, Runnable task) {
+        String previous = CURRENT_RUN.get();
+        CURRENT_RUN.set(runId);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT_RUN.remove();
+            } else {
+                CURRENT_RUN.set(previous);
+            }
+        }
+    }
+
+    private static void onRunFinish(RunSummary summary) {
+        if (summaryFile == null) return;
+        try {
+            Files.writeString(summaryFile, summary.toJson().toJSONString() + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("write run summary to {} error, {}", summaryFile, e.getMessage());
+        }
+    }
+
+    public static synchronized void close() {
+        if (writer != null) {
+            ring = null;
+            aggregator = null;
+            writer.close();
+            writer = null;
+        }
+    }
+}
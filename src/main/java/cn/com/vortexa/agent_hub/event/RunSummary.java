@@ -0,0 +1,95 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import com.alibaba.fastjson.JSONObject;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次运行（一次 runForEachAccount）的事件汇总，由 {@link RunEventAggregator} 在写线程中累加
+ *
+ * @author helei
+ * @since 2025-09-03
+ */
+@Getter
+public class RunSummary {
+    private final String runId;
+    private final long startAt;
+    private long endAt;
+    private final Set<String> accounts = new HashSet<>();
+    private final Map<RunEvent.Type, TypeStats> typeStats = new EnumMap<>(RunEvent.Type.class);
+
+    RunSummary(String runId, long startAt) {
+        this.runId = runId;
+        this.startAt = startAt;
+    }
+
+    void accept(RunEvent event) {
+        if (event.accountId() != null) {
+            accounts.add(event.accountId());
+        }
+        typeStats.computeIfAbsent(event.type(), k -> new TypeStats()).accept(event);
+    }
+
+    void finish(long endAt) {
+        this.endAt = endAt;
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject(true);
+        json.put("run", runId);
+        json.put("startAt", startAt);
+        json.put("endAt", endAt);
+        json.put("accounts", accounts.size());
+        JSONObject types = new JSONObject(true);
+        typeStats.forEach((type, stats) -> {
+            JSONObject s = new JSONObject(true);
+            stats.outcomes.forEach((outcome, count) -> s.put(outcome.name().toLowerCase(), count[0]));
+            s.put("avgMs", stats.avgMillis());
+            s.put("maxMs", TimeUnit.NANOSECONDS.toMillis(stats.maxNanos));
+            types.put(type.name(), s);
+        });
+        json.put("types", types);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("run [%s] account %d, cost %d ms", runId, accounts.size(), endAt - startAt));
+        typeStats.forEach((type, stats) -> sb.append(String.format("%n%-11s %s avg %.1f ms, max %d ms",
+                type, stats.outcomes.entrySet().stream()
+                        .map(e -> e.getKey().name().toLowerCase() + " " + e.getValue()[0])
+                        .reduce((a, b) -> a + ", " + b).orElse(""),
+                stats.avgMillis(), TimeUnit.NANOSECONDS.toMillis(stats.maxNanos))));
+        return sb.toString();
+    }
+
+    @Getter
+    public static class TypeStats {
+        private final Map<RunEvent.Outcome, long[]> outcomes = new EnumMap<>(RunEvent.Outcome.class);
+        private long timedCount;
+        private long totalNanos;
+        private long maxNanos;
+
+        void accept(RunEvent event) {
+            if (event.outcome() != null) {
+                outcomes.computeIfAbsent(event.outcome(), k -> new long[1])[0]++;
+            }
+            if (event.durationNanos() > 0) {
+                timedCount++;
+                totalNanos += event.durationNanos();
+                maxNanos = Math.max(maxNanos, event.durationNanos());
+            }
+        }
+
+        public double avgMillis() {
+            return timedCount == 0 ? 0 : totalNanos / 1_000_000d / timedCount;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package cn.com.vortexa.agent_hub.executor;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.event.RunEvents;
+import cn.com.vortexa.agent_hub.resilience.ResilientCaller;
+import cn.com.vortexa.agent_hub.proxy.ProxyHealthTracker;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 多账户任务执行器。并发模式下每个账户一个虚拟线程，受全局、单代理并发数限制；
+ * 请求节奏由全局、单代理令牌桶控制。代理熔断打开时该代理的账户延后到熔断可试探时再执行
+ *
+ * @author helei
+ * @since 2025-08-19
+ */
+@Slf4j
+public class AccountTaskExecutor {
+    private final AgentHubConfig.Executor config;
+    private final ResilientCaller resilientCaller;
+    private final ProxyHealthTracker proxyHealthTracker;
+    private final Semaphore globalSemaphore;
+    private final TokenBucketRateLimiter globalRateLimiter;
+    private final Map<String, Semaphore> proxySemaphoreMap = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucketRateLimiter> proxyRateLimiterMap = new ConcurrentHashMap<>();
+
+    public AccountTaskExecutor(
+            AgentHubConfig.Executor config, ResilientCaller resilientCaller, ProxyHealthTracker proxyHealthTracker
+    ) {
+        this.config = config;
+        this.resilientCaller = resilientCaller;
+        this.proxyHealthTracker = proxyHealthTracker;
+        this.globalSemaphore = new Semaphore(Math.max(1, config.getGlobalConcurrency()));
+        this.globalRateLimiter = new TokenBucketRateLimiter(
+                config.getGlobalRatePerSecond(), config.getGlobalRatePerSecond()
+        );
+    }
+
+    /**
+     * 对所有账户执行任务，全部完成后返回
+     *
+     * @param taskName taskName
+     * @param accounts accounts
+     * @param task     task
+     */
+    public void runAll(String taskName, List<FullAccountContext> accounts, Consumer<FullAccountContext> task) {
+        long start = System.currentTimeMillis();
+        // 账户在虚拟线程中执行，带上调用方所属的运行，事件按运行汇总
+        task = RunEvents.bind(task);
+        List<FullAccountContext> pending = accounts;
+        for (int round = 0; ; round++) {
+            Queue<FullAccountContext> deferred = new ConcurrentLinkedQueue<>();
+            runRound(taskName, pending, task, deferred);
+            if (deferred.isEmpty()) {
+                break;
+            }
+            if (round >= config.getMaxDeferRounds()) {
+                log.warn("[{}] [{}] account skipped, proxy circuit still open", taskName, deferred.size());
+                break;
+            }
+
+            long retryAt = deferred.stream()
+                    .mapToLong(account -> resilientCaller.proxyRetryAt(proxyHealthTracker.keyOf(account)))
+                    .min().orElse(System.currentTimeMillis());
+            long waitMillis = Math.min(
+                    TimeUnit.SECONDS.toMillis(config.getMaxDeferWaitSeconds()),
+                    Math.max(0, retryAt - System.currentTimeMillis())
+            );
+            log.info("[{}] [{}] account deferred by open proxy circuit, retry after {} ms",
+                    taskName, deferred.size(), waitMillis);
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            pending = new ArrayList<>(deferred);
+        }
+        log.info("[{}] [{}] account finished, cost {} ms",
+                taskName, accounts.size(), System.currentTimeMillis() - start);
+    }
+
+    private void runRound(
+            String taskName, List<FullAccountContext> accounts, Consumer<FullAccountContext> task,
+            Queue<FullAccountContext> deferred
+    ) {
+        if (!config.isParallel()) {
+            accounts.forEach(account -> runSafely(taskName, account, task, deferred));
+        } else {
+            try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (FullAccountContext account : accounts) {
+                    executorService.submit(() -> runWithPermit(taskName, account, task, deferred));
+                }
+            }
+        }
+    }
+
+    /**
+     * 发起下一个请求前调用，按令牌桶控制请求节奏
+     *
+     * @param accountContext accountContext
+     */
+    public void pace(FullAccountContext accountContext) throws InterruptedException {
+        globalRateLimiter.acquire();
+        proxyRateLimiterMap.computeIfAbsent(
+                proxyHealthTracker.keyOf(accountContext),
+                k -> new TokenBucketRateLimiter(config.getPerProxyRatePerSecond(), 1)
+        ).acquire();
+    }
+
+    private void runWithPermit(
+            String taskName, FullAccountContext account, Consumer<FullAccountContext> task,
+            Queue<FullAccountContext> deferred
+    ) {
+        Semaphore proxySemaphore = proxySemaphoreMap.computeIfAbsent(
+                proxyHealthTracker.keyOf(account),
+                k -> new Semaphore(Math.max(1, config.getPerProxyConcurrency()))
+        );
+        // 先取单代理名额再取全局名额，等待拥塞代理的账户不占用全局名额，其他代理的账户不被饿死
+        try {
+            proxySemaphore.acquire();
+            try {
+                globalSemaphore.acquire();
+                try {
+                    runSafely(taskName, account, task, deferred);
+                } finally {
+                    globalSemaphore.release();
+                }
+            } finally {
+                proxySemaphore.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[{}] account[{}] interrupted", taskName, account.getId());
+        }
+    }
+
+    private void runSafely(
+            String taskName, FullAccountContext account, Consumer<FullAccountContext> task,
+            Queue<FullAccountContext> deferred
+    ) {
+        if (resilientCaller.isProxyOpen(proxyHealthTracker.keyOf(account))) {
+            deferred.add(account);
+            return;
+        }
+        try {
+            task.accept(account);
+        } catch (Exception e) {
+            log.error("[{}] account[{}] error", taskName, account.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cn.com.vortexa.agent_hub.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流，令牌不足时阻塞当前（虚拟）线程
+ *
+ * @author helei
+ * @since 2025-08-19
+ */
+public class TokenBucketRateLimiter {
+    private final double permitsPerNano;
+    private final double maxPermits;
+
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒令牌数，<=0 表示不限流
+     * @param burst            桶容量
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, double burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.maxPermits = Math.max(1, burst);
+        this.storedPermits = this.maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        if (permitsPerNano <= 0) return;
+
+        long waitNanos;
+        synchronized (this) {
+            refill(System.nanoTime());
+            // 预占令牌，允许透支，后来者按透支量依次排队
+            storedPermits -= 1;
+            waitNanos = storedPermits >= 0 ? 0 : (long) (-storedPermits / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill(long now) {
+        storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,232 @@
+package cn.com.vortexa.agent_hub.journal;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 账户任务进度日志。完成的签到、view 任务、答题追加写入文件，定时批量 fsync；
+ * 重启后据此跳过已完成的部分。重复记录过多时压缩重写
+ *
+ * @author helei
+ * @since 2025-08-25
+ */
+@Slf4j
+public class ProgressJournal implements AutoCloseable {
+    public static final String DEFAULT_FILE_NAME = "agent-hub-progress.log";
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+    /**
+     * 文件行数超过有效记录数的倍数时压缩
+     */
+    private static final int COMPACT_RATIO = 2;
+    private static final int COMPACT_MIN_LINES = 10_000;
+
+    public enum Kind {
+        /**
+         * 每日签到，unit 为日期
+         */
+        CHECK_IN,
+        VIEW_TASK,
+        /**
+         * 答题，unit 为 quizId/questionId
+         */
+        QUESTION
+    }
+
+    private final Path journalPath;
+    private final Map<String, Set<String>> doneMap = new ConcurrentHashMap<>();
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "progress-journal-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private long lineCount;
+
+    public ProgressJournal() {
+        this(AgentHubConfig.workDir().resolve(DEFAULT_FILE_NAME));
+    }
+
+    public ProgressJournal(Path journalPath) {
+        this.journalPath = journalPath;
+        load();
+        compact();
+        flushScheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static String today() {
+        return LocalDate.now().toString();
+    }
+
+    public boolean isDone(Object accountId, Kind kind, String unit) {
+        Set<String> done = doneMap.get(String.valueOf(accountId));
+        return done != null && done.contains(key(kind, unit));
+    }
+
+    public void markDone(Object accountId, Kind kind, String unit) {
+        String account = String.valueOf(accountId);
+        if (doneMap.computeIfAbsent(account, k -> ConcurrentHashMap.newKeySet()).add(key(kind, unit))) {
+            pending.add(account + "\t" + kind + "\t" + unit + "\n");
+        }
+    }
+
+    private static String key(Kind kind, String unit) {
+        return kind.name() + ":" + unit;
+    }
+
+    private void load() {
+        if (!Files.exists(journalPath)) return;
+        try {
+            List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+            String today = today();
+            for (String line : lines) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length < 3) continue; // 崩溃时写了一半的行
+                Kind kind;
+                try {
+                    kind = Kind.valueOf(parts[1]);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (kind == Kind.CHECK_IN && !today.equals(parts[2])) continue;
+                doneMap.computeIfAbsent(parts[0], k -> ConcurrentHashMap.newKeySet()).add(key(kind, parts[2]));
+            }
+            lineCount = lines.size();
+            log.info("load progress journal, [{}] account, [{}] line", doneMap.size(), lineCount);
+        } catch (IOException e) {
+            log.warn("load progress journal error, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把待写记录一次写入并 fsync，写入失败时放回队列，下次重试
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        List<String> batch = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        String line;
+        while ((line = pending.poll()) != null) {
+            batch.add(line);
+            sb.append(line);
+        }
+        try {
+            FileChannel fc = channel();
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                fc.write(buffer);
+            }
+            fc.force(false);
+            lineCount += batch.size();
+        } catch (IOException e) {
+            // 可能已写入一部分，重新打开时补齐换行；重复的记录加载时去重
+            log.error("write progress journal error, [{}] line retry next flush", batch.size(), e);
+            pending.addAll(batch);
+            try {
+                closeChannel();
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+
+        if (lineCount > COMPACT_MIN_LINES && lineCount > (long) COMPACT_RATIO * recordCount()) {
+            compact();
+        }
+    }
+
+    /**
+     * 用内存中的有效记录重写日志，去掉重复和过期的签到记录
+     */
+    public synchronized void compact() {
+        Path tmp = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+        StringBuilder sb = new StringBuilder();
+        long count = 0;
+        for (Map.Entry<String, Set<String>> entry : doneMap.entrySet()) {
+            for (String key : entry.getValue()) {
+                int split = key.indexOf(':');
+                sb.append(entry.getKey()).append('\t')
+                        .append(key, 0, split).append('\t')
+                        .append(key, split + 1, key.length()).append('\n');
+                count++;
+            }
+        }
+        try {
+            closeChannel();
+            Files.writeString(tmp, sb.toString(), StandardCharsets.UTF_8);
+            try (FileChannel fc = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                fc.force(true);
+            }
+            Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lineCount = count;
+        } catch (IOException e) {
+            log.warn("compact progress journal error, {}", e.getMessage());
+        }
+    }
+
+    private long recordCount() {
+        return doneMap.values().stream().mapToLong(Set::size).sum();
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            boolean torn = endsWithTornLine();
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (torn) {
+                // 上次崩溃或写入失败留下半行，另起一行，避免与下一条记录拼在一起
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+        return channel;
+    }
+
+    private boolean endsWithTornLine() throws IOException {
+        if (!Files.exists(journalPath)) return false;
+        try (FileChannel reader = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) return false;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+        flush();
+        try {
+            closeChannel();
+        } catch (IOException ignored) {
+        }
+    }
+}
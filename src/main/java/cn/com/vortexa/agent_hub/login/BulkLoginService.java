@@ -0,0 +1,97 @@
+package cn.com.vortexa.agent_hub.login;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.event.RunEvent;
+import cn.com.vortexa.agent_hub.event.RunEvents;
+import cn.com.vortexa.agent_hub.executor.AccountTaskExecutor;
+import cn.com.vortexa.agent_hub.session.AccountSessionStore;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import cn.com.vortexa.common.util.CastUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量登录：一批账户同时发出 passwordless/init，验证码由各收件箱的共享连接按收件人分发，
+ * 每个账户收到验证码后立即 authenticate，N 个账户的登录耗时接近一次验证码往返
+ *
+ * @author helei
+ * @since 2025-08-27
+ */
+@Slf4j
+public class BulkLoginService {
+    private final AgentHubApi agentHubApi;
+    private final AccountSessionStore sessionStore;
+    private final AccountTaskExecutor taskExecutor;
+    private final AgentHubConfig.Login config;
+
+    public BulkLoginService(
+            AgentHubApi agentHubApi, AccountSessionStore sessionStore, AccountTaskExecutor taskExecutor,
+            AgentHubConfig.Login config
+    ) {
+        this.agentHubApi = agentHubApi;
+        this.sessionStore = sessionStore;
+        this.taskExecutor = taskExecutor;
+        this.config = config;
+    }
+
+    /**
+     * 登录所有账户，成功的 cookie 写入 sessionStore
+     *
+     * @param accounts 需要登录的账户
+     * @return 登录成功的账户 id
+     */
+    public Set<Object> signInAll(List<FullAccountContext> accounts) {
+        Set<Object> success = ConcurrentHashMap.newKeySet();
+        if (accounts.isEmpty()) {
+            return success;
+        }
+
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, config.getBatchSize());
+        for (int from = 0; from < accounts.size(); from += batchSize) {
+            List<FullAccountContext> batch = accounts.subList(from, Math.min(accounts.size(), from + batchSize));
+            List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+            for (FullAccountContext fullAccountContext : batch) {
+                try {
+                    taskExecutor.pace(fullAccountContext);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                log.debug("[Bulk Login] start sign in account[{}]", fullAccountContext.getId());
+                long signInAt = System.nanoTime();
+                // 登录回调在 HTTP 客户端线程上执行，先取出所属运行
+                String runId = RunEvents.currentRun();
+                futures.add(agentHubApi.signInAccountAsync(fullAccountContext).handle((cookie, throwable) -> {
+                    if (throwable != null || StrUtil.isBlank(cookie)) {
+                        String reason = throwable == null ? "empty cookie" : throwable.getMessage();
+                        log.error("[Bulk Login] sign in account[{}] fail, {}", fullAccountContext.getId(), reason);
+                        RunEvents.emitTo(runId, RunEvent.Type.LOGIN, fullAccountContext.getId(), null,
+                                RunEvent.Outcome.FAILED, System.nanoTime() - signInAt, reason);
+                        return null;
+                    }
+                    Long expireAt = CastUtil.autoCast(fullAccountContext.getParam(AgentHubApi.COOKIE_EXPIRE_AT));
+                    sessionStore.save(fullAccountContext.getId(), cookie,
+                            expireAt == null ? System.currentTimeMillis() + AgentHubApi.DEFAULT_COOKIE_TTL : expireAt);
+                    success.add(fullAccountContext.getId());
+                    RunEvents.emitTo(runId, RunEvent.Type.LOGIN, fullAccountContext.getId(), null,
+                            RunEvent.Outcome.SUCCESS, System.nanoTime() - signInAt, null);
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        log.info("[Bulk Login] sign in [{}/{}] account, cost {} ms",
+                success.size(), accounts.size(), System.currentTimeMillis() - start);
+        return success;
+    }
+}
@@ -0,0 +1,44 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * IMAP 服务器地址
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImapServerInfo {
+    private static final Map<String, String> KNOWN_HOSTS = Map.of(
+            "gmail.com", "imap.gmail.com",
+            "outlook.com", "outlook.office365.com",
+            "hotmail.com", "outlook.office365.com",
+            "live.com", "outlook.office365.com",
+            "yahoo.com", "imap.mail.yahoo.com",
+            "icloud.com", "imap.mail.me.com",
+            "rambler.ru", "imap.rambler.ru"
+    );
+
+    private String host;
+    private int port;
+    private boolean ssl;
+
+    /**
+     * 根据邮箱域名推断 IMAP 服务器，未知域名使用 imap.{domain}:993
+     *
+     * @param email email
+     * @return ImapServerInfo
+     */
+    public static ImapServerInfo resolve(String email) {
+        String domain = email.substring(email.indexOf('@') + 1).toLowerCase();
+        return new ImapServerInfo(KNOWN_HOSTS.getOrDefault(domain, "imap." + domain), 993, true);
+    }
+}
@@ -0,0 +1,139 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import cn.com.vortexa.mail.reader.MailReader;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Part;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 从 Privy 验证码邮件中提取验证码
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+public final class PrivyCodeExtractor {
+    static final String[] ORIGINAL_RECIPIENT_HEADERS = {"Delivered-To", "X-Original-To"};
+    private static final Message.RecipientType[] RECIPIENT_TYPES = {
+            Message.RecipientType.TO, Message.RecipientType.CC, Message.RecipientType.BCC
+    };
+    private static final Pattern HTML_STYLE_PATTERN = Pattern.compile("(?is)<(style|script)[^>]*>.*?</\\1>");
+
+    private PrivyCodeExtractor() {
+    }
+
+    public static boolean isFromPrivy(Message message) throws MessagingException {
+        Address[] from = message.getFrom();
+        if (from == null) return false;
+        for (Address address : from) {
+            String add = address.toString();
+            if (add.contains(AgentHubApi.MAIL_FROM_1) || add.contains(AgentHubApi.MAIL_FROM_2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 邮件的所有收件人地址（小写），包含 catch-all 转发时保留原收件人的 Delivered-To / X-Original-To。
+     * 只读 ENVELOPE 中的 To/Cc/Bcc，getAllRecipients 还会为 Newsgroups 头单独发起一次 FETCH
+     */
+    public static Set<String> recipients(Message message) throws MessagingException {
+        Set<String> recipients = new HashSet<>();
+        for (Message.RecipientType type : RECIPIENT_TYPES) {
+            Address[] addresses = message.getRecipients(type);
+            if (addresses == null) continue;
+            for (Address address : addresses) {
+                recipients.add(address instanceof InternetAddress internetAddress
+                        ? internetAddress.getAddress().toLowerCase() : address.toString().toLowerCase());
+            }
+        }
+        for (String header : ORIGINAL_RECIPIENT_HEADERS) {
+            String[] values = message.getHeader(header);
+            if (values == null) continue;
+            for (String value : values) {
+                try {
+                    for (InternetAddress address : InternetAddress.parseHeader(value, false)) {
+                        recipients.add(address.getAddress().toLowerCase());
+                    }
+                } catch (AddressException ignored) {
+                }
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * 邮件接收时间，没有接收时间时使用发送时间
+     */
+    public static long receivedAt(Message message) throws MessagingException {
+        Date date = message.getReceivedDate();
+        if (date == null) {
+            date = message.getSentDate();
+        }
+        return date == null ? 0 : date.getTime();
+    }
+
+    /**
+     * 提取验证码
+     *
+     * @param message message
+     * @return 验证码，不是 Privy 邮件或没有验证码时返回null
+     */
+    public static String extractCode(Message message) throws Exception {
+        if (!isFromPrivy(message)) return null;
+        return extractCode(MailReader.getTextFromMessage(message));
+    }
+
+    /**
+     * 只读取 text/plain 部分提取验证码，没有纯文本部分时读取 text/html 并去掉样式与标签。
+     * IMAP 邮件按 BODYSTRUCTURE 定位分段，只会拉取对应分段的内容
+     *
+     * @param message message
+     * @return 验证码
+     */
+    public static String extractCodeFromTextPart(Message message) throws Exception {
+        Part part = findPart(message, "text/plain");
+        boolean html = false;
+        if (part == null) {
+            part = findPart(message, "text/html");
+            html = true;
+        }
+        if (part == null || !(part.getContent() instanceof String text)) {
+            return null;
+        }
+        return extractCode(html ? HTML_STYLE_PATTERN.matcher(text).replaceAll(" ").replaceAll("<[^>]*>", " ") : text);
+    }
+
+    private static Part findPart(Part part, String mimeType) throws Exception {
+        if (part.isMimeType(mimeType)) {
+            return part;
+        }
+        if (part.isMimeType("multipart/*") && part.getContent() instanceof Multipart multipart) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                Part found = findPart(multipart.getBodyPart(i), mimeType);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static String extractCode(String text) {
+        if (text == null) return null;
+        Matcher matcher = AgentHubApi.V_CODE_PATTERN.matcher(text);
+        return matcher.find() ? matcher.group() : null;
+    }
+}
@@ -0,0 +1,518 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import com.sun.mail.imap.IMAPFolder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.mail.FetchProfile;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Store;
+import javax.mail.UIDFolder;
+import javax.mail.event.MessageCountAdapter;
+import javax.mail.event.MessageCountEvent;
+import javax.mail.search.AndTerm;
+import javax.mail.search.ComparisonTerm;
+import javax.mail.search.FromStringTerm;
+import javax.mail.search.OrTerm;
+import javax.mail.search.ReceivedDateTerm;
+import javax.mail.search.SearchTerm;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单个邮箱的长连接，支持 IDLE 的服务器使用推送，否则退化为短间隔轮询。
+ * 新邮件到达时按收件人把验证码分发给等待中的 future，多个账户共用一个收件箱（catch-all）时只需一次扫描。
+ * <p>
+ * 发件人由服务端 SEARCH 过滤，只拉取 ENVELOPE 与收件人头；按 UID 记录已处理位置，同一封邮件不会重复拉取，
+ * 只有匹配到等待者时才读取正文中的 text/plain 部分
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+@Slf4j
+public class VerifyCodeMailbox implements AutoCloseable {
+    /**
+     * 已拉取头信息但尚无等待者的 Privy 邮件保留时间，晚注册的等待者仍可匹配
+     */
+    private static final long PENDING_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int MAX_PENDING_SIZE = 500;
+
+    private static final SearchTerm PRIVY_FROM_TERM = new OrTerm(
+            new FromStringTerm(AgentHubApi.MAIL_FROM_1), new FromStringTerm(AgentHubApi.MAIL_FROM_2)
+    );
+    private static final FetchProfile HEADER_PROFILE = new FetchProfile();
+
+    static {
+        HEADER_PROFILE.add(FetchProfile.Item.ENVELOPE);
+        HEADER_PROFILE.add(UIDFolder.FetchProfileItem.UID);
+        // BODYSTRUCTURE 随头信息一起拉取，匹配到等待者后只需一次 FETCH 读取正文分段
+        HEADER_PROFILE.add(FetchProfile.Item.CONTENT_INFO);
+        for (String header : PrivyCodeExtractor.ORIGINAL_RECIPIENT_HEADERS) {
+            HEADER_PROFILE.add(header);
+        }
+    }
+    /**
+     * 不支持 IDLE 时的轮询间隔
+     */
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+    /**
+     * 唤醒时 NOOP 的重试间隔，NOOP 早于 IDLE 到达服务端时不会结束 IDLE，需再发一次
+     */
+    private static final long WAKE_RETRY_MILLIS = 50;
+    /**
+     * 连接异常后的重连间隔
+     */
+    private static final long RECONNECT_INTERVAL_MILLIS = 3000;
+    /**
+     * 单次 IDLE 的最长时间，只有存在等待者时才 IDLE。IDLE 期间 JavaMail 忽略读超时，半开的连接无法被发现；
+     * 到时唤醒监听线程重新扫描，唤醒用的 NOOP 受读超时约束，连接失效时走重连，服务端漏推 EXISTS 时也最多延迟一个周期
+     */
+    private static final long IDLE_REFRESH_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final ScheduledExecutorService IDLE_REFRESHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "imap-idle-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ImapServerInfo serverInfo;
+    private final String username;
+    private final String password;
+    private final long idleRefreshMillis;
+    private final Queue<CodeWaiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Object connectLock = new Object();
+    private final Object scanLock = new Object();
+    private final Deque<PendingMessage> pendingMessages = new ArrayDeque<>();
+    /**
+     * 正在使用该邮箱的调用数，大于 0 时不会被空闲回收
+     */
+    private final AtomicInteger users = new AtomicInteger();
+    private final AtomicBoolean waking = new AtomicBoolean();
+    private final Thread listener;
+
+    /**
+     * 已处理的最大 UID，-1 表示连接后尚未初始化
+     */
+    private long lastUid = -1;
+
+    private volatile Store store;
+    private volatile Folder inbox;
+    private volatile boolean idleSupported = true;
+    private volatile boolean idling;
+    /**
+     * 有新邮件或新等待者，监听线程需要重新扫描
+     */
+    private volatile boolean wakeRequested;
+    private volatile boolean running = true;
+    @Getter
+    private volatile long lastActiveAt = System.currentTimeMillis();
+
+    public VerifyCodeMailbox(ImapServerInfo serverInfo, String username, String password) {
+        this(serverInfo, username, password, IDLE_REFRESH_MILLIS);
+    }
+
+    VerifyCodeMailbox(ImapServerInfo serverInfo, String username, String password, long idleRefreshMillis) {
+        this.serverInfo = serverInfo;
+        this.username = username;
+        this.password = password;
+        this.idleRefreshMillis = idleRefreshMillis;
+
+        // JavaMail 在 synchronized 中阻塞读取 IDLE 响应，虚拟线程会钉住载体线程，使用平台线程
+        this.listener = Thread.ofPlatform().daemon().name("imap-mailbox-" + username).start(this::listenLoop);
+    }
+
+    /**
+     * 等待验证码
+     *
+     * @param since 只接受该时间之后收到的邮件
+     * @return future
+     */
+    public CompletableFuture<String> awaitCode(long since) {
+        return awaitCode(null, since);
+    }
+
+    /**
+     * 等待发给指定收件人的验证码
+     *
+     * @param recipient 收件人地址，为null时接受任意收件人
+     * @param since     只接受该时间之后收到的邮件
+     * @return future
+     */
+    public CompletableFuture<String> awaitCode(String recipient, long since) {
+        lastActiveAt = System.currentTimeMillis();
+        CodeWaiter waiter = new CodeWaiter(
+                recipient == null ? null : recipient.toLowerCase(), since, new CompletableFuture<>()
+        );
+        waiters.add(waiter);
+        waiter.future.whenComplete((code, throwable) -> waiters.remove(waiter));
+
+        try {
+            ensureConnected();
+        } catch (Exception e) {
+            // 连接失败直接结束，由调用方决定是否降级
+            log.warn("mailbox[{}] connect error, {}", username, e.getMessage());
+            waiter.future.completeExceptionally(e);
+            return waiter.future;
+        }
+        // 由监听线程扫描，已经到达的验证码也能取到
+        wakeUp();
+        return waiter.future;
+    }
+
+    public boolean hasWaiter() {
+        return !waiters.isEmpty();
+    }
+
+    /**
+     * 登记一次使用，与 {@link #release()} 成对调用
+     */
+    void retain() {
+        users.incrementAndGet();
+    }
+
+    void release() {
+        users.decrementAndGet();
+    }
+
+    /**
+     * 是否可以回收：没有使用者、没有等待者且空闲超过 idleTimeoutMillis
+     */
+    boolean isEvictable(long now, long idleTimeoutMillis) {
+        return users.get() == 0 && waiters.isEmpty() && now - lastActiveAt > idleTimeoutMillis;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try {
+                Folder folder = ensureConnected();
+                if (waiters.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS));
+                    continue;
+                }
+
+                // 只有监听线程扫描，其它线程通过 wakeUp 结束 IDLE，避免多个线程交替打断 IDLE
+                wakeRequested = false;
+                scanNew(folder);
+                if (wakeRequested) continue;
+
+                if (idleSupported && folder instanceof IMAPFolder imapFolder) {
+                    ScheduledFuture<?> refresh = IDLE_REFRESHER.schedule(this::wakeUp, idleRefreshMillis, TimeUnit.MILLISECONDS);
+                    idling = true;
+                    try {
+                        // 置 idling 之后再检查一次，之后的 wakeUp 都会发出 NOOP
+                        if (!wakeRequested) imapFolder.idle(true);
+                    } catch (MessagingException e) {
+                        if (e.getMessage() != null && e.getMessage().contains("IDLE not supported")) {
+                            log.info("mailbox[{}] server not support IDLE, fallback to poll", username);
+                            idleSupported = false;
+                        } else {
+                            throw e;
+                        }
+                    } finally {
+                        idling = false;
+                        refresh.cancel(false);
+                    }
+                } else {
+                    // 下一轮扫描的 UID FETCH 响应会带回新的 EXISTS
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS));
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("mailbox[{}] listen error, reconnect after {} ms, {}", username, RECONNECT_INTERVAL_MILLIS, e.getMessage());
+                AgentHubMetrics.registry().counter("agent_hub_imap_reconnect_total", "host", serverInfo.getHost()).increment();
+                closeQuietly();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_INTERVAL_MILLIS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 通知监听线程重新扫描。监听线程正在 IDLE 时由单独的平台线程发出 NOOP 结束 IDLE，连接失效时 NOOP 会阻塞到读超时；
+     * NOOP 可能在 IDLE 命令之前到达服务端，此时 IDLE 不会结束，间隔片刻重试直到监听线程醒来
+     */
+    private void wakeUp() {
+        wakeRequested = true;
+        LockSupport.unpark(listener);
+        startWaker();
+    }
+
+    private void startWaker() {
+        if (!idling || !(inbox instanceof IMAPFolder folder) || !waking.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("imap-mailbox-wake-" + username).start(() -> {
+            try {
+                while (running && wakeRequested && idling) {
+                    refreshIdle(folder);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(WAKE_RETRY_MILLIS));
+                }
+            } finally {
+                waking.set(false);
+            }
+            // 退出循环到复位 waking 之间的唤醒因 CAS 失败被忽略，复位后再检查一次
+            if (running && wakeRequested && idling) {
+                startWaker();
+            }
+        });
+    }
+
+    private void refreshIdle(IMAPFolder folder) {
+        try {
+            if (folder.isOpen()) {
+                // getMessageCount 距上次通信不足 1 秒时不发 NOOP，直接用 doCommand
+                folder.doCommand(protocol -> {
+                    protocol.noop();
+                    return null;
+                });
+            }
+        } catch (MessagingException e) {
+            log.debug("mailbox[{}] refresh idle error, {}", username, e.getMessage());
+        }
+    }
+
+    private Folder ensureConnected() throws MessagingException {
+        Folder folder = inbox;
+        if (folder != null && folder.isOpen()) {
+            return folder;
+        }
+        synchronized (connectLock) {
+            if (inbox != null && inbox.isOpen()) {
+                return inbox;
+            }
+            closeQuietly();
+
+            String protocol = serverInfo.isSsl() ? "imaps" : "imap";
+            Properties props = new Properties();
+            props.put("mail.store.protocol", protocol);
+            props.put("mail." + protocol + ".host", serverInfo.getHost());
+            props.put("mail." + protocol + ".port", String.valueOf(serverInfo.getPort()));
+            props.put("mail." + protocol + ".connectiontimeout", "10000");
+            props.put("mail." + protocol + ".timeout", "30000");
+
+            Store newStore = Session.getInstance(props).getStore(protocol);
+            newStore.connect(serverInfo.getHost(), serverInfo.getPort(), username, password);
+            Folder newInbox = newStore.getFolder("INBOX");
+            newInbox.open(Folder.READ_ONLY);
+            newInbox.addMessageCountListener(new MessageCountAdapter() {
+                @Override
+                public void messagesAdded(MessageCountEvent e) {
+                    // 扫描期间或 IDLE 命令发出到服务端确认之间到达的 EXISTS 不会结束 IDLE，需主动唤醒
+                    wakeUp();
+                }
+            });
+
+            store = newStore;
+            inbox = newInbox;
+            synchronized (scanLock) {
+                lastUid = -1;
+            }
+            log.info("mailbox[{}] connected to {}:{}", username, serverInfo.getHost(), serverInfo.getPort());
+            return newInbox;
+        }
+    }
+
+    /**
+     * 拉取上次处理位置之后的 Privy 邮件头，首次连接时按日期在服务端检索近期邮件。
+     * 客户端缓存的邮件数与服务端不一致时重新 SELECT 收件箱，并要求监听线程立即再扫描一次
+     */
+    private void scanNew(Folder folder) throws MessagingException {
+        if (!(folder instanceof IMAPFolder imapFolder)) {
+            return;
+        }
+        boolean inSync;
+        synchronized (scanLock) {
+            inSync = scanOnce(imapFolder);
+        }
+        if (!inSync) {
+            reselect(imapFolder);
+            wakeRequested = true;
+        }
+    }
+
+    /**
+     * 单次扫描，调用方持有 scanLock
+     *
+     * @return 服务端返回的新邮件是否都能映射到客户端已知的邮件编号
+     */
+    private boolean scanOnce(IMAPFolder folder) throws MessagingException {
+        Message[] candidates;
+        long maxUid;
+        if (lastUid < 0) {
+            // IMAP SINCE 只精确到天，具体时间在客户端按 ENVELOPE 中的 INTERNALDATE 过滤
+            // 先取当前最大 UID 再检索，检索期间到达的邮件 UID 更大，由下一轮按 UID 拉取
+            maxUid = currentMaxUid(folder);
+            Date since = new Date(System.currentTimeMillis() - PENDING_TTL_MILLIS);
+            candidates = folder.search(new AndTerm(PRIVY_FROM_TERM, new ReceivedDateTerm(ComparisonTerm.GE, since)));
+        } else {
+            // 直接向服务端取新邮件的 UID，不依赖客户端由 EXISTS 维护的邮件数；n:* 在没有新邮件时可能返回最后一封，按 UID 再过滤
+            long from = lastUid + 1;
+            long[] uids = (long[]) folder.doCommand(protocol -> protocol.fetchSequenceNumbers(from, UIDFolder.LASTUID));
+            long[] fresh = Arrays.stream(uids).filter(uid -> uid >= from).toArray();
+            if (fresh.length == 0) {
+                matchPending(folder);
+                return true;
+            }
+            Message[] range = folder.getMessagesByUID(fresh);
+            for (Message message : range) {
+                if (message == null) {
+                    // 邮件编号超出客户端已知的邮件数：服务端认为已经推送过 EXISTS，客户端却没有收到，之后也不会再推送，
+                    // 这些邮件按编号永远映射不到
+                    log.warn("mailbox[{}] message count [{}] out of sync with server uid {}, reselect inbox",
+                            username, folder.getMessageCount(), Arrays.toString(fresh));
+                    return false;
+                }
+            }
+            maxUid = Math.max(lastUid, Arrays.stream(fresh).max().orElse(lastUid));
+            candidates = folder.search(PRIVY_FROM_TERM, range);
+        }
+
+        if (candidates.length > 0) {
+            folder.fetch(candidates, HEADER_PROFILE);
+            long expireBefore = System.currentTimeMillis() - PENDING_TTL_MILLIS;
+            for (Message message : candidates) {
+                long uid = folder.getUID(message);
+                long receivedAt = PrivyCodeExtractor.receivedAt(message);
+                if (uid > lastUid && receivedAt >= expireBefore) {
+                    pendingMessages.addLast(new PendingMessage(uid, receivedAt, PrivyCodeExtractor.recipients(message)));
+                }
+                maxUid = Math.max(maxUid, uid);
+            }
+        }
+        lastUid = Math.max(lastUid, maxUid);
+        matchPending(folder);
+        return true;
+    }
+
+    /**
+     * 重新 SELECT 收件箱，刷新客户端的邮件数。UIDVALIDITY 不变时保留已处理位置
+     */
+    private void reselect(IMAPFolder folder) throws MessagingException {
+        synchronized (connectLock) {
+            if (inbox != folder) return;
+            long uidValidity = folder.getUIDValidity();
+            folder.close(false);
+            folder.open(Folder.READ_ONLY);
+            if (folder.getUIDValidity() != uidValidity) {
+                synchronized (scanLock) {
+                    lastUid = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把待处理邮件分发给收件人匹配、满足时间条件的最早等待者，匹配到时才拉取正文
+     */
+    private void matchPending(Folder folder) {
+        long expireBefore = System.currentTimeMillis() - PENDING_TTL_MILLIS;
+        while (!pendingMessages.isEmpty()
+                && (pendingMessages.size() > MAX_PENDING_SIZE || pendingMessages.peekFirst().receivedAt < expireBefore)) {
+            pendingMessages.pollFirst();
+        }
+        if (waiters.isEmpty()) return;
+
+        Iterator<PendingMessage> iterator = pendingMessages.iterator();
+        while (iterator.hasNext()) {
+            PendingMessage pending = iterator.next();
+            CodeWaiter matched = null;
+            for (CodeWaiter waiter : waiters) {
+                if (pending.receivedAt >= waiter.since && !waiter.future.isDone()
+                        && (waiter.recipient == null || pending.recipients.contains(waiter.recipient))) {
+                    matched = waiter;
+                    break;
+                }
+            }
+            if (matched == null) continue;
+
+            String code;
+            try {
+                Message message = ((UIDFolder) folder).getMessageByUID(pending.uid);
+                if (message == null) {
+                    // 邮件已被删除，不会再出现
+                    log.warn("mailbox[{}] message uid[{}] no longer exists, drop it", username, pending.uid);
+                    iterator.remove();
+                    continue;
+                }
+                code = PrivyCodeExtractor.extractCodeFromTextPart(message);
+            } catch (Exception e) {
+                // 临时错误保留该邮件，下一轮扫描重试，超时后由过期清理移除
+                log.warn("mailbox[{}] resolve message uid[{}] error, retry next scan, {}", username, pending.uid, e.getMessage());
+                continue;
+            }
+            if (code == null) {
+                log.warn("mailbox[{}] message uid[{}] to {} has no verify code, drop it", username, pending.uid, pending.recipients);
+                iterator.remove();
+            } else if (matched.future.complete(code)) {
+                iterator.remove();
+                lastActiveAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * 当前最大 UID。服务器未返回 UIDNEXT 时 getUIDNext 为 -1，改取最后一封邮件的 UID，空收件箱为 0
+     */
+    private static long currentMaxUid(IMAPFolder folder) throws MessagingException {
+        long uidNext = folder.getUIDNext();
+        if (uidNext > 0) {
+            return uidNext - 1;
+        }
+        int count = folder.getMessageCount();
+        return count == 0 ? 0 : folder.getUID(folder.getMessage(count));
+    }
+
+    private void closeQuietly() {
+        try {
+            if (inbox != null && inbox.isOpen()) inbox.close(false);
+        } catch (Exception ignored) {
+        }
+        try {
+            if (store != null) store.close();
+        } catch (Exception ignored) {
+        }
+        inbox = null;
+        store = null;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (CodeWaiter waiter : waiters) {
+            waiter.future.cancel(false);
+        }
+        closeQuietly();
+    }
+
+    private record CodeWaiter(String recipient, long since, CompletableFuture<String> future) {
+    }
+
+    private record PendingMessage(long uid, long receivedAt, Set<String> recipients) {
+    }
+}
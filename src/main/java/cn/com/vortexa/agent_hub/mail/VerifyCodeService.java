@@ -0,0 +1,118 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证码获取服务，按邮箱登录名复用长连接，空闲一段时间后关闭。
+ * 多个账户的验证码投递到同一收件箱时共用一个连接，按收件人区分
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+@Slf4j
+public class VerifyCodeService implements AutoCloseable {
+    private static final long MAILBOX_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Map<String, VerifyCodeMailbox> mailboxMap = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "imap-mailbox-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public VerifyCodeService() {
+        evictScheduler.scheduleWithFixedDelay(() -> evictIdleMailbox(MAILBOX_IDLE_TIMEOUT_MILLIS), 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 等待邮箱收到 since 之后的 Privy 验证码
+     *
+     * @param email    email
+     * @param password imap password
+     * @param since    毫秒时间戳
+     * @param timeout  超时时间
+     * @return future, 超时以 TimeoutException 结束
+     */
+    public CompletableFuture<String> awaitCode(String email, String password, long since, Duration timeout) {
+        return awaitCode(ImapServerInfo.resolve(email), email, password, since, timeout);
+    }
+
+    public CompletableFuture<String> awaitCode(
+            ImapServerInfo serverInfo, String username, String password, long since, Duration timeout
+    ) {
+        return awaitCode(serverInfo, username, password, null, since, timeout);
+    }
+
+    /**
+     * 在 username 的收件箱中等待发给 recipient 的验证码
+     *
+     * @param serverInfo imap 服务器
+     * @param username   收件箱登录名
+     * @param password   imap password
+     * @param recipient  收件人，为null时接受任意收件人
+     * @param since      毫秒时间戳
+     * @param timeout    超时时间
+     * @return future, 超时以 TimeoutException 结束
+     */
+    public CompletableFuture<String> awaitCode(
+            ImapServerInfo serverInfo, String username, String password, String recipient, long since, Duration timeout
+    ) {
+        // 在 compute 中登记使用，与回收互斥，回收不会关闭正在使用的邮箱
+        VerifyCodeMailbox mailbox = mailboxMap.compute(username.toLowerCase(), (k, existing) -> {
+            VerifyCodeMailbox target = existing == null ? new VerifyCodeMailbox(serverInfo, username, password) : existing;
+            target.retain();
+            return target;
+        });
+        CompletableFuture<String> future;
+        try {
+            future = mailbox.awaitCode(recipient, since).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            mailbox.release();
+            throw e;
+        }
+        future.whenComplete((code, throwable) -> mailbox.release());
+        return future;
+    }
+
+    /**
+     * 关闭没有使用者且空闲超过 idleTimeoutMillis 的邮箱
+     */
+    void evictIdleMailbox(long idleTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        List<VerifyCodeMailbox> evicted = new ArrayList<>();
+        for (String key : mailboxMap.keySet()) {
+            mailboxMap.computeIfPresent(key, (k, mailbox) -> {
+                if (!mailbox.isEvictable(now, idleTimeoutMillis)) {
+                    return mailbox;
+                }
+                log.debug("close idle mailbox[{}]", k);
+                evicted.add(mailbox);
+                return null;
+            });
+        }
+        evicted.forEach(VerifyCodeMailbox::close);
+    }
+
+    int mailboxCount() {
+        return mailboxMap.size();
+    }
+
+    @Override
+    public void close() {
+        evictScheduler.shutdownNow();
+        mailboxMap.values().forEach(VerifyCodeMailbox::close);
+        mailboxMap.clear();
+    }
+}
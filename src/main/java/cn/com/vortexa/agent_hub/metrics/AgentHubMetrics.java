@@ -0,0 +1,189 @@
+package cn.com.vortexa.agent_hub.metrics;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * AgentHub 请求与登录阶段的指标埋点
+ *
+ * @author helei
+ * @since 2025-08-26
+ */
+public final class AgentHubMetrics {
+    public static final String REQUEST_SECONDS = "agent_hub_request_seconds";
+    public static final String REQUEST_TOTAL = "agent_hub_request_total";
+    public static final String REQUEST_IN_FLIGHT = "agent_hub_request_in_flight";
+    public static final String ACCOUNT_REQUEST_TOTAL = "agent_hub_account_request_total";
+    public static final String PROXY_REQUEST_TOTAL = "agent_hub_proxy_request_total";
+    public static final String LOGIN_PHASE_SECONDS = "agent_hub_login_phase_seconds";
+
+    public static final String PHASE_INIT = "init";
+    public static final String PHASE_OTP = "otp";
+    public static final String PHASE_AUTHENTICATE = "authenticate";
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private static volatile MetricsRegistry registry = new InMemoryMetricsRegistry();
+    private static volatile boolean enabled = true;
+    /**
+     * 按接口、账户、代理缓存已注册的指标，请求时不再拼装标签数组和查找指标
+     */
+    private static final Map<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+    private static final Map<Object, OutcomeCounters> ACCOUNTS = new ConcurrentHashMap<>();
+    private static final Map<String, OutcomeCounters> PROXIES = new ConcurrentHashMap<>();
+    private static AgentHubConfig.Metrics config;
+    private static PrometheusTextExporter exporter;
+
+    private AgentHubMetrics() {
+    }
+
+    /**
+     * 按配置启用并开始定时导出
+     */
+    public static synchronized void init(AgentHubConfig.Metrics metricsConfig) {
+        config = metricsConfig;
+        enabled = metricsConfig.isEnabled();
+        if (exporter == null) {
+            bindExporter();
+        }
+    }
+
+    public static MetricsRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * 替换为其它实现，需在首次埋点前调用
+     */
+    public static synchronized void setRegistry(MetricsRegistry metricsRegistry) {
+        registry = metricsRegistry;
+        ENDPOINTS.clear();
+        ACCOUNTS.clear();
+        PROXIES.clear();
+        if (config != null) {
+            bindExporter();
+        }
+    }
+
+    /**
+     * 导出器绑定当前的 registry，只有内存实现支持导出
+     */
+    private static void bindExporter() {
+        if (exporter != null) {
+            exporter.close();
+            exporter = null;
+        }
+        if (enabled && registry instanceof InMemoryMetricsRegistry inMemory && config.getExportIntervalSeconds() > 0) {
+            exporter = new PrometheusTextExporter(inMemory);
+            exporter.startFileExport(
+                    AgentHubConfig.workDir().resolve(config.getExportFile()), config.getExportIntervalSeconds()
+            );
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次接口调用：耗时、在途数、按接口/账户/代理区分的成功失败次数
+     *
+     * @param endpoint 接口名
+     * @param ctx      账户
+     * @param proxyKey 实际使用的代理
+     * @param request  发起请求
+     */
+    public static <T> CompletableFuture<T> timeRequest(
+            String endpoint, FullAccountContext ctx, String proxyKey, Supplier<CompletableFuture<T>> request
+    ) {
+        if (!enabled) {
+            return request.get();
+        }
+        EndpointMetrics metrics = ENDPOINTS.computeIfAbsent(endpoint, AgentHubMetrics::newEndpointMetrics);
+        metrics.inFlight().incrementAndGet();
+        long start = System.nanoTime();
+
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            metrics.inFlight().decrementAndGet();
+            recordOutcome(metrics, ctx, proxyKey, false, System.nanoTime() - start);
+            throw e;
+        }
+        return future.whenComplete((r, e) -> {
+            metrics.inFlight().decrementAndGet();
+            recordOutcome(metrics, ctx, proxyKey, e == null, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * 记录登录阶段耗时，otp 阶段即验证码到达耗时
+     */
+    public static <T> CompletableFuture<T> timeLoginPhase(String phase, Supplier<CompletableFuture<T>> stage) {
+        if (!enabled) {
+            return stage.get();
+        }
+        long start = System.nanoTime();
+        return stage.get().whenComplete((r, e) -> registry.timer(
+                LOGIN_PHASE_SECONDS, "phase", phase, "outcome", e == null ? SUCCESS : ERROR
+        ).record(System.nanoTime() - start));
+    }
+
+    private static void recordOutcome(
+            EndpointMetrics metrics, FullAccountContext ctx, String proxyKey, boolean success, long nanos
+    ) {
+        (success ? metrics.successSeconds() : metrics.errorSeconds()).record(nanos);
+        metrics.total().of(success).increment();
+        Object accountId = ctx.getId() == null ? "null" : ctx.getId();
+        ACCOUNTS.computeIfAbsent(accountId, AgentHubMetrics::newAccountCounters).of(success).increment();
+        PROXIES.computeIfAbsent(proxyKey, AgentHubMetrics::newProxyCounters).of(success).increment();
+    }
+
+    private static EndpointMetrics newEndpointMetrics(String endpoint) {
+        AtomicInteger inFlight = new AtomicInteger();
+        registry.gauge(REQUEST_IN_FLIGHT, inFlight::get, "endpoint", endpoint);
+        return new EndpointMetrics(
+                inFlight,
+                registry.timer(REQUEST_SECONDS, "endpoint", endpoint, "outcome", SUCCESS),
+                registry.timer(REQUEST_SECONDS, "endpoint", endpoint, "outcome", ERROR),
+                newOutcomeCounters(REQUEST_TOTAL, "endpoint", endpoint)
+        );
+    }
+
+    private static OutcomeCounters newAccountCounters(Object accountId) {
+        return newOutcomeCounters(ACCOUNT_REQUEST_TOTAL, "account", String.valueOf(accountId));
+    }
+
+    private static OutcomeCounters newProxyCounters(String proxyKey) {
+        return newOutcomeCounters(PROXY_REQUEST_TOTAL, "proxy", proxyKey);
+    }
+
+    private static OutcomeCounters newOutcomeCounters(String name, String tagKey, String tagValue) {
+        return new OutcomeCounters(
+                registry.counter(name, tagKey, tagValue, "outcome", SUCCESS),
+                registry.counter(name, tagKey, tagValue, "outcome", ERROR)
+        );
+    }
+
+    private record EndpointMetrics(
+            AtomicInteger inFlight, MetricsRegistry.Timer successSeconds, MetricsRegistry.Timer errorSeconds,
+            OutcomeCounters total
+    ) {
+    }
+
+    private record OutcomeCounters(MetricsRegistry.Counter success, MetricsRegistry.Counter error) {
+        MetricsRegistry.Counter of(boolean isSuccess) {
+            return isSuccess ? success : error;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package cn.com.vortexa.agent_hub.metrics;
+
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 进程内指标实现，计数使用 LongAdder，直方图使用固定桶，记录时无锁
+ *
+ * @author helei
+ * @since 2025-08-26
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    /**
+     * 直方图桶上界（毫秒）
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = {
+            5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 20000, 40000, 60000
+    };
+
+    @Getter
+    private final Map<MetricId, CounterImpl> counters = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<MetricId, TimerImpl> timers = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<MetricId, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(new MetricId(name, tags), k -> new CounterImpl());
+    }
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(new MetricId(name, tags), k -> new TimerImpl());
+    }
+
+    @Override
+    public void gauge(String name, DoubleSupplier supplier, String... tags) {
+        gauges.put(new MetricId(name, tags), supplier);
+    }
+
+    /**
+     * 指标名 + 标签
+     */
+    public record MetricId(String name, String[] tags) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MetricId other && name.equals(other.name) && Arrays.equals(tags, other.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + Arrays.hashCode(tags);
+        }
+    }
+
+    public static class CounterImpl implements Counter {
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+
+        @Override
+        public void add(long delta) {
+            adder.add(delta);
+        }
+
+        public long count() {
+            return adder.sum();
+        }
+    }
+
+    public static class TimerImpl implements Timer {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        TimerImpl() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        @Override
+        public void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int i = 0;
+            while (i < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * 非累计的各桶计数，最后一个为 +Inf
+         */
+        public long[] bucketCounts() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * 按桶估算分位数（毫秒，取桶上界）
+         */
+        public long percentileMillis(double percentile) {
+            long[] counts = bucketCounts();
+            long total = 0;
+            for (long c : counts) total += c;
+            if (total == 0) return 0;
+            long target = (long) Math.ceil(total * percentile);
+            long acc = 0;
+            for (int i = 0; i < counts.length; i++) {
+                acc += counts[i];
+                if (acc >= target) {
+                    return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] : TimeUnit.NANOSECONDS.toMillis(maxNanos());
+                }
+            }
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos());
+        }
+    }
+}
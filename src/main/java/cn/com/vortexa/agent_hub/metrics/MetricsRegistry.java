@@ -0,0 +1,41 @@
+package cn.com.vortexa.agent_hub.metrics;
+
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 指标注册中心，可替换为其它实现（如对接 Micrometer）
+ *
+ * @author helei
+ * @since 2025-08-26
+ */
+public interface MetricsRegistry {
+
+    /**
+     * 计数器
+     *
+     * @param name 指标名
+     * @param tags 标签，key、value 交替
+     */
+    Counter counter(String name, String... tags);
+
+    /**
+     * 耗时直方图
+     */
+    Timer timer(String name, String... tags);
+
+    /**
+     * 注册瞬时值，每次导出时读取
+     */
+    void gauge(String name, DoubleSupplier supplier, String... tags);
+
+    interface Counter {
+        void increment();
+
+        void add(long delta);
+    }
+
+    interface Timer {
+        void record(long nanos);
+    }
+}
@@ -0,0 +1,123 @@
+package cn.com.vortexa.agent_hub.metrics;
+
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 把 {@link InMemoryMetricsRegistry} 输出为 Prometheus 文本格式，可定时写入文件，离线查看或交给 node_exporter textfile 采集
+ *
+ * @author helei
+ * @since 2025-08-26
+ */
+@Slf4j
+public class PrometheusTextExporter implements AutoCloseable {
+    private final InMemoryMetricsRegistry registry;
+    private ScheduledExecutorService scheduler;
+
+    public PrometheusTextExporter(InMemoryMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 定时写出到文件
+     */
+    public void startFileExport(Path file, long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> writeTo(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void writeTo(Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, scrape(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("export metrics to {} error, {}", file, e.getMessage());
+        }
+    }
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+
+        Map<String, StringBuilder> counterByName = new TreeMap<>();
+        registry.getCounters().forEach((id, counter) -> counterByName
+                .computeIfAbsent(id.name(), k -> new StringBuilder())
+                .append(id.name()).append(labels(id.tags(), null, null)).append(' ').append(counter.count()).append('\n'));
+        counterByName.forEach((name, lines) -> sb.append("# TYPE ").append(name).append(" counter\n").append(lines));
+
+        Map<String, StringBuilder> gaugeByName = new TreeMap<>();
+        registry.getGauges().forEach((id, supplier) -> gaugeByName
+                .computeIfAbsent(id.name(), k -> new StringBuilder())
+                .append(id.name()).append(labels(id.tags(), null, null)).append(' ').append(read(supplier)).append('\n'));
+        gaugeByName.forEach((name, lines) -> sb.append("# TYPE ").append(name).append(" gauge\n").append(lines));
+
+        Map<String, StringBuilder> timerByName = new TreeMap<>();
+        registry.getTimers().forEach((id, timer) -> {
+            StringBuilder lines = timerByName.computeIfAbsent(id.name(), k -> new StringBuilder());
+            long[] counts = timer.bucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                String le = i < InMemoryMetricsRegistry.BUCKET_BOUNDS_MILLIS.length
+                        ? String.valueOf(InMemoryMetricsRegistry.BUCKET_BOUNDS_MILLIS[i] / 1000.0) : "+Inf";
+                lines.append(id.name()).append("_bucket").append(labels(id.tags(), "le", le))
+                        .append(' ').append(cumulative).append('\n');
+            }
+            lines.append(id.name()).append("_sum").append(labels(id.tags(), null, null))
+                    .append(' ').append(timer.totalNanos() / 1e9).append('\n');
+            lines.append(id.name()).append("_count").append(labels(id.tags(), null, null))
+                    .append(' ').append(timer.count()).append('\n');
+        });
+        timerByName.forEach((name, lines) -> sb.append("# TYPE ").append(name).append(" histogram\n").append(lines));
+        return sb.toString();
+    }
+
+    private static double read(DoubleSupplier supplier) {
+        try {
+            return supplier.getAsDouble();
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String labels(String[] tags, String extraKey, String extraValue) {
+        if (tags.length == 0 && extraKey == null) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(tags[i]).append("=\"").append(escape(tags[i + 1])).append('"');
+        }
+        if (extraKey != null) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(extraKey).append("=\"").append(extraValue).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cn.com.vortexa.agent_hub.parser;
+
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 统计已读取字符数的 Reader
+ *
+ * @author helei
+ * @since 2025-08-24
+ */
+public class CountingReader extends FilterReader {
+    private long count;
+
+    public CountingReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c >= 0) count++;
+        return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int n = super.read(cbuf, off, len);
+        if (n > 0) count += n;
+        return n;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
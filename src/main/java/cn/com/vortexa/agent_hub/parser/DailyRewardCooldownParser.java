@@ -0,0 +1,69 @@
+package cn.com.vortexa.agent_hub.parser;
+
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 从 /daily-rewards/claim 的响应（含已领取时的错误响应）中解析下次可领取时间。
+ * 只读取 nextClaimAt 字段（顶层或 data 对象中），值为带时区的 ISO-8601 时间或毫秒时间戳，
+ * 没有该字段时按配置的间隔计算
+ *
+ * @author helei
+ * @since 2025-09-01
+ */
+public final class DailyRewardCooldownParser {
+    public static final String NEXT_CLAIM_AT = "nextClaimAt";
+
+    private DailyRewardCooldownParser() {
+    }
+
+    /**
+     * @param response       领取响应
+     * @param now            当前毫秒时间戳
+     * @param fallbackMillis 解析不到时使用的间隔
+     * @return 下次可领取的毫秒时间戳
+     */
+    public static long nextEligibleAt(JSONObject response, long now, long fallbackMillis) {
+        Long at = parseNextClaimAt(response);
+        return at == null || at <= now ? now + fallbackMillis : at;
+    }
+
+    /**
+     * @param body 响应文本
+     * @return nextClaimAt 的毫秒时间戳，没有该字段或格式不符返回 null
+     */
+    public static Long parseNextClaimAt(String body) {
+        if (StrUtil.isBlank(body)) return null;
+        try {
+            return JSON.parse(body) instanceof JSONObject jsonObject ? parseNextClaimAt(jsonObject) : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static Long parseNextClaimAt(JSONObject response) {
+        if (response == null) return null;
+        Object value = response.get(NEXT_CLAIM_AT);
+        if (value == null && response.get("data") instanceof JSONObject data) {
+            value = data.get(NEXT_CLAIM_AT);
+        }
+        return toEpochMillis(value);
+    }
+
+    private static Long toEpochMillis(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue() > 0 ? number.longValue() : null;
+        }
+        if (!(value instanceof String text) || StrUtil.isBlank(text)) return null;
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package cn.com.vortexa.agent_hub.parser;
+
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式解析 /learn-earn 与 /tasks/my 响应，直接在 fastjson 词法器上边读边取需要的 id，
+ * 不关心的字段只跳过 token，不构建 JSONObject 树
+ *
+ * @author helei
+ * @since 2025-08-23
+ */
+public final class LearnEarnStreamParser {
+
+    /**
+     * 每读到一道题回调一次
+     */
+    @FunctionalInterface
+    public interface QuestionVisitor {
+        /**
+         * @param quizId        quizId
+         * @param questionId    questionId
+         * @param firstAnswerId 第一个选项 id，没有选项时为null
+         */
+        void visit(String quizId, String questionId, String firstAnswerId);
+    }
+
+    private LearnEarnStreamParser() {
+    }
+
+    /**
+     * 解析 /learn-earn 返回的 quiz 列表
+     *
+     * @param reader  响应体
+     * @param visitor 题目回调
+     */
+    public static void parseQuizzes(Reader reader, QuestionVisitor visitor) {
+        try (JSONReaderScanner lexer = new JSONReaderScanner(reader)) {
+            lexer.nextToken();
+            if (lexer.token() != JSONToken.LBRACKET) {
+                throw new JSONException("learn-earn response is not an array, token " + JSONToken.name(lexer.token()));
+            }
+            lexer.nextToken();
+            while (lexer.token() != JSONToken.RBRACKET) {
+                readQuiz(lexer, visitor);
+                skipComma(lexer);
+            }
+        }
+    }
+
+    /**
+     * 解析 /tasks/my，返回 available 中状态为 ACTIVE 的 LEARN_EARN 任务 id
+     *
+     * @param reader 响应体
+     * @return task id list
+     */
+    public static List<String> parseAvailableLearnEarnTaskIds(Reader reader) {
+        List<String> ids = new ArrayList<>();
+        try (JSONReaderScanner lexer = new JSONReaderScanner(reader)) {
+            lexer.nextToken();
+            expect(lexer, JSONToken.LBRACE);
+            while (lexer.token() != JSONToken.RBRACE) {
+                String key = readKey(lexer);
+                if ("available".equals(key) && lexer.token() == JSONToken.LBRACKET) {
+                    lexer.nextToken();
+                    while (lexer.token() != JSONToken.RBRACKET) {
+                        String id = readLearnEarnTask(lexer);
+                        if (id != null) {
+                            ids.add(id);
+                        }
+                        skipComma(lexer);
+                    }
+                    lexer.nextToken();
+                } else {
+                    skipValue(lexer);
+                }
+                skipComma(lexer);
+            }
+        }
+        return ids;
+    }
+
+    private static void readQuiz(JSONLexer lexer, QuestionVisitor visitor) {
+        if (lexer.token() != JSONToken.LBRACE) {
+            skipValue(lexer);
+            return;
+        }
+        lexer.nextToken();
+
+        String quizId = null;
+        // quiz 中 id 与 questions 的先后顺序不确定，先暂存题目
+        List<String> questions = new ArrayList<>();
+        while (lexer.token() != JSONToken.RBRACE) {
+            String key = readKey(lexer);
+            if ("id".equals(key)) {
+                quizId = readScalar(lexer);
+            } else if ("questions".equals(key) && lexer.token() == JSONToken.LBRACKET) {
+                lexer.nextToken();
+                while (lexer.token() != JSONToken.RBRACKET) {
+                    readQuestion(lexer, questions);
+                    skipComma(lexer);
+                }
+                lexer.nextToken();
+            } else {
+                skipValue(lexer);
+            }
+            skipComma(lexer);
+        }
+        lexer.nextToken();
+
+        for (int i = 0; i < questions.size(); i += 2) {
+            visitor.visit(quizId, questions.get(i), questions.get(i + 1));
+        }
+    }
+
+    /**
+     * 读取一道题，按 questionId, firstAnswerId 依次放入 out
+     */
+    private static void readQuestion(JSONLexer lexer, List<String> out) {
+        if (lexer.token() != JSONToken.LBRACE) {
+            skipValue(lexer);
+            return;
+        }
+        lexer.nextToken();
+
+        String questionId = null;
+        String firstAnswerId = null;
+        while (lexer.token() != JSONToken.RBRACE) {
+            String key = readKey(lexer);
+            if ("id".equals(key)) {
+                questionId = readScalar(lexer);
+            } else if ("answers".equals(key) && lexer.token() == JSONToken.LBRACKET) {
+                lexer.nextToken();
+                while (lexer.token() != JSONToken.RBRACKET) {
+                    String answerId = readObjectId(lexer);
+                    if (firstAnswerId == null) {
+                        firstAnswerId = answerId;
+                    }
+                    skipComma(lexer);
+                }
+                lexer.nextToken();
+            } else {
+                skipValue(lexer);
+            }
+            skipComma(lexer);
+        }
+        lexer.nextToken();
+
+        if (questionId != null) {
+            out.add(questionId);
+            out.add(firstAnswerId);
+        }
+    }
+
+    private static String readLearnEarnTask(JSONLexer lexer) {
+        if (lexer.token() != JSONToken.LBRACE) {
+            skipValue(lexer);
+            return null;
+        }
+        lexer.nextToken();
+
+        String id = null;
+        String type = null;
+        String taskStatus = null;
+        while (lexer.token() != JSONToken.RBRACE) {
+            String key = readKey(lexer);
+            switch (key) {
+                case "id" -> id = readScalar(lexer);
+                case "type" -> type = readScalar(lexer);
+                case "taskStatus" -> taskStatus = readScalar(lexer);
+                default -> skipValue(lexer);
+            }
+            skipComma(lexer);
+        }
+        lexer.nextToken();
+        return "LEARN_EARN".equals(type) && "ACTIVE".equals(taskStatus) ? id : null;
+    }
+
+    private static String readObjectId(JSONLexer lexer) {
+        if (lexer.token() != JSONToken.LBRACE) {
+            skipValue(lexer);
+            return null;
+        }
+        lexer.nextToken();
+
+        String id = null;
+        while (lexer.token() != JSONToken.RBRACE) {
+            String key = readKey(lexer);
+            if ("id".equals(key)) {
+                id = readScalar(lexer);
+            } else {
+                skipValue(lexer);
+            }
+            skipComma(lexer);
+        }
+        lexer.nextToken();
+        return id;
+    }
+
+    /**
+     * 读取字段名，结束后词法器停在字段值上
+     */
+    private static String readKey(JSONLexer lexer) {
+        if (lexer.token() != JSONToken.LITERAL_STRING && lexer.token() != JSONToken.IDENTIFIER) {
+            throw new JSONException("expect field name, but " + JSONToken.name(lexer.token()) + ", pos " + lexer.pos());
+        }
+        String key = lexer.stringVal();
+        lexer.nextTokenWithColon();
+        return key;
+    }
+
+    private static String readScalar(JSONLexer lexer) {
+        String value = switch (lexer.token()) {
+            case JSONToken.LITERAL_STRING, JSONToken.IDENTIFIER -> lexer.stringVal();
+            case JSONToken.LITERAL_INT, JSONToken.LITERAL_FLOAT -> lexer.numberString();
+            case JSONToken.NULL -> null;
+            default -> {
+                skipValue(lexer);
+                yield null;
+            }
+        };
+        if (value != null || lexer.token() == JSONToken.NULL) {
+            lexer.nextToken();
+        }
+        return value;
+    }
+
+    /**
+     * 跳过一个完整的值（对象、数组或标量）
+     */
+    private static void skipValue(JSONLexer lexer) {
+        int token = lexer.token();
+        if (token == JSONToken.LBRACE || token == JSONToken.LBRACKET) {
+            int close = token == JSONToken.LBRACE ? JSONToken.RBRACE : JSONToken.RBRACKET;
+            lexer.nextToken();
+            while (lexer.token() != close) {
+                if (close == JSONToken.RBRACE) {
+                    readKey(lexer);
+                }
+                skipValue(lexer);
+                skipComma(lexer);
+            }
+        } else if (token == JSONToken.EOF) {
+            throw new JSONException("unexpected end of json, pos " + lexer.pos());
+        }
+        lexer.nextToken();
+    }
+
+    private static void skipComma(JSONLexer lexer) {
+        if (lexer.token() == JSONToken.COMMA) {
+            lexer.nextToken();
+        } else if (lexer.token() == JSONToken.EOF) {
+            throw new JSONException("unexpected end of json, pos " + lexer.pos());
+        }
+    }
+
+    private static void expect(JSONLexer lexer, int token) {
+        if (lexer.token() != token) {
+            throw new JSONException("expect " + JSONToken.name(token) + ", but " + JSONToken.name(lexer.token()));
+        }
+        lexer.nextToken();
+    }
+}
@@ -0,0 +1,74 @@
+package cn.com.vortexa.agent_hub.proxy;
+
+
+import lombok.Getter;
+
+/**
+ * 单个代理的滚动健康数据：延迟与错误率均为指数加权移动平均
+ *
+ * @author helei
+ * @since 2025-08-29
+ */
+public class ProxyHealth {
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final double ERROR_ALPHA = 0.1;
+    /**
+     * 错误率对评分的最大放大倍数
+     */
+    private static final double MIN_SUCCESS_RATE = 0.05;
+
+    @Getter
+    private final String key;
+    private final Object proxy;
+    private final double priorLatencyMillis;
+
+    private double latencyMillis = -1;
+    private double errorRate;
+    private long samples;
+    private long lastUsedAt;
+
+    public ProxyHealth(String key, Object proxy, double priorLatencyMillis) {
+        this.key = key;
+        this.proxy = proxy;
+        this.priorLatencyMillis = priorLatencyMillis;
+    }
+
+    /**
+     * 代理对象，类型与 FullAccountContext#getProxy 相同
+     */
+    @SuppressWarnings("unchecked")
+    public <P> P getProxy() {
+        return (P) proxy;
+    }
+
+    public synchronized void record(long nanos, boolean success) {
+        double millis = nanos / 1_000_000d;
+        latencyMillis = latencyMillis < 0 ? millis : latencyMillis + LATENCY_ALPHA * (millis - latencyMillis);
+        errorRate += ERROR_ALPHA * ((success ? 0 : 1) - errorRate);
+        samples++;
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    public synchronized double getLatencyMillis() {
+        return latencyMillis < 0 ? priorLatencyMillis : latencyMillis;
+    }
+
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    public synchronized long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * 评分，越小越好：预期一次成功请求的耗时（毫秒）
+     */
+    public synchronized double score() {
+        return getLatencyMillis() / Math.max(MIN_SUCCESS_RATE, 1 - errorRate);
+    }
+}
@@ -0,0 +1,224 @@
+package cn.com.vortexa.agent_hub.proxy;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.resilience.ResilientCaller;
+import cn.com.vortexa.agent_hub.util.ProxyKeys;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 代理健康度统计与动态分配。
+ * 记录所有请求的延迟与错误率，空闲代理定时探测；可按评分把账户改派到代理池中更健康的代理，并按评分排序执行顺序
+ *
+ * @author helei
+ * @since 2025-08-29
+ */
+@Slf4j
+public class ProxyHealthTracker implements AutoCloseable {
+    private final AgentHubConfig.ProxyHealth config;
+    private final Map<String, ProxyHealth> healthMap = new ConcurrentHashMap<>();
+    /**
+     * accountId -> 改派后的代理
+     */
+    private final Map<Object, ProxyHealth> assignments = new ConcurrentHashMap<>();
+    /**
+     * 已提示过没有匹配任何代理的 allowedPool 项
+     */
+    private final Set<String> warnedPoolEntries = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService probeScheduler;
+
+    public ProxyHealthTracker(AgentHubConfig.ProxyHealth config) {
+        this.config = config;
+    }
+
+    /**
+     * 登记代理，加入候选池
+     */
+    public ProxyHealth register(Object proxy) {
+        String key = ProxyKeys.of(proxy);
+        return healthMap.computeIfAbsent(key, k -> {
+            ProxyHealth health = new ProxyHealth(k, proxy, config.getPriorLatencyMillis());
+            AgentHubMetrics.registry().gauge("agent_hub_proxy_score", health::score, "proxy", k);
+            AgentHubMetrics.registry().gauge("agent_hub_proxy_latency_ms", health::getLatencyMillis, "proxy", k);
+            AgentHubMetrics.registry().gauge("agent_hub_proxy_error_rate", health::getErrorRate, "proxy", k);
+            return health;
+        });
+    }
+
+    /**
+     * 账户实际使用的代理，未改派时为账户自身代理
+     */
+    @SuppressWarnings("unchecked")
+    public <P> P route(FullAccountContext accountContext) {
+        ProxyHealth assigned = assignments.get(accountContext.getId());
+        return assigned == null ? (P) accountContext.getProxy() : assigned.getProxy();
+    }
+
+    public String keyOf(FullAccountContext accountContext) {
+        ProxyHealth assigned = assignments.get(accountContext.getId());
+        return assigned == null ? ProxyKeys.of(accountContext.getProxy()) : assigned.getKey();
+    }
+
+    /**
+     * 记录一次经由账户实际代理发出的请求
+     */
+    public <T> CompletableFuture<T> track(FullAccountContext accountContext, Supplier<CompletableFuture<T>> request) {
+        if (!config.isEnabled()) {
+            return request.get();
+        }
+        ProxyHealth health = register(route(accountContext));
+        long start = System.nanoTime();
+        return request.get().whenComplete((r, e) ->
+                health.record(System.nanoTime() - start, e == null || !ResilientCaller.isTransient(e)));
+    }
+
+    /**
+     * 按评分排序，快的代理上的账户先执行
+     */
+    public List<FullAccountContext> orderByScore(List<FullAccountContext> accounts) {
+        if (!config.isEnabled() || !config.isOrderByScore()) {
+            return accounts;
+        }
+        Map<Object, Double> scores = new HashMap<>();
+        accounts.forEach(account -> scores.put(account.getId(), register(route(account)).score()));
+        return accounts.stream().sorted(Comparator.comparingDouble(account -> scores.get(account.getId()))).toList();
+    }
+
+    /**
+     * 重新计算改派：账户自身代理不可用，或评分比候选池中最优代理差 reassignFactor 倍以上时，改派到负载未满的最优代理。
+     * 只更新传入账户的改派，同时进行的其它执行（定时签到与手动任务）的改派保持不变
+     *
+     * @param accounts    本次执行的账户
+     * @param unavailable 代理 key 是否不可用（如熔断打开）
+     */
+    public void reassign(List<FullAccountContext> accounts, Predicate<String> unavailable) {
+        accounts.forEach(account -> {
+            assignments.remove(account.getId());
+            register(account.getProxy());
+        });
+        if (!config.isEnabled() || !config.isReassign()) {
+            return;
+        }
+        warnUnmatchedPool();
+
+        List<ProxyHealth> pool = healthMap.values().stream()
+                .filter(health -> !ProxyKeys.NO_PROXY.equals(health.getKey()))
+                .filter(health -> config.getAllowedPool().isEmpty() || inAllowedPool(health.getKey()))
+                .filter(health -> !unavailable.test(health.getKey()))
+                .sorted(Comparator.comparingDouble(ProxyHealth::score))
+                .toList();
+        if (pool.isEmpty()) {
+            return;
+        }
+
+        int capacity = config.getMaxAccountsPerProxy() <= 0 ? Integer.MAX_VALUE : config.getMaxAccountsPerProxy();
+        Map<String, Integer> load = new HashMap<>();
+        accounts.forEach(account -> load.merge(ProxyKeys.of(account.getProxy()), 1, Integer::sum));
+
+        for (FullAccountContext account : accounts) {
+            ProxyHealth own = register(account.getProxy());
+            boolean ownUnavailable = unavailable.test(own.getKey());
+            ProxyHealth best = pool.stream()
+                    .filter(health -> load.getOrDefault(health.getKey(), 0) < capacity)
+                    .findFirst().orElse(null);
+            if (best == null || best == own) continue;
+
+            if (ownUnavailable || own.score() > best.score() * config.getReassignFactor()) {
+                assignments.put(account.getId(), best);
+                load.merge(own.getKey(), -1, Integer::sum);
+                load.merge(best.getKey(), 1, Integer::sum);
+                log.info("[Proxy] account[{}] reassign proxy [{}]({}) -> [{}]({})", account.getId(),
+                        own.getKey(), Math.round(own.score()), best.getKey(), Math.round(best.score()));
+            }
+        }
+    }
+
+    /**
+     * 代理池项为 host:port 时匹配该地址下所有凭证的代理，为完整 key 时只匹配该代理
+     */
+    private boolean inAllowedPool(String key) {
+        List<String> allowedPool = config.getAllowedPool();
+        return allowedPool.contains(key) || allowedPool.contains(ProxyKeys.address(key));
+    }
+
+    /**
+     * 代理池中没有匹配任何已登记代理的项不会生效，每项只提示一次
+     */
+    private void warnUnmatchedPool() {
+        for (String entry : config.getAllowedPool()) {
+            boolean matched = healthMap.keySet().stream()
+                    .anyMatch(key -> entry.equals(key) || entry.equals(ProxyKeys.address(key)));
+            if (!matched && warnedPoolEntries.add(entry)) {
+                log.warn("[Proxy] allowed pool entry [{}] matches no proxy, expect host:port or host:port#digest", entry);
+            }
+        }
+    }
+
+    /**
+     * 定时探测空闲代理
+     *
+     * @param probe 经由指定代理发出一次轻量请求
+     */
+    public synchronized void startProbe(Function<ProxyHealth, CompletableFuture<?>> probe) {
+        if (!config.isEnabled() || config.getProbeIdleSeconds() <= 0 || probeScheduler != null) {
+            return;
+        }
+        probeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "proxy-health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getProbeIdleSeconds();
+        probeScheduler.scheduleWithFixedDelay(() -> probeIdle(probe), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void probeIdle(Function<ProxyHealth, CompletableFuture<?>> probe) {
+        long idleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(config.getProbeIdleSeconds());
+        for (ProxyHealth health : healthMap.values()) {
+            if (health.getLastUsedAt() > idleBefore) continue;
+            long start = System.nanoTime();
+            try {
+                probe.apply(health).whenComplete((r, e) ->
+                        health.record(System.nanoTime() - start, e == null || !ResilientCaller.isTransient(e)));
+            } catch (Exception e) {
+                health.record(System.nanoTime() - start, false);
+            }
+        }
+    }
+
+    /**
+     * 各代理评分，按评分升序
+     */
+    public String report() {
+        return healthMap.values().stream()
+                .sorted(Comparator.comparingDouble(ProxyHealth::score))
+                .map(health -> String.format("%s score=%.0f latency=%.0fms error=%.2f samples=%d",
+                        health.getKey(), health.score(), health.getLatencyMillis(), health.getErrorRate(),
+                        health.getSamples()))
+                .collect(Collectors.joining("\n", "proxy health:\n", ""));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (probeScheduler != null) {
+            probeScheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cn.com.vortexa.agent_hub.quiz;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.QuizCatalogue;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 跨账户共享的 Learn & Earn quiz 目录缓存。目录在 TTL 内只下载一次，整体缓存、整体替换，
+ * quiz 数超过 max-quizzes 时只在加载时告警
+ *
+ * @author helei
+ * @since 2025-08-24
+ */
+@Slf4j
+public class LearnEarnCatalogueCache {
+    private final AgentHubConfig.Catalogue config;
+
+    private List<QuizCatalogue.Quiz> quizzes;
+    private long loadedAt;
+    private long lastResponseSize;
+    private CompletableFuture<List<QuizCatalogue.Quiz>> loading;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder savedSize = new LongAdder();
+    private final LongAdder loadedSize = new LongAdder();
+
+    public LearnEarnCatalogueCache(AgentHubConfig.Catalogue config) {
+        this.config = config;
+    }
+
+    /**
+     * 获取 quiz 目录，缓存未命中时通过 loader 加载，同一时刻只会有一个加载请求
+     *
+     * @param loader loader
+     * @return quiz 列表
+     */
+    public CompletableFuture<List<QuizCatalogue.Quiz>> get(Supplier<CompletableFuture<QuizCatalogue>> loader) {
+        if (!config.isEnabled()) {
+            return loader.get().thenApply(QuizCatalogue::getQuizzes);
+        }
+
+        CompletableFuture<List<QuizCatalogue.Quiz>> future;
+        synchronized (this) {
+            List<QuizCatalogue.Quiz> cached = getFresh();
+            if (cached != null) {
+                hitCount.increment();
+                savedSize.add(lastResponseSize);
+                return CompletableFuture.completedFuture(cached);
+            }
+            if (loading != null) {
+                // 其它账户正在加载，复用同一个请求；省下的大小在本次加载完成后按新响应计入
+                hitCount.increment();
+                return loading.whenComplete((r, e) -> {
+                    if (e == null) {
+                        synchronized (this) {
+                            savedSize.add(lastResponseSize);
+                        }
+                    }
+                });
+            }
+
+            missCount.increment();
+            future = loader.get().thenApply(this::fill);
+            loading = future;
+        }
+        return future.whenComplete((r, e) -> {
+            synchronized (this) {
+                if (loading == future) loading = null;
+            }
+        });
+    }
+
+    public void invalidate() {
+        synchronized (this) {
+            quizzes = null;
+            loadedAt = 0;
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 命中缓存省下的响应体大小（字符数）
+     */
+    public long getSavedSize() {
+        return savedSize.sum();
+    }
+
+    public long getLoadedSize() {
+        return loadedSize.sum();
+    }
+
+    public String stats() {
+        return String.format("catalogue cache hit: %d, miss: %d, saved request: %d, saved size: %d, loaded size: %d",
+                getHitCount(), getMissCount(), getHitCount(), getSavedSize(), getLoadedSize());
+    }
+
+    private List<QuizCatalogue.Quiz> getFresh() {
+        if (quizzes == null || System.currentTimeMillis() - loadedAt > TimeUnit.SECONDS.toMillis(config.getTtlSeconds())) {
+            return null;
+        }
+        return quizzes;
+    }
+
+    private List<QuizCatalogue.Quiz> fill(QuizCatalogue catalogue) {
+        List<QuizCatalogue.Quiz> loaded = List.copyOf(catalogue.getQuizzes());
+        if (loaded.size() > config.getMaxQuizzes()) {
+            log.warn("[Learn & Earn] quiz catalogue has [{}] quiz, more than max-quizzes [{}]", loaded.size(), config.getMaxQuizzes());
+        }
+        synchronized (this) {
+            quizzes = loaded;
+            loadedAt = System.currentTimeMillis();
+            lastResponseSize = catalogue.getResponseSize();
+            loadedSize.add(catalogue.getResponseSize());
+            log.info("[Learn & Earn] quiz catalogue loaded, [{}] quiz, size {}", loaded.size(), lastResponseSize);
+        }
+        return loaded;
+    }
+}
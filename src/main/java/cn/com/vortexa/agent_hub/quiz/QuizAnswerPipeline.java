@@ -0,0 +1,159 @@
+package cn.com.vortexa.agent_hub.quiz;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import cn.com.vortexa.agent_hub.dto.QuizRunResult;
+import cn.com.vortexa.agent_hub.event.RunEvent;
+import cn.com.vortexa.agent_hub.event.RunEvents;
+import cn.com.vortexa.agent_hub.executor.AccountTaskExecutor;
+import cn.com.vortexa.agent_hub.journal.ProgressJournal;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 流水线答题：一个账户的所有待答 quiz 同时开始，每个 quiz 内以有限窗口并发提交 check-question
+ *
+ * @author helei
+ * @since 2025-08-20
+ */
+@Slf4j
+public class QuizAnswerPipeline {
+    private final AgentHubApi agentHubApi;
+    private final AccountTaskExecutor taskExecutor;
+    private final ProgressJournal progressJournal;
+    private final AgentHubConfig.Quiz config;
+
+    public QuizAnswerPipeline(
+            AgentHubApi agentHubApi, AccountTaskExecutor taskExecutor, ProgressJournal progressJournal, AgentHubConfig.Quiz config
+    ) {
+        this.agentHubApi = agentHubApi;
+        this.taskExecutor = taskExecutor;
+        this.progressJournal = progressJournal;
+        this.config = config;
+    }
+
+    /**
+     * 完成账户的答题任务，阻塞至所有题目都有结果
+     *
+     * @param fullAccountContext fullAccountContext
+     * @param questionAnswers    待答题目
+     * @return QuizRunResult
+     */
+    public QuizRunResult run(FullAccountContext fullAccountContext, List<QuestionAnswer> questionAnswers) {
+        QuizRunResult result = new QuizRunResult(questionAnswers.size());
+        Map<String, List<QuestionAnswer>> quizMap = questionAnswers.stream().collect(
+                Collectors.groupingBy(QuestionAnswer::getQuizId, LinkedHashMap::new, Collectors.toList())
+        );
+
+        try (ExecutorService quizExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, List<QuestionAnswer>> entry : quizMap.entrySet()) {
+                quizExecutor.submit(RunEvents.bind(() -> runQuiz(fullAccountContext, entry.getKey(), entry.getValue(), result)));
+            }
+        }
+        return result;
+    }
+
+    private void runQuiz(
+            FullAccountContext fullAccountContext, String quizId, List<QuestionAnswer> questions, QuizRunResult result
+    ) {
+        if (!startQuiz(fullAccountContext, quizId)) {
+            questions.forEach(questionAnswer -> result.record(questionAnswer, QuizRunResult.Outcome.SKIPPED));
+            return;
+        }
+
+        // 服务端要求按顺序作答时窗口退化为 1，答错后与串行模式一样放弃该 quiz 剩余题目
+        boolean ordered = config.isOrdered();
+        Semaphore window = new Semaphore(ordered ? 1 : Math.max(1, config.getInFlightWindow()));
+        // 作答回调在 HTTP 客户端线程上执行，先取出所属运行
+        String runId = RunEvents.currentRun();
+        AtomicBoolean answeredWrong = new AtomicBoolean(false);
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>(questions.size());
+        for (QuestionAnswer questionAnswer : questions) {
+            try {
+                window.acquire();
+                if (ordered && answeredWrong.get()) {
+                    window.release();
+                    result.record(questionAnswer, QuizRunResult.Outcome.SKIPPED);
+                    continue;
+                }
+                taskExecutor.pace(fullAccountContext);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.record(questionAnswer, QuizRunResult.Outcome.SKIPPED);
+                continue;
+            }
+
+            long submitAt = System.nanoTime();
+            inFlight.add(agentHubApi.answerQuestionAsync(fullAccountContext, questionAnswer).whenComplete((v, throwable) -> {
+                QuizRunResult.Outcome outcome = resolveOutcome(questionAnswer, throwable);
+                RunEvents.emitTo(runId, RunEvent.Type.QUESTION, fullAccountContext.getId(),
+                        questionAnswer.getQuizId() + "/" + questionAnswer.getQuestionId(),
+                        toEventOutcome(outcome), System.nanoTime() - submitAt, null);
+                if (outcome == QuizRunResult.Outcome.WRONG) {
+                    answeredWrong.set(true);
+                }
+                if (outcome == QuizRunResult.Outcome.CORRECT || outcome == QuizRunResult.Outcome.WRONG) {
+                    progressJournal.markDone(fullAccountContext.getId(), ProgressJournal.Kind.QUESTION,
+                            questionAnswer.getQuizId() + "/" + questionAnswer.getQuestionId());
+                }
+                result.record(questionAnswer, outcome);
+                window.release();
+            }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+    }
+
+    private boolean startQuiz(FullAccountContext fullAccountContext, String quizId) {
+        try {
+            taskExecutor.pace(fullAccountContext);
+            long start = System.nanoTime();
+            agentHubApi.startQuizAsync(fullAccountContext, quizId).join();
+            RunEvents.emit(RunEvent.Type.QUIZ_START, fullAccountContext.getId(), quizId,
+                    RunEvent.Outcome.SUCCESS, System.nanoTime() - start);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (CompletionException e) {
+            String message = String.valueOf(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            log.error("[Learn & Earn][QA] account[{}] start quiz [{}] error, {}",
+                    fullAccountContext.getId(), quizId, message);
+            RunEvents.emit(RunEvent.Type.QUIZ_START, fullAccountContext.getId(), quizId, RunEvent.Outcome.FAILED, 0, message);
+            return message.contains("Quiz already started");
+        }
+    }
+
+    private static RunEvent.Outcome toEventOutcome(QuizRunResult.Outcome outcome) {
+        return switch (outcome) {
+            case CORRECT -> RunEvent.Outcome.SUCCESS;
+            case WRONG -> RunEvent.Outcome.WRONG;
+            case ERROR -> RunEvent.Outcome.FAILED;
+            case SKIPPED -> RunEvent.Outcome.SKIPPED;
+        };
+    }
+
+    private QuizRunResult.Outcome resolveOutcome(QuestionAnswer questionAnswer, Throwable throwable) {
+        if (throwable == null) {
+            return QuizRunResult.Outcome.CORRECT;
+        }
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        log.error("[Learn & Earn][QA] complete QA[{}/{}] error, {}",
+                questionAnswer.getQuizId(), questionAnswer.getQuestionId(), cause.getMessage());
+        return cause instanceof IllegalStateException ? QuizRunResult.Outcome.WRONG : QuizRunResult.Outcome.ERROR;
+    }
+}
@@ -0,0 +1,209 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.transport.ExchangeTimer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 按 AIMD 自适应调整一组接口的在途请求上限：延迟平稳且上限被用满时每个“上限轮”加 1，
+ * 遇到 429/5xx 或近期延迟超过基线一定倍数时按比例下调。超过上限的请求排队，不阻塞调用线程
+ *
+ * @author helei
+ * @since 2025-09-05
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    /**
+     * 前若干个样本只用于建立延迟基线，不判断突增
+     */
+    private static final int WARM_UP_SAMPLES = 20;
+    private static final double RECENT_ALPHA = 0.2;
+    private static final double BASELINE_DOWN_ALPHA = 0.2;
+    private static final double BASELINE_UP_ALPHA = 0.005;
+
+    /**
+     * 排队的请求在释放名额的回调线程之外发起，避免在响应线程上递归
+     */
+    private static final ExecutorService DISPATCH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * group -> 最近创建的限流器，每组的指标只登记一次，读取该组当前的限流器
+     */
+    private static final Map<String, AdaptiveConcurrencyLimiter> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+    private final AgentHubConfig.Concurrency config;
+    private final AgentHubConfig.ConcurrencyLimit limitConfig;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    private volatile double limit;
+    private double baselineNanos;
+    private double recentNanos;
+    private long samples;
+    private long lastDecreaseAt;
+
+    private AdaptiveConcurrencyLimiter(
+            String group, AgentHubConfig.Concurrency config, AgentHubConfig.ConcurrencyLimit limitConfig
+    ) {
+        this.group = group;
+        this.config = config;
+        this.limitConfig = limitConfig;
+        this.limit = Math.max(limitConfig.getMinLimit(), Math.min(limitConfig.getMaxLimit(), limitConfig.getInitialLimit()));
+    }
+
+    /**
+     * 创建限流器并作为该组的当前限流器，该组的指标读取它
+     */
+    public static AdaptiveConcurrencyLimiter create(
+            String group, AgentHubConfig.Concurrency config, AgentHubConfig.ConcurrencyLimit limitConfig
+    ) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(group, config, limitConfig);
+        if (GROUPS.put(group, limiter) == null) {
+            registerGauges(group);
+        }
+        return limiter;
+    }
+
+    private static void registerGauges(String group) {
+        AgentHubMetrics.registry().gauge("agent_hub_concurrency_limit", () -> GROUPS.get(group).getLimit(), "group", group);
+        AgentHubMetrics.registry().gauge("agent_hub_concurrency_in_flight", () -> GROUPS.get(group).getInFlight(), "group", group);
+        AgentHubMetrics.registry().gauge("agent_hub_concurrency_waiting", () -> GROUPS.get(group).waitingCount.get(), "group", group);
+    }
+
+    /**
+     * 在上限内发起请求，已满时排队等待名额
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+        if (!config.isEnabled()) {
+            return request.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (tryAcquire()) {
+            execute(request, result);
+        } else {
+            waiting.add(() -> execute(request, result));
+            waitingCount.incrementAndGet();
+            // 入队前可能已有名额释放，再尝试一次，避免请求滞留
+            dispatchWaiting();
+        }
+        return result;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        dispatchWaiting();
+    }
+
+    private void dispatchWaiting() {
+        while (!waiting.isEmpty() && tryAcquire()) {
+            Runnable task = waiting.poll();
+            if (task == null) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            waitingCount.decrementAndGet();
+            DISPATCH_EXECUTOR.execute(task);
+        }
+    }
+
+    private <T> void execute(Supplier<CompletableFuture<T>> request, CompletableFuture<T> result) {
+        // 延迟只取 HTTP 交换本身，客户端调度器排队不计入；客户端不报告时退回整个请求的耗时
+        ExchangeTimer timer = new ExchangeTimer();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = ExchangeTimer.bind(timer, request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, throwable) -> {
+            onComplete(timer.elapsedNanos(System.nanoTime() - start), throwable);
+            release();
+            if (throwable == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private synchronized void onComplete(long rttNanos, Throwable throwable) {
+        if (throwable != null) {
+            // 网络异常、业务错误与服务端负载无关，不参与调整
+            if (ResilientCaller.isOverload(throwable)) {
+                decrease("overload");
+            }
+            return;
+        }
+
+        samples++;
+        recentNanos = recentNanos == 0 ? rttNanos : recentNanos + RECENT_ALPHA * (rttNanos - recentNanos);
+        // 基线快降慢升：接近近期的最低延迟，长期变慢时才缓慢抬升
+        if (baselineNanos == 0) {
+            baselineNanos = rttNanos;
+        } else {
+            baselineNanos += (rttNanos < baselineNanos ? BASELINE_DOWN_ALPHA : BASELINE_UP_ALPHA) * (rttNanos - baselineNanos);
+        }
+
+        if (samples > WARM_UP_SAMPLES && recentNanos > baselineNanos * config.getLatencyTolerance()) {
+            decrease("latency");
+        } else if (inFlight.get() >= limit / 2) {
+            // 只有上限确实被用到时才上调，请求量本身不足时上限不会无限增长
+            limit = Math.min(limitConfig.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    private void decrease(String reason) {
+        long now = System.currentTimeMillis();
+        if (now - lastDecreaseAt < config.getDecreaseCooldownMillis()) return;
+        lastDecreaseAt = now;
+
+        double previous = limit;
+        limit = Math.max(limitConfig.getMinLimit(), limit * config.getBackoffRatio());
+        // 近期延迟重置为基线，之后仍持续变慢才会再次下调，避免同一次突增在冷却后重复触发
+        recentNanos = baselineNanos;
+        AgentHubMetrics.registry().counter("agent_hub_concurrency_decrease_total", "group", group, "reason", reason).increment();
+        log.debug("[Concurrency] group[{}] limit {} -> {}, {}, baseline {} ms", group, (int) previous, (int) limit, reason,
+                TimeUnit.NANOSECONDS.toMillis((long) baselineNanos));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("group[%s] limit %d, in flight %d, waiting %d, baseline %d ms",
+                group, (int) limit, inFlight.get(), waitingCount.get(), TimeUnit.NANOSECONDS.toMillis((long) baselineNanos));
+    }
+}
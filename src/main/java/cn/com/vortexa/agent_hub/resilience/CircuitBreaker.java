@@ -0,0 +1,99 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import lombok.Getter;
+
+/**
+ * 熔断器：连续失败达到阈值后打开，打开期间直接拒绝；到期后半开放行少量试探请求，成功则关闭，失败则再次打开。
+ * 连续多次打开时打开时长按倍数增加
+ *
+ * @author helei
+ * @since 2025-08-28
+ */
+public class CircuitBreaker {
+    /**
+     * 打开时长最大倍数
+     */
+    private static final int MAX_OPEN_MULTIPLIER = 8;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenMaxCalls;
+
+    @Getter
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int consecutiveTrips;
+    private int halfOpenCalls;
+    private long openUntil;
+
+    public CircuitBreaker(int failureThreshold, long openMillis, int halfOpenMaxCalls) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.halfOpenMaxCalls = Math.max(1, halfOpenMaxCalls);
+    }
+
+    /**
+     * 请求前调用
+     *
+     * @return 是否放行
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenCalls = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenCalls >= halfOpenMaxCalls) {
+                return false;
+            }
+            halfOpenCalls++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            consecutiveTrips = 0;
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            trip();
+        }
+    }
+
+    /**
+     * 当前是否处于打开且未到试探时间
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() < openUntil;
+    }
+
+    /**
+     * 允许下一次试探的时间
+     */
+    public synchronized long getRetryAt() {
+        return state == State.OPEN ? openUntil : System.currentTimeMillis();
+    }
+
+    private void trip() {
+        consecutiveTrips++;
+        consecutiveFailures = 0;
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis()
+                + openMillis * Math.min(MAX_OPEN_MULTIPLIER, 1L << Math.min(30, consecutiveTrips - 1));
+    }
+}
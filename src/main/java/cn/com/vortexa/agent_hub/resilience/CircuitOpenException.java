@@ -0,0 +1,36 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import lombok.Getter;
+
+/**
+ * 代理/接口熔断打开，请求未发出
+ *
+ * @author helei
+ * @since 2025-08-28
+ */
+@Getter
+public class CircuitOpenException extends RuntimeException {
+    private final String proxyKey;
+    private final String endpoint;
+    private final long retryAt;
+
+    public CircuitOpenException(String proxyKey, String endpoint, long retryAt) {
+        super("circuit open, proxy[" + proxyKey + "] endpoint[" + endpoint + "], retry after " + retryAt);
+        this.proxyKey = proxyKey;
+        this.endpoint = endpoint;
+        this.retryAt = retryAt;
+    }
+
+    /**
+     * 异常链中是否包含熔断异常
+     */
+    public static CircuitOpenException find(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof CircuitOpenException circuitOpenException) {
+                return circuitOpenException;
+            }
+        }
+        return null;
+    }
+}
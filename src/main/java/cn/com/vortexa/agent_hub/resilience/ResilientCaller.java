@@ -0,0 +1,161 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.transport.HttpStatusException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 按 (代理, 接口) 熔断，失败时指数退避 + 抖动重试，重试次数受全局预算限制。
+ * 只有网络异常、超时、429 与 5xx 计入熔断与重试，业务错误（答错、已开始等）视为代理可用。
+ * 状态码只从 {@link HttpStatusException} 读取，框架客户端的错误由 {@link cn.com.vortexa.agent_hub.transport.FrameworkHttpClient} 转换
+ *
+ * @author helei
+ * @since 2025-08-28
+ */
+@Slf4j
+public class ResilientCaller {
+    private final AgentHubConfig.Resilience config;
+    private final RetryBudget retryBudget;
+    private final Map<String, Map<String, CircuitBreaker>> proxyBreakerMap = new ConcurrentHashMap<>();
+
+    public ResilientCaller(AgentHubConfig.Resilience config) {
+        this.config = config;
+        this.retryBudget = new RetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMinPerSecond());
+    }
+
+    /**
+     * 经过熔断与重试发起请求
+     *
+     * @param proxyKey   代理 key
+     * @param endpoint   接口名
+     * @param maxRetries 最大重试次数
+     * @param request    发起一次请求
+     * @return future，熔断打开时以 CircuitOpenException 结束
+     */
+    public <T> CompletableFuture<T> call(
+            String proxyKey, String endpoint, int maxRetries, Supplier<CompletableFuture<T>> request
+    ) {
+        if (!config.isEnabled()) {
+            return request.get();
+        }
+        retryBudget.onRequest();
+        return attempt(breaker(proxyKey, endpoint), proxyKey, endpoint, 0, maxRetries, request);
+    }
+
+    /**
+     * 代理是否有接口处于熔断打开状态
+     */
+    public boolean isProxyOpen(String proxyKey) {
+        Map<String, CircuitBreaker> breakers = proxyBreakerMap.get(proxyKey);
+        return breakers != null && breakers.values().stream().anyMatch(CircuitBreaker::isOpen);
+    }
+
+    /**
+     * 代理所有打开的熔断器都允许试探的时间
+     */
+    public long proxyRetryAt(String proxyKey) {
+        Map<String, CircuitBreaker> breakers = proxyBreakerMap.get(proxyKey);
+        long now = System.currentTimeMillis();
+        return breakers == null ? now
+                : breakers.values().stream().mapToLong(CircuitBreaker::getRetryAt).max().orElse(now);
+    }
+
+    private <T> CompletableFuture<T> attempt(
+            CircuitBreaker breaker, String proxyKey, String endpoint, int attempt, int maxRetries,
+            Supplier<CompletableFuture<T>> request
+    ) {
+        if (!breaker.tryAcquire()) {
+            AgentHubMetrics.registry().counter("agent_hub_circuit_rejected_total", "endpoint", endpoint).increment();
+            return CompletableFuture.failedFuture(new CircuitOpenException(proxyKey, endpoint, breaker.getRetryAt()));
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.handle((result, throwable) -> {
+            if (throwable == null) {
+                breaker.onSuccess();
+                return CompletableFuture.completedFuture(result);
+            }
+            if (!isTransient(throwable)) {
+                breaker.onSuccess();
+                return CompletableFuture.<T>failedFuture(throwable);
+            }
+
+            breaker.onFailure();
+            if (attempt >= maxRetries || breaker.isOpen() || !retryBudget.tryRetry()) {
+                return CompletableFuture.<T>failedFuture(throwable);
+            }
+            long delay = backoffMillis(attempt);
+            log.debug("proxy[{}] endpoint[{}] retry {} after {} ms, {}",
+                    proxyKey, endpoint, attempt + 1, delay, throwable.getMessage());
+            AgentHubMetrics.registry().counter("agent_hub_request_retry_total", "endpoint", endpoint).increment();
+            return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(v -> attempt(breaker, proxyKey, endpoint, attempt + 1, maxRetries, request));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * 指数退避，full jitter
+     */
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(config.getBackoffMaxMillis(), config.getBackoffBaseMillis() << Math.min(20, attempt));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, cap) + 1);
+    }
+
+    private CircuitBreaker breaker(String proxyKey, String endpoint) {
+        return proxyBreakerMap.computeIfAbsent(proxyKey, k -> new ConcurrentHashMap<>()).computeIfAbsent(
+                endpoint,
+                k -> new CircuitBreaker(
+                        config.getFailureThreshold(), TimeUnit.SECONDS.toMillis(config.getOpenSeconds()),
+                        config.getHalfOpenMaxCalls()
+                )
+        );
+    }
+
+    /**
+     * 网络异常、超时、429、5xx 视为代理或服务端暂时不可用
+     */
+    public static boolean isTransient(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof IOException || t instanceof TimeoutException) {
+                return true;
+            }
+            if (t instanceof HttpStatusException statusException) {
+                return isOverloadStatus(statusException.getCode());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 429、5xx 视为服务端过载，网络异常与超时多由代理引起，不计入
+     */
+    public static boolean isOverload(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException statusException) {
+                return isOverloadStatus(statusException.getCode());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOverloadStatus(int code) {
+        return code == 429 || (code >= 500 && code <= 599);
+    }
+}
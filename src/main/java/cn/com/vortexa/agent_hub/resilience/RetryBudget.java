@@ -0,0 +1,52 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+/**
+ * 全局重试预算：每个请求存入 ratio 个令牌，每次重试消耗 1 个，另按 minPerSecond 持续补充。
+ * 大面积失败时重试量被限制在正常请求量的固定比例内，避免重试风暴
+ *
+ * @author helei
+ * @since 2025-08-28
+ */
+public class RetryBudget {
+    private final double ratio;
+    private final double minPerNano;
+    private final double maxTokens;
+
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * @param ratio        每个请求允许的重试比例
+     * @param minPerSecond 请求量很低时每秒保底的重试数
+     */
+    public RetryBudget(double ratio, double minPerSecond) {
+        this.ratio = Math.max(0, ratio);
+        this.minPerNano = Math.max(0, minPerSecond) / 1_000_000_000d;
+        this.maxTokens = Math.max(1, minPerSecond * 10);
+        this.tokens = this.maxTokens;
+    }
+
+    public synchronized void onRequest() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * @return 是否还有重试预算
+     */
+    public synchronized boolean tryRetry() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) * minPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,147 @@
+package cn.com.vortexa.agent_hub.session;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.AccountSession;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSONArray;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按账户 id 缓存登录 cookie，并持久化到磁盘，避免每次任务都重新走邮箱验证码登录。
+ * 修改只标记为脏，定时合并写入一次，大量账户同时登录时不会每个账户都重写整个文件。
+ * 由持有者在退出时 close，写入最后一批修改
+ *
+ * @author helei
+ * @since 2025-08-18
+ */
+@Slf4j
+public class AccountSessionStore implements AutoCloseable {
+    public static final String DEFAULT_FILE_NAME = "agent-hub-session.json";
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+
+    private final Path storePath;
+
+    private final Map<String, AccountSession> sessionMap = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "account-session-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AccountSessionStore() {
+        this(AgentHubConfig.workDir().resolve(DEFAULT_FILE_NAME));
+    }
+
+    public AccountSessionStore(Path storePath) {
+        this.storePath = storePath;
+        load();
+        flushScheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取未过期的 session
+     *
+     * @param accountId accountId
+     * @return AccountSession，不存在或已过期返回null
+     */
+    public AccountSession getValid(Object accountId) {
+        AccountSession session = sessionMap.get(String.valueOf(accountId));
+        if (session == null || StrUtil.isBlank(session.getCookie())) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            invalidate(accountId);
+            return null;
+        }
+        return session;
+    }
+
+    public void save(Object accountId, String cookie, long expireAt) {
+        long now = System.currentTimeMillis();
+        sessionMap.put(String.valueOf(accountId), new AccountSession(String.valueOf(accountId), cookie, expireAt, now));
+        dirty.set(true);
+    }
+
+    /**
+     * 记录 cookie 仍有效。缓存中的 session 不在原对象上修改，替换为新对象，写入线程序列化时不会读到修改了一半的对象
+     *
+     * @return 更新了确认时间的 session
+     */
+    public AccountSession markVerified(AccountSession session) {
+        AccountSession verified = new AccountSession(
+                session.getAccountId(), session.getCookie(), session.getExpireAt(), System.currentTimeMillis()
+        );
+        // 期间重新登录或已失效时不覆盖
+        if (sessionMap.replace(session.getAccountId(), session, verified)) {
+            dirty.set(true);
+        }
+        return verified;
+    }
+
+    public void invalidate(Object accountId) {
+        if (sessionMap.remove(String.valueOf(accountId)) != null) {
+            dirty.set(true);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(storePath)) {
+            return;
+        }
+        try {
+            String content = Files.readString(storePath, StandardCharsets.UTF_8);
+            List<AccountSession> sessions = JSONArray.parseArray(content, AccountSession.class);
+            if (sessions == null) return;
+
+            long now = System.currentTimeMillis();
+            for (AccountSession session : sessions) {
+                if (session.getAccountId() != null && !session.isExpired(now)) {
+                    sessionMap.put(session.getAccountId(), session);
+                }
+            }
+            log.info("load [{}] account session from {}", sessionMap.size(), storePath);
+        } catch (Exception e) {
+            log.warn("load account session from {} error, {}", storePath, e.getMessage());
+        }
+    }
+
+    /**
+     * 有未写入的修改时整体重写文件
+     */
+    public synchronized void flush() {
+        if (!dirty.getAndSet(false)) return;
+        try {
+            Path tmp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            String content = JSONArray.toJSONString(new ArrayList<>(sessionMap.values()));
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("flush account session to {} error, {}", storePath, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+        flush();
+    }
+}
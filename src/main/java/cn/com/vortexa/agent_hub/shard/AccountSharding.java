@@ -0,0 +1,161 @@
+package cn.com.vortexa.agent_hub.shard;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多实例分片：按存活节点构建一致性哈希环，本实例只处理环上归属自己的账户，处理前再获取账户租约。
+ * 节点心跳超时后从环上移除，其账户换到相邻节点，待原租约到期后由新节点接管。
+ * <p>
+ * 刚启动时其他节点的心跳可能尚未写入，本实例会暂时认领较多账户，租约保证不会重复处理，下次运行即恢复均衡
+ *
+ * @author helei
+ * @since 2025-09-04
+ */
+@Slf4j
+public class AccountSharding implements AutoCloseable {
+    private final AgentHubConfig.Shard config;
+    @Getter
+    private final String nodeId;
+    private final ShardLeaseStore leaseStore;
+    private final ScheduledExecutorService heartbeatScheduler;
+
+    private volatile ConsistentHashRing ring;
+
+    public AccountSharding(AgentHubConfig.Shard config) {
+        this(config, AgentHubConfig.workDir().resolve(config.getStoreDir()));
+    }
+
+    public AccountSharding(AgentHubConfig.Shard config, Path storeDir) {
+        this.config = config;
+        this.nodeId = config.getNodeId();
+        if (!config.isEnabled()) {
+            this.leaseStore = null;
+            this.heartbeatScheduler = null;
+            return;
+        }
+        if (!config.getNodes().contains(nodeId)) {
+            throw new IllegalArgumentException("shard node id [" + nodeId + "] not in nodes " + config.getNodes());
+        }
+
+        this.leaseStore = new ShardLeaseStore(storeDir, nodeId, TimeUnit.SECONDS.toMillis(config.getLeaseSeconds()));
+        leaseStore.heartbeat();
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "shard-heartbeat-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat,
+                config.getHeartbeatSeconds(), config.getHeartbeatSeconds(), TimeUnit.SECONDS);
+
+        AgentHubMetrics.registry().gauge("agent_hub_shard_live_nodes", () -> ring == null ? 0 : ring.getNodes().size(),
+                "node", nodeId);
+        AgentHubMetrics.registry().gauge("agent_hub_shard_lease_held", leaseStore::heldCount, "node", nodeId);
+        log.info("[Shard] node [{}] started, nodes {}, store {}", nodeId, config.getNodes(), storeDir);
+    }
+
+    public boolean isEnabled() {
+        return leaseStore != null;
+    }
+
+    /**
+     * 心跳未超时的节点，本节点始终视为存活
+     */
+    public Set<String> liveNodes() {
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(config.getNodeTimeoutSeconds());
+        Map<String, Long> heartbeats = leaseStore.heartbeats();
+        Set<String> live = new TreeSet<>();
+        for (String node : config.getNodes()) {
+            Long last = heartbeats.get(node);
+            if (node.equals(nodeId) || (last != null && last >= deadline)) {
+                live.add(node);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * 按当前存活节点刷新哈希环，节点集合不变时复用
+     */
+    public ConsistentHashRing currentRing() {
+        Set<String> live = liveNodes();
+        ConsistentHashRing current = ring;
+        if (current == null || !current.getNodes().equals(live)) {
+            if (current != null) {
+                log.info("[Shard] node [{}] live nodes changed {} -> {}", nodeId, current.getNodes(), live);
+            }
+            current = new ConsistentHashRing(live, config.getVirtualNodes());
+            ring = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return 哈希环上归属本节点的账户 id，未启用分片时原样返回
+     */
+    public List<String> owned(Collection<String> accountIds) {
+        if (!isEnabled()) return new ArrayList<>(accountIds);
+        ConsistentHashRing current = currentRing();
+        return accountIds.stream().filter(accountId -> nodeId.equals(current.nodeFor(accountId))).toList();
+    }
+
+    /**
+     * 认领归属本节点的账户并获取租约，其他节点仍持有租约的账户本次跳过
+     *
+     * @return 可以处理的账户 id，处理完后需 {@link #release}
+     */
+    public Set<String> claim(Collection<String> accountIds) {
+        if (!isEnabled()) return new TreeSet<>(accountIds);
+        List<String> owned = owned(accountIds);
+        Set<String> acquired = leaseStore.tryAcquire(owned);
+        log.info("[Shard] node [{}] owns [{}/{}] account, acquired lease [{}]",
+                nodeId, owned.size(), accountIds.size(), acquired.size());
+        return acquired;
+    }
+
+    /**
+     * 执行账户任务前检查租约仍归本节点，未启用分片时始终为 true
+     */
+    public boolean isHeld(String accountId) {
+        return !isEnabled() || leaseStore.isHeld(accountId);
+    }
+
+    public void release(Collection<String> accountIds) {
+        if (!isEnabled() || accountIds.isEmpty()) return;
+        leaseStore.release(accountIds);
+    }
+
+    private void heartbeat() {
+        try {
+            leaseStore.heartbeat();
+            Set<String> lost = leaseStore.renew();
+            if (!lost.isEmpty()) {
+                AgentHubMetrics.registry().counter("agent_hub_shard_lease_lost_total", "node", nodeId).add(lost.size());
+                log.warn("[Shard] node [{}] lease of [{}] account taken by other node, skip them", nodeId, lost.size());
+            }
+        } catch (Exception e) {
+            log.error("[Shard] node [{}] heartbeat error", nodeId, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package cn.com.vortexa.agent_hub.shard;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 一致性哈希环，每个节点按虚拟节点数放置多个点，账户 id 落到顺时针方向的第一个点。
+ * 节点增减时只有相邻区间的账户换主，其余账户归属不变；构造后不可变，节点变化时整体替换
+ *
+ * @author helei
+ * @since 2025-09-04
+ */
+public class ConsistentHashRing {
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = new TreeSet<>(nodes);
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : this.nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                // 极少数哈希冲突时按节点名取较小者，保证各实例得到相同的环
+                ring.merge(hash(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int index = 0;
+        for (var entry : ring.entrySet()) {
+            points[index] = entry.getKey();
+            owners[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    /**
+     * @return 负责该 key 的节点，环为空返回 null
+     */
+    public String nodeFor(String key) {
+        if (points.length == 0) return null;
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 按节点统计 key 的分布，用于观察是否均衡
+     */
+    public List<String> describe(Collection<String> keys) {
+        TreeMap<String, Integer> counts = new TreeMap<>();
+        nodes.forEach(node -> counts.put(node, 0));
+        keys.forEach(key -> counts.merge(nodeFor(key), 1, Integer::sum));
+        List<String> lines = new ArrayList<>(counts.size());
+        counts.forEach((node, count) -> lines.add(node + "=" + count));
+        return lines;
+    }
+
+    /**
+     * FNV-1a 后再做一次 64 位混淆，短字符串也能均匀分布，且不依赖 String.hashCode 的实现
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
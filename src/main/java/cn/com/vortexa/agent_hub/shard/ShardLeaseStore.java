@@ -0,0 +1,212 @@
+package cn.com.vortexa.agent_hub.shard;
+
+
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 多个实例共享目录下的账户租约与节点心跳。
+ * <p>
+ * 心跳：每个节点一个文件，内容为最后一次心跳的毫秒时间戳，只由该节点写。
+ * 租约：所有账户的租约放在一个文件中，读改写在文件锁内完成，同一时刻一个账户只会被一个节点持有；
+ * 持有期间由心跳线程续期，节点下线后租约到期才可被其他节点获取，因此不会有两个节点同时处理同一账户
+ *
+ * @author helei
+ * @since 2025-09-04
+ */
+@Slf4j
+public class ShardLeaseStore {
+    private static final String HEARTBEAT_PREFIX = "heartbeat-";
+    private static final String LEASE_FILE = "leases.json";
+    private static final String LOCK_FILE = "leases.lock";
+    /**
+     * 文件锁归属于进程，同一进程内多个节点（测试场景）之间再用进程内锁互斥
+     */
+    private static final ReentrantLock LOCAL_LOCK = new ReentrantLock();
+
+    private final Path storeDir;
+    private final String nodeId;
+    private final long leaseMillis;
+    /**
+     * 本节点持有的账户 id -> 引用次数，同一账户可能被本节点的多个任务同时使用
+     */
+    private final Map<String, Integer> held = new ConcurrentHashMap<>();
+
+    public ShardLeaseStore(Path storeDir, String nodeId, long leaseMillis) {
+        this.storeDir = storeDir;
+        this.nodeId = nodeId;
+        this.leaseMillis = leaseMillis;
+        try {
+            Files.createDirectories(storeDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("create shard store dir " + storeDir + " error", e);
+        }
+    }
+
+    public void heartbeat() {
+        Path file = storeDir.resolve(HEARTBEAT_PREFIX + nodeId);
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, String.valueOf(System.currentTimeMillis()), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("[Shard] node [{}] write heartbeat error, {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return 节点 -> 最后心跳时间
+     */
+    public Map<String, Long> heartbeats() {
+        Map<String, Long> result = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(storeDir, HEARTBEAT_PREFIX + "*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) continue;
+                try {
+                    result.put(name.substring(HEARTBEAT_PREFIX.length()), Long.parseLong(Files.readString(file).trim()));
+                } catch (IOException | NumberFormatException e) {
+                    log.debug("[Shard] read heartbeat {} error, {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[Shard] list heartbeat in {} error, {}", storeDir, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取账户租约，未被持有、已过期或本节点已持有的账户获取成功
+     *
+     * @return 获取成功的账户 id
+     */
+    public Set<String> tryAcquire(Collection<String> accountIds) {
+        Set<String> acquired = update(leases -> {
+            long now = System.currentTimeMillis();
+            Set<String> result = new HashSet<>();
+            for (String accountId : accountIds) {
+                JSONObject lease = leases.getJSONObject(accountId);
+                if (lease != null && !nodeId.equals(lease.getString("node")) && lease.getLongValue("expireAt") > now) {
+                    continue;
+                }
+                leases.put(accountId, newLease(now));
+                result.add(accountId);
+            }
+            return result;
+        });
+        acquired.forEach(accountId -> held.merge(accountId, 1, Integer::sum));
+        return acquired;
+    }
+
+    /**
+     * 延长本节点持有的全部租约，已被其他节点接管的租约不再抢回，从持有中移除
+     *
+     * @return 本次发现被接管的账户 id
+     */
+    public Set<String> renew() {
+        if (held.isEmpty()) return Set.of();
+        Set<String> lost = update(leases -> {
+            long now = System.currentTimeMillis();
+            Set<String> result = new HashSet<>();
+            for (String accountId : held.keySet()) {
+                JSONObject lease = leases.getJSONObject(accountId);
+                // 被接管说明本节点曾长时间无法续期，对方可能已在处理该账户
+                if (lease == null || nodeId.equals(lease.getString("node"))) {
+                    leases.put(accountId, newLease(now));
+                } else {
+                    result.add(accountId);
+                }
+            }
+            return result;
+        });
+        lost.forEach(held::remove);
+        return lost;
+    }
+
+    /**
+     * @return 本节点当前是否仍持有该账户的租约，续期时发现被接管后返回 false
+     */
+    public boolean isHeld(String accountId) {
+        return held.containsKey(accountId);
+    }
+
+    public void release(Collection<String> accountIds) {
+        Set<String> released = new HashSet<>();
+        for (String accountId : accountIds) {
+            Integer remaining = held.computeIfPresent(accountId, (k, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null) {
+                released.add(accountId);
+            }
+        }
+        if (released.isEmpty()) return;
+        update(leases -> {
+            for (String accountId : released) {
+                JSONObject lease = leases.getJSONObject(accountId);
+                if (lease != null && nodeId.equals(lease.getString("node"))) {
+                    leases.remove(accountId);
+                }
+            }
+            return null;
+        });
+    }
+
+    public int heldCount() {
+        return held.size();
+    }
+
+    private JSONObject newLease(long now) {
+        JSONObject lease = new JSONObject();
+        lease.put("node", nodeId);
+        lease.put("expireAt", now + leaseMillis);
+        return lease;
+    }
+
+    /**
+     * 在进程内锁与文件锁内读取租约文件，修改后整体替换
+     */
+    private <T> T update(Function<JSONObject, T> action) {
+        Path leaseFile = storeDir.resolve(LEASE_FILE);
+        LOCAL_LOCK.lock();
+        try (FileChannel channel = FileChannel.open(storeDir.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock fileLock = channel.lock();
+            try {
+                JSONObject leases = Files.exists(leaseFile)
+                        ? JSONObject.parseObject(Files.readString(leaseFile, StandardCharsets.UTF_8)) : null;
+                if (leases == null) {
+                    leases = new JSONObject();
+                }
+                T result = action.apply(leases);
+
+                Path tmp = leaseFile.resolveSibling(LEASE_FILE + "." + nodeId + ".tmp");
+                Files.writeString(tmp, leases.toJSONString(), StandardCharsets.UTF_8);
+                Files.move(tmp, leaseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return result;
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("update shard lease in " + storeDir + " error", e);
+        } finally {
+            LOCAL_LOCK.unlock();
+        }
+    }
+}
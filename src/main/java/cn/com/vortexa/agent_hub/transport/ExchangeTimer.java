@@ -0,0 +1,64 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import java.util.function.Supplier;
+
+/**
+ * 记录一次 HTTP 交换（发出请求头到收到响应头）的耗时，不含客户端调度器排队与建连。
+ * 发起请求的线程上绑定当前计时器，{@link PooledHttpClient} 把它挂在请求的 tag 上，由事件监听填写时间
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+public final class ExchangeTimer {
+    private static final ThreadLocal<ExchangeTimer> CURRENT = new ThreadLocal<>();
+
+    private volatile long startNanos;
+    private volatile boolean started;
+    /**
+     * 交换耗时，未完成为 -1
+     */
+    private volatile long elapsedNanos = -1;
+
+    /**
+     * 在绑定计时器的情况下同步发起请求
+     */
+    public static <T> T bind(ExchangeTimer timer, Supplier<T> request) {
+        ExchangeTimer previous = CURRENT.get();
+        CURRENT.set(timer);
+        try {
+            return request.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static ExchangeTimer current() {
+        return CURRENT.get();
+    }
+
+    void exchangeStart() {
+        // 连接失败重试时以最后一次发出为准
+        startNanos = System.nanoTime();
+        started = true;
+        elapsedNanos = -1;
+    }
+
+    void exchangeEnd() {
+        if (started) {
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * @param fallbackNanos 客户端没有报告交换时间（如框架客户端）时使用的耗时
+     */
+    public long elapsedNanos(long fallbackNanos) {
+        long elapsed = elapsedNanos;
+        return elapsed < 0 ? fallbackNanos : elapsed;
+    }
+}
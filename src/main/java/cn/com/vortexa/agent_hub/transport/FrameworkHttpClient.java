@@ -0,0 +1,84 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import cn.com.vortexa.common.constants.HttpMethod;
+import cn.com.vortexa.common.util.http.RestApiClientFactory;
+import com.alibaba.fastjson.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 使用框架 RestApiClientFactory 的客户端，连接池由框架管理。
+ * 框架对非 2xx 响应以 RuntimeException("request error, code &lt;状态码&gt;, ...") 结束 future，
+ * 这里只识别该格式转为 {@link HttpStatusException}，上层统一按状态码处理
+ *
+ * @author helei
+ * @since 2025-08-30
+ */
+public class FrameworkHttpClient implements HubHttpClient {
+    private static final Pattern STATUS_PATTERN = Pattern.compile("^request error, code (\\d{3})\\b");
+
+    private final Object proxy;
+
+    public FrameworkHttpClient(Object proxy) {
+        this.proxy = proxy;
+    }
+
+    @Override
+    public CompletableFuture<String> request(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    ) {
+        // 框架不重试
+        return translate(RestApiClientFactory.getClient(proxy()).request(url, method, headers, null, body, 0));
+    }
+
+    @Override
+    public CompletableFuture<JSONObject> jsonRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    ) {
+        return translate(RestApiClientFactory.getClient(proxy()).jsonRequest(url, method, headers, null, body));
+    }
+
+    @Override
+    public CompletableFuture<Void> rawRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body, ResponseHandler handler
+    ) {
+        return translate(RestApiClientFactory.getClient(proxy()).rawRequest(url, method, headers, null, body, handler::handle));
+    }
+
+    private static <T> CompletableFuture<T> translate(CompletableFuture<T> future) {
+        return future.exceptionallyCompose(e -> CompletableFuture.failedFuture(toStatusException(e)));
+    }
+
+    /**
+     * 框架抛出的状态码异常转为 HttpStatusException，原异常作为 cause。
+     * 只拆开 CompletionException/ExecutionException 包装，只认框架使用的 RuntimeException 本身，
+     * 超时、IO 异常以及业务异常信息中出现的数字都不会被当作状态码
+     */
+    static Throwable toStatusException(Throwable throwable) {
+        Throwable t = throwable;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t.getClass() != RuntimeException.class || t.getMessage() == null) {
+            return throwable;
+        }
+        Matcher matcher = STATUS_PATTERN.matcher(t.getMessage());
+        if (!matcher.find()) {
+            return throwable;
+        }
+        HttpStatusException statusException = new HttpStatusException(Integer.parseInt(matcher.group(1)), t.getMessage());
+        statusException.initCause(throwable);
+        return statusException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P> P proxy() {
+        return (P) proxy;
+    }
+}
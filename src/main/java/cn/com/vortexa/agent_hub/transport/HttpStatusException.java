@@ -0,0 +1,22 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import lombok.Getter;
+
+/**
+ * 响应状态码不是 2xx
+ *
+ * @author helei
+ * @since 2025-08-30
+ */
+@Getter
+public class HttpStatusException extends RuntimeException {
+    private final int code;
+    private final String body;
+
+    public HttpStatusException(int code, String body) {
+        super("http status " + code + ", " + body);
+        this.code = code;
+        this.body = body;
+    }
+}
@@ -0,0 +1,207 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.util.ProxyKeys;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * bot 自有的 HTTP 传输层：每个代理一个独立连接池的 OkHttp 客户端，支持 HTTP/2 多路复用与 keep-alive，
+ * 执行前可预热到 hub-api 与 privy 的 TLS 连接。SOCKS 代理带认证或无法解析的代理退回框架客户端
+ *
+ * @author helei
+ * @since 2025-08-30
+ */
+@Slf4j
+public class HttpTransport implements AutoCloseable {
+    /**
+     * 框架代理对象中的协议字段
+     */
+    static final String PROXY_PROTOCOL = "proxyProtocol";
+
+    private final AgentHubConfig.Transport config;
+    private final OkHttpClient baseClient;
+    /**
+     * 代理完整标识（含凭证）-> 客户端，同一网关不同账号的代理不能共用带认证信息的客户端
+     */
+    private final Map<String, ProxyClient> clientMap = new ConcurrentHashMap<>();
+
+    public HttpTransport(AgentHubConfig.Transport config) {
+        this(config, new OkHttpClient.Builder());
+    }
+
+    /**
+     * @param baseBuilder 共用的 OkHttp 配置，测试时用于信任自签名证书
+     */
+    HttpTransport(AgentHubConfig.Transport config, OkHttpClient.Builder baseBuilder) {
+        this.config = config;
+        this.baseClient = baseBuilder
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(config.getConnectTimeoutSeconds(), TimeUnit.SECONDS)
+                .readTimeout(config.getReadTimeoutSeconds(), TimeUnit.SECONDS)
+                .writeTimeout(config.getReadTimeoutSeconds(), TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    /**
+     * 代理对应的客户端
+     */
+    public HubHttpClient client(Object proxy) {
+        return clientMap.computeIfAbsent(ProxyKeys.identity(proxy), identity -> {
+            String key = ProxyKeys.of(proxy);
+            return new ProxyClient(key, createClient(key, proxy));
+        }).client();
+    }
+
+    /**
+     * 预热所有代理到各目标主机的连接
+     *
+     * @param proxies 代理
+     * @return 全部预热结束（成功或失败）后完成
+     */
+    public CompletableFuture<Void> warmUp(Collection<?> proxies) {
+        if (!config.isEnabled() || config.getWarmUpUrls().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Object proxy : proxies) {
+            if (!(client(proxy) instanceof PooledHttpClient pooled)) continue;
+            for (String url : config.getWarmUpUrls()) {
+                futures.add(pooled.warmUp(url).exceptionally(e -> {
+                    log.warn("[Transport] warm up proxy[{}] -> {} error, {}", ProxyKeys.of(proxy), url, e.getMessage());
+                    return null;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenRun(() ->
+                log.info("[Transport] warm up [{}] connection, cost {} ms", futures.size(), System.currentTimeMillis() - start));
+    }
+
+    /**
+     * 各代理连接池统计
+     */
+    public String report() {
+        return clientMap.values().stream()
+                .filter(proxyClient -> proxyClient.client() instanceof PooledHttpClient)
+                .map(proxyClient -> {
+                    PooledHttpClient pooled = (PooledHttpClient) proxyClient.client();
+                    return String.format("%s hit=%.2f acquired=%d connects=%d handshakes=%d open=%d",
+                            proxyClient.key(), pooled.hitRatio(), pooled.getAcquired(), pooled.getConnects(),
+                            pooled.getHandshakes(), pooled.connectionCount());
+                })
+                .collect(Collectors.joining("\n", "http pool:\n", ""));
+    }
+
+    /**
+     * 按代理的 proxyProtocol 字段确定类型，未填写按 HTTP 处理
+     *
+     * @return 不认识的协议返回 null
+     */
+    static Proxy.Type proxyType(JSONObject proxy) {
+        String protocol = proxy.getString(PROXY_PROTOCOL);
+        if (StrUtil.isBlank(protocol)) {
+            return Proxy.Type.HTTP;
+        }
+        return switch (protocol.trim().toUpperCase()) {
+            case "HTTP", "HTTPS" -> Proxy.Type.HTTP;
+            case "SOCKS", "SOCKS4", "SOCKS5" -> Proxy.Type.SOCKS;
+            default -> null;
+        };
+    }
+
+    private HubHttpClient createClient(String key, Object proxy) {
+        if (!config.isEnabled()) {
+            return new FrameworkHttpClient(proxy);
+        }
+
+        Proxy javaProxy = Proxy.NO_PROXY;
+        okhttp3.Authenticator authenticator = null;
+        if (proxy != null) {
+            Object json = JSON.toJSON(proxy);
+            if (!(json instanceof JSONObject jb) || StrUtil.isBlank(jb.getString("host")) || jb.getInteger("port") == null) {
+                log.warn("[Transport] unknown proxy[{}] format, use framework client", key);
+                return new FrameworkHttpClient(proxy);
+            }
+            Proxy.Type type = proxyType(jb);
+            if (type == null) {
+                log.warn("[Transport] unknown proxy[{}] protocol [{}], use framework client", key, jb.getString(PROXY_PROTOCOL));
+                return new FrameworkHttpClient(proxy);
+            }
+            boolean socks = type == Proxy.Type.SOCKS;
+            String username = jb.getString("username");
+            String password = jb.getString("password");
+            if (socks && StrUtil.isNotBlank(username)) {
+                // OkHttp 的 SOCKS 认证依赖全局 java.net.Authenticator，交给框架处理
+                return new FrameworkHttpClient(proxy);
+            }
+            javaProxy = new Proxy(
+                    type,
+                    InetSocketAddress.createUnresolved(jb.getString("host"), jb.getInteger("port"))
+            );
+            if (StrUtil.isNotBlank(username)) {
+                String credential = Credentials.basic(username, StrUtil.nullToEmpty(password));
+                authenticator = (route, response) -> response.request().header("Proxy-Authorization") != null
+                        ? null
+                        : response.request().newBuilder().header("Proxy-Authorization", credential).build();
+            }
+        }
+
+        // 每个代理独立的调度器与连接池，共用线程池；maxRequestsPerHost 即单代理到单主机的并发
+        Dispatcher dispatcher = new Dispatcher(baseClient.dispatcher().executorService());
+        dispatcher.setMaxRequests(Math.max(1, config.getMaxRequests()));
+        dispatcher.setMaxRequestsPerHost(Math.max(1, config.getMaxRequestsPerHost()));
+        PooledHttpClient pooled = new PooledHttpClient(
+                baseClient.newBuilder()
+                        .dispatcher(dispatcher)
+                        .connectionPool(new ConnectionPool(
+                                config.getMaxIdleConnections(), config.getKeepAliveSeconds(), TimeUnit.SECONDS
+                        ))
+                        .build(),
+                javaProxy,
+                authenticator
+        );
+        AgentHubMetrics.registry().gauge("agent_hub_http_pool_hit_ratio", pooled::hitRatio, "proxy", key);
+        AgentHubMetrics.registry().gauge("agent_hub_http_pool_handshakes", pooled::getHandshakes, "proxy", key);
+        AgentHubMetrics.registry().gauge("agent_hub_http_pool_connections", pooled::connectionCount, "proxy", key);
+        return pooled;
+    }
+
+    @Override
+    public void close() {
+        clientMap.values().forEach(proxyClient -> {
+            if (proxyClient.client() instanceof PooledHttpClient pooled) {
+                pooled.close();
+            }
+        });
+        baseClient.dispatcher().executorService().shutdown();
+    }
+
+    /**
+     * @param key    日志、指标中使用的代理 key，不含凭证
+     * @param client 客户端
+     */
+    private record ProxyClient(String key, HubHttpClient client) {
+    }
+}
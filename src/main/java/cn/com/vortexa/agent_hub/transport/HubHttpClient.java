@@ -0,0 +1,45 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import cn.com.vortexa.common.constants.HttpMethod;
+import com.alibaba.fastjson.JSONObject;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AgentHubApi 使用的 HTTP 客户端，单个实例绑定一个代理
+ *
+ * @author helei
+ * @since 2025-08-30
+ */
+public interface HubHttpClient {
+
+    /**
+     * 请求并返回响应体，非 2xx 以异常结束。客户端不重试，重试由 AgentHubApi 按端点统一控制
+     */
+    CompletableFuture<String> request(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    );
+
+    /**
+     * 请求并把响应体解析为 JSONObject，非 2xx 以异常结束
+     */
+    CompletableFuture<JSONObject> jsonRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    );
+
+    /**
+     * 请求并把原始响应交给 handler，不检查状态码
+     */
+    CompletableFuture<Void> rawRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body, ResponseHandler handler
+    );
+
+    @FunctionalInterface
+    interface ResponseHandler {
+        void handle(Response response) throws IOException;
+    }
+}
@@ -0,0 +1,204 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import cn.com.vortexa.common.constants.HttpMethod;
+import com.alibaba.fastjson.JSONObject;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 绑定单个代理的 OkHttp 客户端，连接池与调度器独立，统计连接复用情况
+ *
+ * @author helei
+ * @since 2025-08-30
+ */
+public class PooledHttpClient implements HubHttpClient {
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+
+    private final OkHttpClient okHttpClient;
+
+    /**
+     * 取得连接的次数
+     */
+    private final LongAdder acquired = new LongAdder();
+    /**
+     * 新建连接（TCP）次数
+     */
+    private final LongAdder connects = new LongAdder();
+    /**
+     * TLS 握手次数
+     */
+    private final LongAdder handshakes = new LongAdder();
+
+    public PooledHttpClient(OkHttpClient sharedBase, Proxy proxy, okhttp3.Authenticator proxyAuthenticator) {
+        OkHttpClient.Builder builder = sharedBase.newBuilder()
+                .proxy(proxy)
+                .eventListener(new PoolEventListener());
+        if (proxyAuthenticator != null) {
+            builder.proxyAuthenticator(proxyAuthenticator);
+        }
+        this.okHttpClient = builder.build();
+    }
+
+    @Override
+    public CompletableFuture<String> request(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    ) {
+        return execute(buildRequest(url, method, headers, body), response -> {
+            ResponseBody rb = response.body();
+            String text = rb == null ? "" : rb.string();
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code(), text);
+            }
+            return text;
+        });
+    }
+
+    @Override
+    public CompletableFuture<JSONObject> jsonRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body
+    ) {
+        return request(url, method, headers, body).thenApply(JSONObject::parseObject);
+    }
+
+    @Override
+    public CompletableFuture<Void> rawRequest(
+            String url, HttpMethod method, Map<String, String> headers, JSONObject body, ResponseHandler handler
+    ) {
+        return execute(buildRequest(url, method, headers, body), response -> {
+            handler.handle(response);
+            return null;
+        });
+    }
+
+    /**
+     * 预热：建立到目标主机的连接与 TLS 会话，放入连接池
+     */
+    public CompletableFuture<Void> warmUp(String url) {
+        Request request = new Request.Builder().url(url).head().build();
+        return execute(request, response -> null);
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getConnects() {
+        return connects.sum();
+    }
+
+    public long getHandshakes() {
+        return handshakes.sum();
+    }
+
+    /**
+     * 连接池命中率：复用已有连接的比例
+     */
+    public double hitRatio() {
+        long total = acquired.sum();
+        return total == 0 ? 0 : Math.max(0, total - connects.sum()) / (double) total;
+    }
+
+    public int connectionCount() {
+        return okHttpClient.connectionPool().connectionCount();
+    }
+
+    public void close() {
+        okHttpClient.dispatcher().cancelAll();
+        okHttpClient.connectionPool().evictAll();
+    }
+
+    private Request buildRequest(String url, HttpMethod method, Map<String, String> headers, JSONObject body) {
+        Request.Builder builder = new Request.Builder().url(url);
+        ExchangeTimer timer = ExchangeTimer.current();
+        if (timer != null) {
+            builder.tag(ExchangeTimer.class, timer);
+        }
+        if (headers != null) {
+            headers.forEach((k, v) -> {
+                if (v != null) builder.header(k, v);
+            });
+        }
+        String methodName = method.name();
+        RequestBody requestBody = null;
+        if (!"GET".equals(methodName) && !"HEAD".equals(methodName)) {
+            requestBody = RequestBody.create(body == null ? "" : body.toJSONString(), JSON_MEDIA_TYPE);
+        }
+        return builder.method(methodName, requestBody).build();
+    }
+
+    private <T> CompletableFuture<T> execute(Request request, ResponseMapper<T> mapper) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = okHttpClient.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(mapper.map(response));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface ResponseMapper<T> {
+        T map(Response response) throws IOException;
+    }
+
+    private class PoolEventListener extends EventListener {
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connects.increment();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            handshakes.increment();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            acquired.increment();
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            ExchangeTimer timer = call.request().tag(ExchangeTimer.class);
+            if (timer != null) timer.exchangeStart();
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            ExchangeTimer timer = call.request().tag(ExchangeTimer.class);
+            if (timer != null) timer.exchangeEnd();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cn.com.vortexa.agent_hub.util;
+
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 生成代理的分组 key。带认证的代理为 host:port#凭证摘要，同一网关下不同账号的代理互相独立；
+ * 只保留摘要前 8 位，避免把代理账号密码带进日志和指标。{@link #identity} 是完整的代理标识，只用于内存中区分客户端，不能输出
+ *
+ * @author helei
+ * @since 2025-08-19
+ */
+public final class ProxyKeys {
+    public static final String NO_PROXY = "direct";
+
+    /**
+     * 代理对象 -> key，账户的代理对象在运行期间不变，避免每次请求都做一次序列化
+     */
+    private static final Map<Object, ProxyKey> KEY_CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ProxyKeys() {
+    }
+
+    /**
+     * @return 可用于日志、指标的分组 key
+     */
+    public static String of(Object proxy) {
+        return proxy == null ? NO_PROXY : resolve(proxy).key();
+    }
+
+    /**
+     * @return key 中的地址部分，去掉凭证摘要
+     */
+    public static String address(String key) {
+        int index = key.indexOf('#');
+        return index < 0 ? key : key.substring(0, index);
+    }
+
+    /**
+     * @return 包含类型、地址与凭证的完整标识，相同标识的代理可以共用连接与认证信息
+     */
+    public static String identity(Object proxy) {
+        return proxy == null ? NO_PROXY : resolve(proxy).identity();
+    }
+
+    private static ProxyKey resolve(Object proxy) {
+        ProxyKey key = KEY_CACHE.get(proxy);
+        if (key == null) {
+            key = doResolve(proxy);
+            KEY_CACHE.put(proxy, key);
+        }
+        return key;
+    }
+
+    private static ProxyKey doResolve(Object proxy) {
+        Object json = JSON.toJSON(proxy);
+        if (json instanceof JSONObject jb && jb.containsKey("host")) {
+            String identity = JSON.toJSONString(jb, SerializerFeature.MapSortField);
+            String address = jb.getString("host") + ":" + jb.getString("port");
+            String username = jb.getString("username");
+            if (StrUtil.isEmpty(username)) {
+                return new ProxyKey(address, identity);
+            }
+            return new ProxyKey(
+                    address + "#" + credentialDigest(username + ":" + StrUtil.nullToEmpty(jb.getString("password"))),
+                    identity
+            );
+        }
+        return new ProxyKey(Integer.toHexString(proxy.toString().hashCode()), proxy.toString());
+    }
+
+    private static String credentialDigest(String credential) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(credential.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ProxyKey(String key, String identity) {
+    }
+}
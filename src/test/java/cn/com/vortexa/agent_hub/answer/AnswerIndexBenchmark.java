@@ -0,0 +1,151 @@
+package cn.com.vortexa.agent_hub.answer;
+
+
+import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import com.alibaba.fastjson.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比原嵌套 HashMap 与 {@link UuidAnswerIndex} 的加载耗时、查询吞吐与内存占用。
+ * 内存占用看 gc 分析器的 gc.alloc.rate.norm：load* 每次构建分配的字节数近似于结构常驻大小；
+ * lookup* 两者都只有复制查询 id 的分配，差值即查询本身的分配
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnswerIndexBenchmark {
+    private static final int QUESTIONS_PER_QUIZ = 10;
+
+    @Param({"1000", "20000"})
+    private int questionCount;
+
+    private String answerJson;
+    private byte[] snapshot;
+    private Map<String, Map<String, String>> answerMap;
+    private UuidAnswerIndex index;
+    private String[] lookupQuizIds;
+    private String[] lookupQuestionIds;
+    private int cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnswerIndexBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<QuestionAnswer> answers = new ArrayList<>(questionCount);
+        String quizId = null;
+        for (int i = 0; i < questionCount; i++) {
+            if (i % QUESTIONS_PER_QUIZ == 0) {
+                quizId = UUID.randomUUID().toString();
+            }
+            answers.add(new QuestionAnswer(quizId, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+        }
+        answerJson = JSONArray.toJSONString(answers);
+        answerMap = toMap(JSONArray.parseArray(answerJson, QuestionAnswer.class));
+        index = UuidAnswerIndex.build(answerMap);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeSnapshot(new DataOutputStream(bytes));
+        snapshot = bytes.toByteArray();
+
+        // 每 4 次查询里有 1 次未命中
+        lookupQuizIds = new String[questionCount];
+        lookupQuestionIds = new String[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            QuestionAnswer qa = answers.get(i);
+            lookupQuizIds[i] = qa.getQuizId();
+            lookupQuestionIds[i] = i % 4 == 3 ? UUID.randomUUID().toString() : qa.getQuestionId();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Map<String, String>> loadJsonToHashMap() {
+        return toMap(JSONArray.parseArray(answerJson, QuestionAnswer.class));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UuidAnswerIndex loadJsonToIndex() {
+        return UuidAnswerIndex.build(toMap(JSONArray.parseArray(answerJson, QuestionAnswer.class)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UuidAnswerIndex loadSnapshot() throws IOException {
+        return UuidAnswerIndex.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)));
+    }
+
+    /**
+     * 线上查询的 id 来自刚解析的响应，字符串没有缓存的 hashCode，这里每次复制一份模拟
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void lookupHashMap(Blackhole blackhole) {
+        int i = next();
+        Map<String, String> qaMap = answerMap.get(new String(lookupQuizIds[i]));
+        blackhole.consume(qaMap == null ? null : qaMap.get(new String(lookupQuestionIds[i])));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void lookupIndex(Blackhole blackhole) {
+        int i = next();
+        blackhole.consume(index.get(new String(lookupQuizIds[i]), new String(lookupQuestionIds[i])));
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == questionCount ? 0 : i + 1;
+        return i;
+    }
+
+    private static Map<String, Map<String, String>> toMap(List<QuestionAnswer> answers) {
+        Map<String, Map<String, String>> map = new HashMap<>();
+        for (QuestionAnswer qa : answers) {
+            map.computeIfAbsent(qa.getQuizId(), k -> new HashMap<>()).put(qa.getQuestionId(), qa.getAnswerId());
+        }
+        return map;
+    }
+}
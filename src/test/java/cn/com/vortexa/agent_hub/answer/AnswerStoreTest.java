@@ -0,0 +1,107 @@
+package cn.com.vortexa.agent_hub.answer;
+
+
+import cn.com.vortexa.agent_hub.dto.QuestionAnswer;
+import com.alibaba.fastjson.JSONArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class AnswerStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexSnapshotRoundTrip() throws IOException {
+        String quizId = uuid(), questionId = uuid(), answerId = uuid();
+        UuidAnswerIndex index = UuidAnswerIndex.build(Map.of(
+                quizId, Map.of(questionId, answerId),
+                "quiz-1", Map.of("question-1", "answer-1")
+        ));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeSnapshot(new DataOutputStream(bytes));
+        UuidAnswerIndex loaded = UuidAnswerIndex.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, loaded.size());
+        assertEquals(answerId, loaded.get(quizId, questionId));
+        assertEquals("answer-1", loaded.get("quiz-1", "question-1"));
+        assertNull(loaded.get(quizId, uuid()));
+    }
+
+    @Test
+    void learnedAnswersSurviveReload() throws IOException {
+        String quizId = uuid(), questionId = uuid(), answerId = uuid();
+        Files.writeString(dir.resolve(AnswerStore.ANSWER_FILE_NAME),
+                JSONArray.toJSONString(List.of(new QuestionAnswer(quizId, questionId, answerId))), StandardCharsets.UTF_8);
+
+        String learnedQuestionId = uuid(), learnedAnswerId = uuid();
+        try (AnswerStore store = new AnswerStore(dir)) {
+            assertEquals(answerId, store.getAnswer(quizId, questionId));
+            store.recordCorrect(quizId, learnedQuestionId, learnedAnswerId);
+        }
+        try (AnswerStore store = new AnswerStore(dir)) {
+            assertEquals(answerId, store.getAnswer(quizId, questionId));
+            assertEquals(learnedAnswerId, store.getAnswer(quizId, learnedQuestionId));
+        }
+    }
+
+    @Test
+    void answersLearnedDuringFlushAreKept() throws IOException {
+        String quizId = uuid();
+        List<String> questionIds = IntStream.range(0, 2000).mapToObj(i -> uuid()).toList();
+        List<String> firstAnswers = questionIds.stream().map(q -> uuid()).toList();
+        List<String> secondAnswers = questionIds.stream().map(q -> uuid()).toList();
+
+        try (AnswerStore store = new AnswerStore(dir)) {
+            for (int i = 0; i < questionIds.size(); i++) {
+                store.recordCorrect(quizId, questionIds.get(i), firstAnswers.get(i));
+            }
+            // flush 与新的答案并发，新答案不能被 flush 从 overlay 中移除
+            AtomicBoolean done = new AtomicBoolean();
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < questionIds.size(); i++) {
+                    store.recordCorrect(quizId, questionIds.get(i), secondAnswers.get(i));
+                }
+                done.set(true);
+            });
+            while (!done.get()) {
+                store.flush();
+            }
+            writer.join();
+            for (int i = 0; i < questionIds.size(); i++) {
+                assertEquals(secondAnswers.get(i), store.getAnswer(quizId, questionIds.get(i)));
+            }
+            store.flush();
+            for (int i = 0; i < questionIds.size(); i++) {
+                assertEquals(secondAnswers.get(i), store.getAnswer(quizId, questionIds.get(i)));
+            }
+        }
+    }
+
+    private static String uuid() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,74 @@
+package cn.com.vortexa.agent_hub.checkin;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 签到失败的账户按指数退避重试，不归属本节点的账户不交给签到逻辑
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class CheckInSchedulerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retryDelayBacksOffUpToFallbackInterval() {
+        AgentHubConfig.CheckIn config = config();
+        config.setRetryDelaySeconds(600);
+        try (CheckInScheduler scheduler = new CheckInScheduler(config,
+                new CheckInScheduleStore(dir.resolve("check-in.json")), accounts -> {
+        })) {
+            assertEquals(TimeUnit.MINUTES.toMillis(10), scheduler.retryDelayMillis(1));
+            assertEquals(TimeUnit.MINUTES.toMillis(20), scheduler.retryDelayMillis(2));
+            assertEquals(TimeUnit.MINUTES.toMillis(80), scheduler.retryDelayMillis(4));
+            assertEquals(TimeUnit.HOURS.toMillis(24), scheduler.retryDelayMillis(10));
+            assertEquals(TimeUnit.HOURS.toMillis(24), scheduler.retryDelayMillis(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void notOwnedAccountIsNotCheckedIn() throws InterruptedException {
+        Queue<Object> checked = new ConcurrentLinkedQueue<>();
+        try (CheckInScheduler scheduler = new CheckInScheduler(config(),
+                new CheckInScheduleStore(dir.resolve("check-in.json")),
+                accounts -> accounts.forEach(account -> checked.add(account.getId())),
+                accounts -> accounts.stream().filter(account -> !account.getId().equals(2)).toList())) {
+            scheduler.start(List.of(account(1), account(2)));
+            TimeUnit.MILLISECONDS.sleep(3500);
+        }
+
+        assertTrue(checked.contains(1));
+        assertFalse(checked.contains(2));
+    }
+
+    private static FullAccountContext account(int id) {
+        FullAccountContext account = new FullAccountContext();
+        account.setId(id);
+        return account;
+    }
+
+    private static AgentHubConfig.CheckIn config() {
+        AgentHubConfig.CheckIn config = new AgentHubConfig.CheckIn();
+        config.setTickSeconds(1);
+        config.setWheelSize(60);
+        config.setRetryDelaySeconds(1);
+        config.setInitialSpreadMinutes(0);
+        return config;
+    }
+}
@@ -0,0 +1,77 @@
+package cn.com.vortexa.agent_hub.event;
+
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class RunEventAggregatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void overlappingRunsAggregateOwnEvents() {
+        Map<String, RunSummary> finished = new HashMap<>();
+        RunEventAggregator aggregator = new RunEventAggregator(summary -> finished.put(summary.getRunId(), summary));
+
+        aggregator.accept(marker(RunEvent.Type.RUN_START, "check-in#1"));
+        aggregator.accept(marker(RunEvent.Type.RUN_START, "qa#2"));
+        aggregator.accept(event("check-in#1", RunEvent.Type.CHECK_IN, "a1"));
+        aggregator.accept(event("qa#2", RunEvent.Type.QUESTION, "a2"));
+        aggregator.accept(event("qa#2", RunEvent.Type.QUESTION, "a3"));
+        // 不属于任何运行的事件不计入汇总
+        aggregator.accept(event(null, RunEvent.Type.CHECK_IN, "a4"));
+        aggregator.accept(marker(RunEvent.Type.RUN_END, "check-in#1"));
+        aggregator.accept(marker(RunEvent.Type.RUN_END, "qa#2"));
+
+        RunSummary checkIn = finished.get("check-in#1");
+        assertEquals(1, checkIn.getAccounts().size());
+        assertEquals(1, checkIn.getTypeStats().size());
+        assertEquals(1, checkIn.getTypeStats().get(RunEvent.Type.CHECK_IN).getOutcomes().get(RunEvent.Outcome.SUCCESS)[0]);
+
+        RunSummary qa = finished.get("qa#2");
+        assertEquals(2, qa.getAccounts().size());
+        assertEquals(1, qa.getTypeStats().size());
+        assertEquals(2, qa.getTypeStats().get(RunEvent.Type.QUESTION).getOutcomes().get(RunEvent.Outcome.SUCCESS)[0]);
+    }
+
+    @Test
+    void writerRotatesByEncodedBytes() {
+        Path eventFile = dir.resolve("events.jsonl");
+        long maxFileBytes = 4096;
+        RunEventRing ring = new RunEventRing(64);
+        RunEventWriter writer = new RunEventWriter(ring, new RunEventAggregator(summary -> {
+        }), eventFile, 1, maxFileBytes);
+        writer.start();
+
+        // 每条约 250 个字符、650 字节，按字符计不会超过上限
+        String detail = "代理连接超时".repeat(35);
+        for (int i = 0; i < 10; i++) {
+            ring.offer(new RunEvent(System.currentTimeMillis(), "qa#1", RunEvent.Type.QUESTION, "a" + i, "q" + i,
+                    RunEvent.Outcome.FAILED, 1_000_000, detail));
+        }
+        writer.close();
+
+        assertTrue(Files.exists(eventFile.resolveSibling("events.jsonl.1")));
+    }
+
+    private static RunEvent marker(RunEvent.Type type, String runId) {
+        return new RunEvent(System.currentTimeMillis(), runId, type, null, null, null, 0, null);
+    }
+
+    private static RunEvent event(String runId, RunEvent.Type type, String accountId) {
+        return new RunEvent(System.currentTimeMillis(), runId, type, accountId, null, RunEvent.Outcome.SUCCESS, 1_000_000, null);
+    }
+}
@@ -0,0 +1,168 @@
+package cn.com.vortexa.agent_hub.executor;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.proxy.ProxyHealthTracker;
+import cn.com.vortexa.agent_hub.resilience.ResilientCaller;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地 HTTP 替身按固定延迟响应，对比串行与并发执行的耗时，并校验全局、单代理并发数与令牌桶限速
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class AccountTaskExecutorTest {
+    private static final long LATENCY_MILLIS = 50;
+    private static final int ACCOUNT_COUNT = 24;
+    private static final int PROXY_COUNT = 4;
+    private static final int REQUESTS_PER_ACCOUNT = 2;
+
+    private HttpServer server;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Map<String, AtomicInteger> proxyInFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> proxyMaxInFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            String proxy = exchange.getRequestHeaders().getFirst("X-Proxy");
+            AtomicInteger proxyCount = proxyInFlight.computeIfAbsent(proxy, k -> new AtomicInteger());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            proxyMaxInFlight.computeIfAbsent(proxy, k -> new AtomicInteger())
+                    .accumulateAndGet(proxyCount.incrementAndGet(), Math::max);
+            requestCount.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(LATENCY_MILLIS);
+                exchange.sendResponseHeaders(200, 2);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write("ok".getBytes());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                proxyCount.decrementAndGet();
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void parallelRunIsFasterThanSerial() {
+        AgentHubConfig.Executor serialConfig = executorConfig(false, 64, 64, 0, 0);
+        long serialMillis = timeRun(serialConfig);
+
+        AgentHubConfig.Executor parallelConfig = executorConfig(true, 64, 64, 0, 0);
+        long parallelMillis = timeRun(parallelConfig);
+
+        assertEquals(ACCOUNT_COUNT * REQUESTS_PER_ACCOUNT * 2, requestCount.get());
+        assertTrue(serialMillis >= ACCOUNT_COUNT * REQUESTS_PER_ACCOUNT * LATENCY_MILLIS, "serial cost " + serialMillis);
+        // 理想情况下并发耗时接近单个账户的耗时，留出充足余量
+        assertTrue(parallelMillis * 5 < serialMillis, "serial " + serialMillis + " ms, parallel " + parallelMillis + " ms");
+    }
+
+    @Test
+    void parallelRunRespectsConcurrencyLimits() {
+        timeRun(executorConfig(true, 6, 2, 0, 0));
+
+        assertTrue(maxInFlight.get() <= 6, "max in flight " + maxInFlight.get());
+        proxyMaxInFlight.forEach((proxy, max) -> assertTrue(max.get() <= 2, "proxy " + proxy + " max in flight " + max.get()));
+        assertEquals(PROXY_COUNT, proxyMaxInFlight.size());
+    }
+
+    @Test
+    void parallelRunRespectsGlobalRate() {
+        // 令牌桶容量等于每秒速率，首批请求可以突发，其余按速率放行
+        double rate = 20;
+        long costMillis = timeRun(executorConfig(true, 64, 64, rate, 0));
+
+        long expectedMillis = (long) ((ACCOUNT_COUNT * REQUESTS_PER_ACCOUNT - rate) / rate * 1000);
+        assertTrue(costMillis >= expectedMillis * 0.9, "cost " + costMillis + " ms, expected >= " + expectedMillis);
+    }
+
+    private long timeRun(AgentHubConfig.Executor config) {
+        AccountTaskExecutor executor = new AccountTaskExecutor(
+                config, new ResilientCaller(new AgentHubConfig.Resilience()), new ProxyHealthTracker(new AgentHubConfig.ProxyHealth())
+        );
+        long start = System.nanoTime();
+        executor.runAll("test", accounts(), requestTask(executor));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private Consumer<FullAccountContext> requestTask(AccountTaskExecutor executor) {
+        return account -> {
+            @SuppressWarnings("unchecked")
+            String proxy = ((Map<String, Object>) account.getProxy()).get("host") + "";
+            for (int i = 0; i < REQUESTS_PER_ACCOUNT; i++) {
+                try {
+                    executor.pace(account);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/"))
+                            .header("X-Proxy", proxy).build();
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        };
+    }
+
+    private static List<FullAccountContext> accounts() {
+        List<FullAccountContext> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            FullAccountContext account = new FullAccountContext();
+            account.setId(i);
+            account.setProxy(Map.of("host", "10.0.0." + (i % PROXY_COUNT), "port", 8080));
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private static AgentHubConfig.Executor executorConfig(
+            boolean parallel, int globalConcurrency, int perProxyConcurrency, double globalRate, double perProxyRate
+    ) {
+        AgentHubConfig.Executor config = new AgentHubConfig.Executor();
+        config.setParallel(parallel);
+        config.setGlobalConcurrency(globalConcurrency);
+        config.setPerProxyConcurrency(perProxyConcurrency);
+        config.setGlobalRatePerSecond(globalRate);
+        config.setPerProxyRatePerSecond(perProxyRate);
+        return config;
+    }
+}
@@ -0,0 +1,113 @@
+package cn.com.vortexa.agent_hub.journal;
+
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class ProgressJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reloadSkipsDone() {
+        Path path = dir.resolve(ProgressJournal.DEFAULT_FILE_NAME);
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            journal.markDone(1, ProgressJournal.Kind.VIEW_TASK, "task-1");
+            journal.markDone(1, ProgressJournal.Kind.QUESTION, "quiz-1/question-1");
+            journal.markDone(2, ProgressJournal.Kind.CHECK_IN, ProgressJournal.today());
+        }
+
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            assertTrue(journal.isDone(1, ProgressJournal.Kind.VIEW_TASK, "task-1"));
+            assertTrue(journal.isDone(1, ProgressJournal.Kind.QUESTION, "quiz-1/question-1"));
+            assertTrue(journal.isDone(2, ProgressJournal.Kind.CHECK_IN, ProgressJournal.today()));
+            assertFalse(journal.isDone(1, ProgressJournal.Kind.VIEW_TASK, "task-2"));
+            assertFalse(journal.isDone(2, ProgressJournal.Kind.VIEW_TASK, "task-1"));
+        }
+    }
+
+    @Test
+    void onlyTodayCheckInIsKept() throws IOException {
+        Path path = dir.resolve(ProgressJournal.DEFAULT_FILE_NAME);
+        String yesterday = LocalDate.now().minusDays(1).toString();
+        Files.writeString(path, "1\tCHECK_IN\t" + yesterday + "\n"
+                + "2\tCHECK_IN\t" + ProgressJournal.today() + "\n", StandardCharsets.UTF_8);
+
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            assertFalse(journal.isDone(1, ProgressJournal.Kind.CHECK_IN, yesterday));
+            assertFalse(journal.isDone(1, ProgressJournal.Kind.CHECK_IN, ProgressJournal.today()));
+            assertTrue(journal.isDone(2, ProgressJournal.Kind.CHECK_IN, ProgressJournal.today()));
+        }
+        // 过期的签到在压缩时去掉
+        assertEquals(List.of("2\tCHECK_IN\t" + ProgressJournal.today()), Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void tornLastLineIsIgnoredAndNotMergedWithNextRecord() throws IOException {
+        Path path = dir.resolve(ProgressJournal.DEFAULT_FILE_NAME);
+        Files.writeString(path, "1\tVIEW_TASK\ttask-1\n2\tVIEW_T", StandardCharsets.UTF_8);
+
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            assertTrue(journal.isDone(1, ProgressJournal.Kind.VIEW_TASK, "task-1"));
+            assertFalse(journal.isDone(2, ProgressJournal.Kind.VIEW_TASK, "task-1"));
+            journal.markDone(3, ProgressJournal.Kind.VIEW_TASK, "task-3");
+        }
+
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            assertTrue(journal.isDone(1, ProgressJournal.Kind.VIEW_TASK, "task-1"));
+            assertTrue(journal.isDone(3, ProgressJournal.Kind.VIEW_TASK, "task-3"));
+        }
+    }
+
+    @Test
+    void compactRemovesDuplicateLines() throws IOException {
+        Path path = dir.resolve(ProgressJournal.DEFAULT_FILE_NAME);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("1\tVIEW_TASK\ttask-").append(i % 10).append('\n');
+        }
+        Files.writeString(path, sb.toString(), StandardCharsets.UTF_8);
+
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            assertEquals(10, Files.readAllLines(path, StandardCharsets.UTF_8).size());
+            journal.markDone(1, ProgressJournal.Kind.VIEW_TASK, "task-10");
+        }
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(11, lines.size());
+        assertEquals(11, lines.stream().distinct().count());
+    }
+
+    @Test
+    void failedFlushIsRetried() throws IOException {
+        Path path = dir.resolve(ProgressJournal.DEFAULT_FILE_NAME);
+        try (ProgressJournal journal = new ProgressJournal(path)) {
+            // 日志路径被目录占用，写入失败
+            Files.deleteIfExists(path);
+            Files.createDirectory(path);
+            journal.markDone(1, ProgressJournal.Kind.VIEW_TASK, "task-1");
+            journal.flush();
+
+            Files.delete(path);
+            journal.flush();
+        }
+
+        assertEquals(List.of("1\tVIEW_TASK\ttask-1"), Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,42 @@
+package cn.com.vortexa.agent_hub.loadtest;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 替身接口的延迟与错误注入：延迟在 [base, base + jitter] 内均匀分布，
+ * 另有 slowRatio 比例的请求额外增加 slowExtra 模拟长尾
+ *
+ * @author helei
+ * @since 2025-08-31
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LatencyProfile {
+    private long baseMillis = 20;
+    private long jitterMillis = 30;
+    private double slowRatio = 0.01;
+    private long slowExtraMillis = 500;
+    /**
+     * 返回 503 的比例
+     */
+    private double errorRate = 0.01;
+
+    public long nextDelayMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = baseMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        if (slowRatio > 0 && random.nextDouble() < slowRatio) {
+            delay += slowExtraMillis;
+        }
+        return delay;
+    }
+
+    public boolean nextIsError() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
@@ -0,0 +1,212 @@
+package cn.com.vortexa.agent_hub.loadtest;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import cn.com.vortexa.agent_hub.AgentHubRunner;
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.metrics.InMemoryMetricsRegistry;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 离线压测：在进程内启动 AgentHub/Privy 接口替身与 IMAP 服务器，构造大量虚拟账户，
+ * 通过 {@link AgentHubRunner} 执行与线上相同的任务流程，输出账户吞吐、接口延迟分位数与堆内存。
+ * <p>
+ * 参数通过系统属性传入，例如
+ * {@code -Dloadtest.accounts=10000 -Dloadtest.error-rate=0.02 -Dloadtest.stages=check-in,view,qa}，
+ * stages 也可以是 workflow（一次登录执行全部阶段）；{@code -Dloadtest.capacity=200} 模拟服务端限流，用于观察自适应并发上限。
+ * 位于测试源码中，通过 {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=...LoadTestHarness} 运行
+ *
+ * @author helei
+ * @since 2025-08-31
+ */
+@Slf4j
+public class LoadTestHarness {
+    private static final String PREFIX = "loadtest.";
+    private static final String INBOX_USERNAME = "inbox@loadtest.local";
+    private static final String INBOX_PASSWORD = "loadtest";
+
+    private final int accountCount = intProp("accounts", 10000);
+    private final int concurrency = intProp("concurrency", 512);
+    private final List<String> stages = Arrays.asList(prop("stages", "check-in,view,qa").split(","));
+    private final LatencyProfile latencyProfile = new LatencyProfile(
+            longProp("base-latency-ms", 20), longProp("jitter-ms", 30),
+            doubleProp("slow-ratio", 0.01), longProp("slow-extra-ms", 500), doubleProp("error-rate", 0.01)
+    );
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestHarness().run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        // 会话、答案库、进度等文件都写到工作目录，压测使用独立的临时目录，需在读取配置之前设置
+        Path workDir = Files.createTempDirectory("agent-hub-loadtest");
+        System.setProperty(AgentHubConfig.WORK_DIR_PROPERTY, workDir.toString());
+        log.info("[Load Test] work dir {}", workDir);
+
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "loadtest-heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heapSampler.scheduleAtFixedRate(
+                () -> peakHeapUsed.accumulateAndGet(memoryMXBean.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 200, TimeUnit.MILLISECONDS
+        );
+
+        try (MockMailServer mailServer = new MockMailServer(INBOX_USERNAME, INBOX_PASSWORD);
+             MockAgentHubServer hubServer = new MockAgentHubServer(
+                     latencyProfile, mailServer, intProp("quizzes", 5), intProp("questions", 5), intProp("view-tasks", 3)
+             )) {
+            hubServer.setCapacity(intProp("capacity", 0));
+            mailServer.start();
+            hubServer.start();
+            configure(hubServer, mailServer);
+
+            try (AgentHubRunner runner = new AgentHubRunner()) {
+                List<FullAccountContext> accounts = new ArrayList<>(accountCount);
+                for (int i = 0; i < accountCount; i++) {
+                    accounts.add(newAccount(i));
+                }
+                log.info("[Load Test] {} synthetic account ready, heap used {} MB", accountCount, heapUsedMb());
+
+                Map<String, Long> stageCost = new LinkedHashMap<>();
+                for (String stage : stages) {
+                    Consumer<List<FullAccountContext>> task = switch (stage.trim()) {
+                        case "check-in" -> runner::dailyCheckIn;
+                        case "view" -> runner::completeLearnAndEarnViewTask;
+                        case "qa" -> runner::completeLearnAndEarnQATask;
+                        case "workflow" -> runner::runWorkflow;
+                        default -> throw new IllegalArgumentException("unknown stage " + stage);
+                    };
+                    long start = System.currentTimeMillis();
+                    task.accept(accounts);
+                    stageCost.put(stage.trim(), System.currentTimeMillis() - start);
+                }
+
+                log.info("[Load Test] report\n{}", report(stageCost, hubServer, mailServer));
+                log.info("[Load Test] concurrency {}", runner.getAgentHubApi().concurrencyReport());
+            }
+        } finally {
+            heapSampler.shutdownNow();
+        }
+    }
+
+    /**
+     * 指向替身服务并放开按代理的限制：虚拟账户都不走代理，会被视为同一个代理
+     */
+    private void configure(MockAgentHubServer hubServer, MockMailServer mailServer) {
+        AgentHubConfig config = AgentHubConfig.get();
+        config.getEndpoint().setHubBaseUrl(hubServer.hubBaseUrl());
+        config.getEndpoint().setPrivyBaseUrl(hubServer.privyBaseUrl());
+
+        config.getMail().setImapHost("127.0.0.1");
+        config.getMail().setImapPort(mailServer.getPort());
+        config.getMail().setImapSsl(false);
+
+        AgentHubConfig.Executor executor = config.getExecutor();
+        executor.setParallel(true);
+        executor.setGlobalConcurrency(concurrency);
+        executor.setPerProxyConcurrency(concurrency);
+        executor.setGlobalRatePerSecond(doubleProp("rate-per-second", 0));
+        executor.setPerProxyRatePerSecond(0);
+
+        config.getLogin().setBatchSize(intProp("login-batch-size", 256));
+        config.getProxyHealth().setProbeIdleSeconds(0);
+        config.getProxyHealth().setProbeUrl(hubServer.hubBaseUrl());
+
+        AgentHubConfig.Transport transport = config.getTransport();
+        transport.setMaxRequests(concurrency);
+        transport.setMaxRequestsPerHost(concurrency);
+        transport.setMaxIdleConnections(concurrency);
+        transport.setWarmUpUrls(new ArrayList<>(List.of(hubServer.hubBaseUrl())));
+    }
+
+    /**
+     * 构造虚拟账户，字段按名称映射，验证码统一投递到共用收件箱
+     */
+    private static FullAccountContext newAccount(int index) {
+        JSONObject json = new JSONObject();
+        json.put("id", index + 1);
+        json.put("account", "user" + index + "@loadtest.local");
+        json.put("params", new HashMap<>());
+        FullAccountContext fullAccountContext = json.toJavaObject(FullAccountContext.class);
+        fullAccountContext.putParam(AgentHubApi.IMAP_USERNAME, INBOX_USERNAME);
+        fullAccountContext.putParam(AgentHubApi.IMAP_PASSWORD, INBOX_PASSWORD);
+        return fullAccountContext;
+    }
+
+    private String report(Map<String, Long> stageCost, MockAgentHubServer hubServer, MockMailServer mailServer) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("accounts=%d concurrency=%d latency=%s%n", accountCount, concurrency, latencyProfile));
+        stageCost.forEach((stage, cost) -> sb.append(String.format(
+                "stage %-9s cost %7d ms, %9.1f accounts/min%n",
+                stage, cost, cost == 0 ? 0 : accountCount * 60_000d / cost
+        )));
+        sb.append(String.format("mock requests=%d injected errors=%d throttled=%d mails delivered=%d%n",
+                hubServer.getRequests().sum(), hubServer.getInjectedErrors().sum(), hubServer.getThrottled().sum(),
+                mailServer.getDelivered().sum()));
+
+        if (AgentHubMetrics.registry() instanceof InMemoryMetricsRegistry registry) {
+            Map<String, InMemoryMetricsRegistry.TimerImpl> timers = new TreeMap<>();
+            registry.getTimers().forEach((id, timer) -> {
+                if (AgentHubMetrics.REQUEST_SECONDS.equals(id.name()) || AgentHubMetrics.LOGIN_PHASE_SECONDS.equals(id.name())) {
+                    timers.put(id.name() + Arrays.toString(id.tags()), timer);
+                }
+            });
+            timers.forEach((name, timer) -> sb.append(String.format(
+                    "%-80s count=%7d p50=%6d p90=%6d p99=%6d max=%6d ms%n",
+                    name, timer.count(), timer.percentileMillis(0.5), timer.percentileMillis(0.9),
+                    timer.percentileMillis(0.99), TimeUnit.NANOSECONDS.toMillis(timer.maxNanos())
+            )));
+        }
+
+        sb.append(String.format("heap used=%d MB peak=%d MB committed=%d MB max=%d MB",
+                heapUsedMb(), peakHeapUsed.get() >> 20,
+                memoryMXBean.getHeapMemoryUsage().getCommitted() >> 20, memoryMXBean.getHeapMemoryUsage().getMax() >> 20));
+        return sb.toString();
+    }
+
+    private long heapUsedMb() {
+        return memoryMXBean.getHeapMemoryUsage().getUsed() >> 20;
+    }
+
+    private static String prop(String key, String defaultValue) {
+        return System.getProperty(PREFIX + key, defaultValue);
+    }
+
+    private static int intProp(String key, int defaultValue) {
+        return Integer.parseInt(prop(key, String.valueOf(defaultValue)));
+    }
+
+    private static long longProp(String key, long defaultValue) {
+        return Long.parseLong(prop(key, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleProp(String key, double defaultValue) {
+        return Double.parseDouble(prop(key, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,285 @@
+package cn.com.vortexa.agent_hub.loadtest;
+
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的 AgentHub + Privy 接口替身，按 {@link LatencyProfile} 注入延迟与 503 错误，在途请求超过 capacity 时返回 429；
+ * passwordless/init 生成验证码并通过 {@link MockMailServer} 投递到 IMAP 收件箱
+ *
+ * @author helei
+ * @since 2025-08-31
+ */
+@Slf4j
+public class MockAgentHubServer implements AutoCloseable {
+    public static final String HUB_PATH = "/hub";
+    public static final String PRIVY_PATH = "/privy";
+    private static final String COOKIE_NAME = "privy-token";
+
+    private final HttpServer server;
+    private final LatencyProfile latencyProfile;
+    private final MockMailServer mailServer;
+    private final int quizCount;
+    private final int questionsPerQuiz;
+    private final int viewTaskCount;
+
+    /**
+     * email -> 最近一次下发的验证码
+     */
+    private final Map<String, String> pendingCodes = new ConcurrentHashMap<>();
+    /**
+     * 会话 token -> email
+     */
+    private final Map<String, String> sessions = new ConcurrentHashMap<>();
+    /**
+     * quizId/questionId -> 正确答案，固定为第二个选项，首次作答（第一个选项）必然答错，覆盖答案回填逻辑
+     */
+    private final Map<String, String> correctAnswers = new HashMap<>();
+
+    @Getter
+    private final LongAdder requests = new LongAdder();
+    @Getter
+    private final LongAdder injectedErrors = new LongAdder();
+    @Getter
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * 同时处理的请求上限，模拟服务端限流，<=0 不限
+     */
+    @Setter
+    private volatile int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public MockAgentHubServer(
+            LatencyProfile latencyProfile, MockMailServer mailServer, int quizCount, int questionsPerQuiz, int viewTaskCount
+    ) throws IOException {
+        this.latencyProfile = latencyProfile;
+        this.mailServer = mailServer;
+        this.quizCount = quizCount;
+        this.questionsPerQuiz = questionsPerQuiz;
+        this.viewTaskCount = viewTaskCount;
+        for (int quiz = 0; quiz < quizCount; quiz++) {
+            for (int question = 0; question < questionsPerQuiz; question++) {
+                correctAnswers.put(quizId(quiz) + "/" + questionId(quiz, question), answerId(quiz, question, 1));
+            }
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext(PRIVY_PATH + "/passwordless/init", exchange -> handle(exchange, false, this::privyInit));
+        this.server.createContext(PRIVY_PATH + "/passwordless/authenticate", this::privyAuthenticate);
+        this.server.createContext(HUB_PATH + "/tasks/my", exchange -> handle(exchange, true, this::tasksMy));
+        this.server.createContext(HUB_PATH + "/tasks/start/", exchange -> handle(exchange, true, this::ok));
+        this.server.createContext(HUB_PATH + "/learn-earn", exchange -> handle(exchange, true, this::learnEarn));
+        this.server.createContext(HUB_PATH + "/learn-earn/start-quiz/", exchange -> handle(exchange, true, this::ok));
+        this.server.createContext(HUB_PATH + "/learn-earn/check-question", exchange -> handle(exchange, true, this::checkQuestion));
+        this.server.createContext(HUB_PATH + "/daily-rewards/claim", exchange -> handle(exchange, true, this::ok));
+        this.server.createContext(HUB_PATH, exchange -> handle(exchange, false, e -> "{}"));
+    }
+
+    public void start() {
+        server.start();
+        log.info("[Load Test] mock agent hub listen on {}", baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String hubBaseUrl() {
+        return baseUrl() + HUB_PATH;
+    }
+
+    public String privyBaseUrl() {
+        return baseUrl() + PRIVY_PATH;
+    }
+
+    /**
+     * id 按序号固定生成，便于多次运行复用答案库
+     */
+    private static String quizId(int quiz) {
+        return uuid("quiz-" + quiz);
+    }
+
+    private static String questionId(int quiz, int question) {
+        return uuid("question-" + quiz + "-" + question);
+    }
+
+    private static String answerId(int quiz, int question, int answer) {
+        return uuid("answer-" + quiz + "-" + question + "-" + answer);
+    }
+
+    private static String uuid(String seed) {
+        return UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private String privyInit(HttpExchange exchange) throws IOException {
+        String email = JSONObject.parseObject(readBody(exchange)).getString("email");
+        String code = String.format("%06d", ThreadLocalRandom.current().nextInt(1_000_000));
+        pendingCodes.put(email.toLowerCase(), code);
+        mailServer.deliverCode(email, code);
+        return "{\"success\":true}";
+    }
+
+    /**
+     * authenticate 消耗验证码，不注入错误，只注入延迟
+     */
+    private void privyAuthenticate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            sleep(latencyProfile.nextDelayMillis());
+            JSONObject body = JSONObject.parseObject(readBody(exchange));
+            String email = body.getString("email").toLowerCase();
+            String code = pendingCodes.get(email);
+            if (code == null || !code.equals(body.getString("code"))) {
+                write(exchange, 400, "{\"error\":\"Invalid code\"}");
+                return;
+            }
+            pendingCodes.remove(email);
+            String token = UUID.randomUUID().toString();
+            sessions.put(token, email);
+            exchange.getResponseHeaders().add("Set-Cookie", COOKIE_NAME + "=" + token + "; Max-Age=3600; Path=/");
+            write(exchange, 200, "{\"user\":{\"email\":\"" + email + "\"}}");
+        }
+    }
+
+    private String tasksMy(HttpExchange exchange) {
+        JSONArray available = new JSONArray();
+        for (int i = 0; i < viewTaskCount; i++) {
+            JSONObject task = new JSONObject();
+            task.put("id", uuid("task-" + i));
+            task.put("type", "LEARN_EARN");
+            task.put("taskStatus", "ACTIVE");
+            available.add(task);
+        }
+        JSONObject result = new JSONObject();
+        result.put("available", available);
+        return result.toJSONString();
+    }
+
+    private String learnEarn(HttpExchange exchange) {
+        JSONArray quizzes = new JSONArray();
+        for (int quiz = 0; quiz < quizCount; quiz++) {
+            JSONArray questions = new JSONArray();
+            for (int question = 0; question < questionsPerQuiz; question++) {
+                JSONArray answers = new JSONArray();
+                for (int answer = 0; answer < 4; answer++) {
+                    answers.add(new JSONObject(Map.of("id", answerId(quiz, question, answer))));
+                }
+                questions.add(new JSONObject(Map.of("id", questionId(quiz, question), "answers", answers)));
+            }
+            quizzes.add(new JSONObject(Map.of("id", quizId(quiz), "questions", questions)));
+        }
+        return quizzes.toJSONString();
+    }
+
+    private String checkQuestion(HttpExchange exchange) throws IOException {
+        JSONObject body = JSONObject.parseObject(readBody(exchange));
+        String correct = correctAnswers.get(body.getString("quizId") + "/" + body.getString("questionId"));
+        JSONObject result = new JSONObject();
+        result.put("correctAnswer", correct);
+        return result.toJSONString();
+    }
+
+    private String ok(HttpExchange exchange) {
+        return "{\"success\":true}";
+    }
+
+    private void handle(HttpExchange exchange, boolean requireSession, Handler handler) throws IOException {
+        try (exchange) {
+            requests.increment();
+            if (capacity > 0 && inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                throttled.increment();
+                write(exchange, 429, "{\"error\":\"Too Many Requests\"}");
+                return;
+            }
+            try {
+                sleep(latencyProfile.nextDelayMillis());
+                if (latencyProfile.nextIsError()) {
+                    injectedErrors.increment();
+                    write(exchange, 503, "{\"error\":\"Service Unavailable\"}");
+                    return;
+                }
+                if (requireSession && !hasSession(exchange)) {
+                    write(exchange, 401, "{\"error\":\"Unauthorized\"}");
+                    return;
+                }
+                write(exchange, 200, handler.handle(exchange));
+            } finally {
+                if (capacity > 0) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("[Load Test] mock handle {} error, {}", exchange.getRequestURI(), e.getMessage());
+        }
+    }
+
+    private boolean hasSession(HttpExchange exchange) {
+        String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+        if (cookie == null) return false;
+        for (String pair : cookie.split(";")) {
+            String[] kv = pair.trim().split("=", 2);
+            if (kv.length == 2 && COOKIE_NAME.equals(kv[0]) && sessions.containsKey(kv[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void write(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        String handle(HttpExchange exchange) throws IOException;
+    }
+}
@@ -0,0 +1,103 @@
+package cn.com.vortexa.agent_hub.loadtest;
+
+
+import cn.com.vortexa.agent_hub.AgentHubApi;
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 GreenMail 的进程内 IMAP 服务器，所有账户的验证码投递到同一个共用收件箱（catch-all），
+ * 通过 Delivered-To 区分收件人，与线上共用收件箱的场景一致，也避免上万个账户各开一条 IMAP 连接
+ *
+ * @author helei
+ * @since 2025-08-31
+ */
+@Slf4j
+public class MockMailServer implements AutoCloseable {
+    @Getter
+    private final String inboxUsername;
+    @Getter
+    private final String inboxPassword;
+    @Getter
+    private final int port;
+    @Getter
+    private final LongAdder delivered = new LongAdder();
+
+    private final GreenMail greenMail;
+    private final GreenMailUser inbox;
+    private final Session session = Session.getInstance(new Properties());
+
+    public MockMailServer(String inboxUsername, String inboxPassword) throws IOException {
+        this.inboxUsername = inboxUsername;
+        this.inboxPassword = inboxPassword;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            this.port = socket.getLocalPort();
+        }
+        this.greenMail = new GreenMail(new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_IMAP));
+        this.inbox = greenMail.setUser(inboxUsername, inboxUsername, inboxPassword);
+    }
+
+    public void start() {
+        greenMail.start();
+        log.info("[Load Test] mock imap listen on 127.0.0.1:{}, inbox [{}]", port, inboxUsername);
+    }
+
+    /**
+     * 投递一封 Privy 验证码邮件
+     */
+    public void deliverCode(String recipient, String code) {
+        try {
+            MimeMessage message = new MimeMessage(session);
+            message.setFrom(new InternetAddress(AgentHubApi.MAIL_FROM_2));
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+            message.setHeader("Delivered-To", recipient);
+            message.setSubject(code + " is your login code for AgentHub");
+            message.setSentDate(new Date());
+            message.setText("Your login code is " + code + ". This code expires in 10 minutes.", "UTF-8");
+            message.saveChanges();
+            inbox.deliver(message);
+            delivered.increment();
+        } catch (MessagingException e) {
+            throw new IllegalStateException("deliver code to " + recipient + " error", e);
+        }
+    }
+
+    /**
+     * 投递一封非 Privy 的普通邮件，用于构造大收件箱
+     *
+     * @param bodySize 正文字节数
+     */
+    public void deliverOther(String recipient, int bodySize) {
+        try {
+            MimeMessage message = new MimeMessage(session);
+            message.setFrom(new InternetAddress("newsletter@example.com"));
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+            message.setSubject("weekly digest");
+            message.setSentDate(new Date());
+            message.setText("x".repeat(bodySize), "UTF-8");
+            message.saveChanges();
+            inbox.deliver(message);
+        } catch (MessagingException e) {
+            throw new IllegalStateException("deliver mail to " + recipient + " error", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        greenMail.stop();
+    }
+}
@@ -0,0 +1,183 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import cn.com.vortexa.agent_hub.loadtest.MockMailServer;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于 GreenMail 的 IMAP 集成测试：推送到达、按收件人分发、定时结束并重新发起 IDLE 不影响连接，
+ * 以及大收件箱中只按发件人检索并拉取 Privy 邮件的头信息与正文分段
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class VerifyCodeMailboxTest {
+    private static final String INBOX = "catch-all@agenthub.test";
+    private static final String PASSWORD = "secret";
+
+    private MockMailServer mailServer;
+    private ImapServerInfo serverInfo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailServer = new MockMailServer(INBOX, PASSWORD);
+        mailServer.start();
+        serverInfo = new ImapServerInfo("127.0.0.1", mailServer.getPort(), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailServer.close();
+    }
+
+    @Test
+    void codeArrivesWhileWaiting() throws Exception {
+        try (VerifyCodeMailbox mailbox = new VerifyCodeMailbox(serverInfo, INBOX, PASSWORD)) {
+            CompletableFuture<String> code = mailbox.awaitCode(System.currentTimeMillis() - 1000);
+            mailServer.deliverCode("alice@agenthub.test", "123456");
+            assertEquals("123456", code.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void sharedInboxDispatchesByRecipient() throws Exception {
+        try (VerifyCodeMailbox mailbox = new VerifyCodeMailbox(serverInfo, INBOX, PASSWORD)) {
+            long since = System.currentTimeMillis() - 1000;
+            CompletableFuture<String> alice = mailbox.awaitCode("alice@agenthub.test", since);
+            CompletableFuture<String> bob = mailbox.awaitCode("bob@agenthub.test", since);
+
+            mailServer.deliverCode("bob@agenthub.test", "222222");
+            mailServer.deliverCode("alice@agenthub.test", "111111");
+
+            assertEquals("111111", alice.get(5, TimeUnit.SECONDS));
+            assertEquals("222222", bob.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void idleRefreshKeepsConnection() throws Exception {
+        long idleRefreshMillis = 300;
+        InMemoryMetricsRegistry.CounterImpl reconnect = (InMemoryMetricsRegistry.CounterImpl) AgentHubMetrics.registry()
+                .counter("agent_hub_imap_reconnect_total", "host", serverInfo.getHost());
+        long reconnectBefore = reconnect.count();
+
+        try (VerifyCodeMailbox mailbox = new VerifyCodeMailbox(serverInfo, INBOX, PASSWORD, idleRefreshMillis)) {
+            CompletableFuture<String> code = mailbox.awaitCode("carol@agenthub.test", System.currentTimeMillis() - 1000);
+            // 安静的收件箱经历数次 IDLE 结束与重新发起
+            TimeUnit.MILLISECONDS.sleep(idleRefreshMillis * 5);
+            assertFalse(code.isDone());
+            assertEquals(reconnectBefore, reconnect.count());
+
+            mailServer.deliverCode("carol@agenthub.test", "333333");
+            assertEquals("333333", code.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void largeMailboxFetchesOnlyHeadersOfPrivyMail() throws Exception {
+        int otherCount = 500;
+        int otherBodySize = 64 * 1024;
+        for (int i = 0; i < otherCount; i++) {
+            mailServer.deliverOther("alice@agenthub.test", otherBodySize);
+        }
+        // 其它账户的旧验证码
+        for (int i = 0; i < 20; i++) {
+            mailServer.deliverCode("other-" + i + "@agenthub.test", String.format("9%05d", i));
+        }
+
+        try (CountingRelay relay = new CountingRelay(mailServer.getPort());
+             VerifyCodeMailbox mailbox = new VerifyCodeMailbox(
+                     new ImapServerInfo("127.0.0.1", relay.getPort(), false), INBOX, PASSWORD)) {
+            CompletableFuture<String> code = mailbox.awaitCode("alice@agenthub.test", System.currentTimeMillis() - 1000);
+            mailServer.deliverCode("alice@agenthub.test", "555555");
+            assertEquals("555555", code.get(10, TimeUnit.SECONDS));
+
+            // 收件箱约 32 MB，只允许下载头信息与验证码正文，不足一封其它邮件的大小
+            long downloaded = relay.getDownstreamBytes();
+            assertTrue(downloaded < otherBodySize, "downloaded " + downloaded + " bytes");
+        }
+    }
+
+    /**
+     * 转发 IMAP 连接并统计服务端发往客户端的字节数
+     */
+    private static class CountingRelay implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final LongAdder downstreamBytes = new LongAdder();
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+        CountingRelay(int targetPort) throws IOException {
+            this.targetPort = targetPort;
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofPlatform().daemon().start(this::acceptLoop);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        long getDownstreamBytes() {
+            return downstreamBytes.sum();
+        }
+
+        private void acceptLoop() {
+            try {
+                while (!serverSocket.isClosed()) {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                    client.setTcpNoDelay(true);
+                    server.setTcpNoDelay(true);
+                    sockets.add(client);
+                    sockets.add(server);
+                    Thread.ofPlatform().daemon().start(() -> copy(client, server, null));
+                    Thread.ofPlatform().daemon().start(() -> copy(server, client, downstreamBytes));
+                }
+            } catch (IOException ignored) {
+                // closed
+            }
+        }
+
+        private static void copy(Socket from, Socket to, LongAdder counter) {
+            byte[] buffer = new byte[8192];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    if (counter != null) counter.add(read);
+                }
+            } catch (IOException ignored) {
+                // closed
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+}
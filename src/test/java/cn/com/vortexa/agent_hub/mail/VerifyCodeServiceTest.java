@@ -0,0 +1,104 @@
+package cn.com.vortexa.agent_hub.mail;
+
+
+import cn.com.vortexa.agent_hub.loadtest.MockMailServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共用收件箱时逐个与并发等待的验证码都按收件人送达，以及空闲回收不会关闭正在使用的邮箱。
+ * 到达耗时见 {@link VerifyCodeLatencyBenchmark}
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class VerifyCodeServiceTest {
+    private static final String INBOX = "catch-all@agenthub.test";
+    private static final String PASSWORD = "secret";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int ROUNDS = 100;
+    private static final int CONCURRENT_ACCOUNTS = 50;
+
+    private MockMailServer mailServer;
+    private ImapServerInfo serverInfo;
+    private VerifyCodeService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailServer = new MockMailServer(INBOX, PASSWORD);
+        mailServer.start();
+        serverInfo = new ImapServerInfo("127.0.0.1", mailServer.getPort(), false);
+        service = new VerifyCodeService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+        mailServer.close();
+    }
+
+    @Test
+    void sequentialCodesAllArrive() throws Exception {
+        for (int i = 0; i < ROUNDS; i++) {
+            awaitAndDeliver("seq-" + i + "@agenthub.test", String.format("%06d", i));
+        }
+    }
+
+    @Test
+    void concurrentCodesDispatchedByRecipient() throws Exception {
+        awaitAndDeliver("warmup@agenthub.test", "000000");
+
+        long since = System.currentTimeMillis() - 1000;
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ACCOUNTS; i++) {
+            futures.add(service.awaitCode(serverInfo, INBOX, PASSWORD, "con-" + i + "@agenthub.test", since, TIMEOUT));
+        }
+        long[] deliveredAt = new long[CONCURRENT_ACCOUNTS];
+        List<CompletableFuture<Long>> completedAt = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ACCOUNTS; i++) {
+            // 完成时间在 future 链内取得，join 时保证可见
+            completedAt.add(futures.get(i).thenApply(code -> System.nanoTime()));
+            deliveredAt[i] = System.nanoTime();
+            mailServer.deliverCode("con-" + i + "@agenthub.test", String.format("%06d", i));
+        }
+
+        for (int i = 0; i < CONCURRENT_ACCOUNTS; i++) {
+            assertEquals(String.format("%06d", i), futures.get(i).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            // 不会在投递之前拿到验证码
+            assertTrue(completedAt.get(i).join() >= deliveredAt[i]);
+        }
+    }
+
+    @Test
+    void evictSkipsMailboxInUse() throws Exception {
+        long since = System.currentTimeMillis() - 1000;
+        CompletableFuture<String> code = service.awaitCode(serverInfo, INBOX, PASSWORD, "dave@agenthub.test", since, TIMEOUT);
+
+        service.evictIdleMailbox(-1);
+        assertEquals(1, service.mailboxCount());
+
+        mailServer.deliverCode("dave@agenthub.test", "444444");
+        assertEquals("444444", code.get(5, TimeUnit.SECONDS));
+
+        service.evictIdleMailbox(-1);
+        assertEquals(0, service.mailboxCount());
+    }
+
+    private void awaitAndDeliver(String recipient, String expected) throws Exception {
+        CompletableFuture<String> future = service.awaitCode(
+                serverInfo, INBOX, PASSWORD, recipient, System.currentTimeMillis() - 1000, TIMEOUT
+        );
+        mailServer.deliverCode(recipient, expected);
+        assertEquals(expected, future.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,56 @@
+package cn.com.vortexa.agent_hub.metrics;
+
+
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 缓存的接口指标在替换 registry 后记录到新的 registry
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class AgentHubMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        AgentHubMetrics.setRegistry(new InMemoryMetricsRegistry());
+    }
+
+    @Test
+    void cachedMetricsFollowReplacedRegistry() {
+        InMemoryMetricsRegistry first = new InMemoryMetricsRegistry();
+        AgentHubMetrics.setRegistry(first);
+        FullAccountContext account = new FullAccountContext();
+        account.setId(1);
+
+        AgentHubMetrics.timeRequest("tasks_my", account, "direct", () -> CompletableFuture.completedFuture("ok")).join();
+        AgentHubMetrics.timeRequest("tasks_my", account, "direct", () -> CompletableFuture.completedFuture("ok")).join();
+        AgentHubMetrics.timeRequest("tasks_my", account, "direct",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom"))).exceptionally(e -> null).join();
+
+        assertEquals(2, count(first, AgentHubMetrics.REQUEST_TOTAL, "endpoint", "tasks_my", "outcome", "success"));
+        assertEquals(1, count(first, AgentHubMetrics.REQUEST_TOTAL, "endpoint", "tasks_my", "outcome", "error"));
+        assertEquals(2, count(first, AgentHubMetrics.ACCOUNT_REQUEST_TOTAL, "account", "1", "outcome", "success"));
+        assertEquals(1, count(first, AgentHubMetrics.PROXY_REQUEST_TOTAL, "proxy", "direct", "outcome", "error"));
+        assertEquals(2, ((InMemoryMetricsRegistry.TimerImpl) first.timer(
+                AgentHubMetrics.REQUEST_SECONDS, "endpoint", "tasks_my", "outcome", "success")).count());
+
+        InMemoryMetricsRegistry second = new InMemoryMetricsRegistry();
+        AgentHubMetrics.setRegistry(second);
+        AgentHubMetrics.timeRequest("tasks_my", account, "direct", () -> CompletableFuture.completedFuture("ok")).join();
+
+        assertEquals(2, count(first, AgentHubMetrics.REQUEST_TOTAL, "endpoint", "tasks_my", "outcome", "success"));
+        assertEquals(1, count(second, AgentHubMetrics.REQUEST_TOTAL, "endpoint", "tasks_my", "outcome", "success"));
+        assertEquals(1, count(second, AgentHubMetrics.ACCOUNT_REQUEST_TOTAL, "account", "1", "outcome", "success"));
+    }
+
+    private static long count(InMemoryMetricsRegistry registry, String name, String... tags) {
+        return ((InMemoryMetricsRegistry.CounterImpl) registry.counter(name, tags)).count();
+    }
+}
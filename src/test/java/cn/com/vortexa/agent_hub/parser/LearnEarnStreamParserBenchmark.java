@@ -0,0 +1,151 @@
+package cn.com.vortexa.agent_hub.parser;
+
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 {@link LearnEarnStreamParser} 与原 fastjson JSONArray/JSONObject 树解析 /learn-earn、/tasks/my 的耗时与分配。
+ * 分配看 gc 分析器的 gc.alloc.rate.norm；两者都从同一份响应字符串开始，不含网络读取
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LearnEarnStreamParserBenchmark {
+    private static final int QUESTIONS_PER_QUIZ = 5;
+    private static final int ANSWERS_PER_QUESTION = 4;
+
+    @Param({"20", "200"})
+    private int quizCount;
+
+    private String quizzesJson;
+    private String tasksJson;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LearnEarnStreamParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 字段与线上响应一致，题干、选项文案等不需要的字段也保留，树解析要为它们建对象
+        JSONArray quizzes = new JSONArray();
+        JSONArray available = new JSONArray();
+        for (int i = 0; i < quizCount; i++) {
+            String quizId = UUID.randomUUID().toString();
+            JSONArray questions = new JSONArray();
+            for (int j = 0; j < QUESTIONS_PER_QUIZ; j++) {
+                JSONArray answers = new JSONArray();
+                for (int k = 0; k < ANSWERS_PER_QUESTION; k++) {
+                    answers.add(new JSONObject()
+                            .fluentPut("id", UUID.randomUUID().toString())
+                            .fluentPut("text", "Answer option " + k + " for question " + j + " of quiz " + i)
+                            .fluentPut("order", k));
+                }
+                questions.add(new JSONObject()
+                        .fluentPut("id", UUID.randomUUID().toString())
+                        .fluentPut("text", "Which statement about agent " + i + " is correct? Read the lesson first.")
+                        .fluentPut("order", j)
+                        .fluentPut("answers", answers));
+            }
+            quizzes.add(new JSONObject()
+                    .fluentPut("id", quizId)
+                    .fluentPut("title", "Learn & Earn #" + i)
+                    .fluentPut("description", "Lesson content of quiz " + i + ", several sentences long. ".repeat(8))
+                    .fluentPut("imageUrl", "https://cdn.agenthub.test/quiz/" + quizId + ".png")
+                    .fluentPut("reward", new JSONObject().fluentPut("points", 50).fluentPut("currency", "AHP"))
+                    .fluentPut("questions", questions));
+            available.add(new JSONObject()
+                    .fluentPut("id", UUID.randomUUID().toString())
+                    .fluentPut("type", i % 3 == 0 ? "SOCIAL" : "LEARN_EARN")
+                    .fluentPut("taskStatus", i % 5 == 0 ? "COMPLETED" : "ACTIVE")
+                    .fluentPut("title", "Task " + i)
+                    .fluentPut("metadata", new JSONObject().fluentPut("quizId", quizId).fluentPut("points", 50)));
+        }
+        quizzesJson = quizzes.toJSONString();
+        tasksJson = new JSONObject()
+                .fluentPut("available", available)
+                .fluentPut("completed", new JSONArray())
+                .toJSONString();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void quizzesDom(Blackhole blackhole) {
+        JSONArray result = JSONArray.parseArray(quizzesJson);
+        for (int i = 0; i < result.size(); i++) {
+            JSONObject quiz = result.getJSONObject(i);
+            String quizId = quiz.getString("id");
+            JSONArray questions = quiz.getJSONArray("questions");
+            for (int j = 0; j < questions.size(); j++) {
+                JSONObject question = questions.getJSONObject(j);
+                blackhole.consume(quizId);
+                blackhole.consume(question.getString("id"));
+                blackhole.consume(question.getJSONArray("answers").getJSONObject(0).getString("id"));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void quizzesStream(Blackhole blackhole) {
+        LearnEarnStreamParser.parseQuizzes(new StringReader(quizzesJson), (quizId, questionId, firstAnswerId) -> {
+            blackhole.consume(quizId);
+            blackhole.consume(questionId);
+            blackhole.consume(firstAnswerId);
+        });
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<String> tasksDom() {
+        JSONArray available = JSONObject.parseObject(tasksJson).getJSONArray("available");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < available.size(); i++) {
+            JSONObject task = available.getJSONObject(i);
+            if ("LEARN_EARN".equals(task.getString("type")) && "ACTIVE".equals(task.getString("taskStatus"))) {
+                ids.add(task.getString("id"));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<String> tasksStream() {
+        return LearnEarnStreamParser.parseAvailableLearnEarnTaskIds(new StringReader(tasksJson));
+    }
+}
@@ -0,0 +1,96 @@
+package cn.com.vortexa.agent_hub.proxy;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.util.ProxyKeys;
+import cn.com.vortexa.bot_template.bot.dto.FullAccountContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 定时签到与手动任务同时执行时，各自的改派互不覆盖；代理池按地址或完整 key 匹配带认证的代理
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class ProxyHealthTrackerTest {
+    private static final Map<String, Object> SLOW = Map.of("host", "10.0.0.1", "port", 8080);
+    private static final Map<String, Object> FAST = Map.of("host", "10.0.0.2", "port", 8080);
+
+    @Test
+    void reassignKeepsAssignmentsOfConcurrentRun() {
+        ProxyHealthTracker tracker = new ProxyHealthTracker(config());
+        tracker.register(FAST).record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        tracker.register(SLOW).record(TimeUnit.MILLISECONDS.toNanos(1000), true);
+
+        FullAccountContext scheduled = account(1, SLOW);
+        FullAccountContext manual = account(2, FAST);
+        tracker.reassign(List.of(scheduled), key -> false);
+        assertEquals(ProxyKeys.of(FAST), tracker.keyOf(scheduled));
+
+        tracker.reassign(List.of(manual), key -> false);
+        assertEquals(ProxyKeys.of(FAST), tracker.keyOf(scheduled));
+        assertEquals(FAST, tracker.route(scheduled));
+        assertEquals(ProxyKeys.of(FAST), tracker.keyOf(manual));
+    }
+
+    @Test
+    void reassignReplacesAssignmentOfPassedAccount() {
+        ProxyHealthTracker tracker = new ProxyHealthTracker(config());
+        tracker.register(FAST).record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        ProxyHealth slow = tracker.register(SLOW);
+        slow.record(TimeUnit.MILLISECONDS.toNanos(1000), true);
+
+        FullAccountContext account = account(1, SLOW);
+        tracker.reassign(List.of(account), key -> false);
+        assertEquals(ProxyKeys.of(FAST), tracker.keyOf(account));
+
+        // 自身代理恢复后，下一次执行回到自身代理
+        for (int i = 0; i < 50; i++) {
+            slow.record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        }
+        tracker.reassign(List.of(account), key -> false);
+        assertEquals(ProxyKeys.of(SLOW), tracker.keyOf(account));
+    }
+
+    @Test
+    void allowedPoolMatchesAddressOfAuthenticatedProxy() {
+        Map<String, Object> authenticated = Map.of("host", "10.0.0.3", "port", 8080, "username", "user", "password", "pass");
+        Map<String, Object> otherAuthenticated = Map.of("host", "10.0.0.4", "port", 8080, "username", "user", "password", "pass");
+        AgentHubConfig.ProxyHealth config = config();
+        config.setAllowedPool(List.of("10.0.0.3:8080", ProxyKeys.of(otherAuthenticated), "10.0.0.9:8080"));
+        ProxyHealthTracker tracker = new ProxyHealthTracker(config);
+        tracker.register(FAST).record(TimeUnit.MILLISECONDS.toNanos(50), true);
+        tracker.register(authenticated).record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        tracker.register(SLOW).record(TimeUnit.MILLISECONDS.toNanos(1000), true);
+
+        // FAST 不在代理池中，带认证的代理按地址匹配
+        FullAccountContext account = account(1, SLOW);
+        tracker.reassign(List.of(account), key -> false);
+        assertEquals(ProxyKeys.of(authenticated), tracker.keyOf(account));
+
+        // 按完整 key 匹配
+        tracker.register(otherAuthenticated).record(TimeUnit.MILLISECONDS.toNanos(60), true);
+        tracker.reassign(List.of(account), key -> false);
+        assertEquals(ProxyKeys.of(otherAuthenticated), tracker.keyOf(account));
+    }
+
+    private static FullAccountContext account(int id, Map<String, Object> proxy) {
+        FullAccountContext account = new FullAccountContext();
+        account.setId(id);
+        account.setProxy(proxy);
+        return account;
+    }
+
+    private static AgentHubConfig.ProxyHealth config() {
+        AgentHubConfig.ProxyHealth config = new AgentHubConfig.ProxyHealth();
+        config.setReassign(true);
+        config.setProbeIdleSeconds(0);
+        return config;
+    }
+}
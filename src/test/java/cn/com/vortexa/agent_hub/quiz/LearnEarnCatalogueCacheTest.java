@@ -0,0 +1,72 @@
+package cn.com.vortexa.agent_hub.quiz;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.dto.QuizCatalogue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class LearnEarnCatalogueCacheTest {
+
+    @Test
+    void catalogueLargerThanMaxQuizzesIsStillCached() {
+        AgentHubConfig.Catalogue config = new AgentHubConfig.Catalogue();
+        config.setMaxQuizzes(10);
+        LearnEarnCatalogueCache cache = new LearnEarnCatalogueCache(config);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<QuizCatalogue.Quiz> first = cache.get(() -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(catalogue(50, 1000));
+        }).join();
+        List<QuizCatalogue.Quiz> second = cache.get(() -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(catalogue(50, 1000));
+        }).join();
+
+        assertEquals(1, loads.get());
+        assertEquals(50, second.size());
+        assertSame(first, second);
+        assertEquals(1000, cache.getSavedSize());
+    }
+
+    @Test
+    void joinedLoadCountsSizeOfThatLoad() {
+        LearnEarnCatalogueCache cache = new LearnEarnCatalogueCache(new AgentHubConfig.Catalogue());
+        cache.get(() -> CompletableFuture.completedFuture(catalogue(1, 100))).join();
+        cache.invalidate();
+
+        CompletableFuture<QuizCatalogue> pending = new CompletableFuture<>();
+        CompletableFuture<List<QuizCatalogue.Quiz>> loader = cache.get(() -> pending);
+        CompletableFuture<List<QuizCatalogue.Quiz>> joined = cache.get(() -> {
+            throw new AssertionError("joined caller must not load");
+        });
+        pending.complete(catalogue(2, 5000));
+
+        assertEquals(2, loader.join().size());
+        assertEquals(2, joined.join().size());
+        // 加入进行中加载的调用方按本次响应计入，而不是上一次的 100
+        assertEquals(5000, cache.getSavedSize());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    private static QuizCatalogue catalogue(int quizCount, long responseSize) {
+        List<QuizCatalogue.Quiz> quizzes = IntStream.range(0, quizCount)
+                .mapToObj(i -> new QuizCatalogue.Quiz("quiz-" + i, new ArrayList<>(List.of("q")), new ArrayList<>(List.of("a"))))
+                .toList();
+        return new QuizCatalogue(new ArrayList<>(quizzes), responseSize);
+    }
+}
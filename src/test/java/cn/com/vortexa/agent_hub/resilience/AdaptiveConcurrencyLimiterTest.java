@@ -0,0 +1,178 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.agent_hub.metrics.AgentHubMetrics;
+import cn.com.vortexa.agent_hub.metrics.InMemoryMetricsRegistry;
+import cn.com.vortexa.agent_hub.transport.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AIMD 上调与下调、下调冷却、排队请求的分发与下限
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void additiveIncreaseOnlyWhenSaturated() {
+        AgentHubConfig.Concurrency config = config(0);
+        // 排除延迟波动引起的下调
+        config.setLatencyTolerance(Double.MAX_VALUE);
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-increase", config, new AgentHubConfig.ConcurrencyLimit(4, 1, 100));
+
+        // 每次只有一个在途请求，上限没有用到一半，不上调
+        for (int i = 0; i < 20; i++) {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            limiter.submit(() -> request);
+            request.complete("ok");
+        }
+        assertEquals(4, limiter.getLimit());
+
+        // 始终用满上限，每轮约加 1
+        Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+        for (int i = 0; i < 40; i++) {
+            while (limiter.getInFlight() < limiter.getLimit()) {
+                CompletableFuture<String> request = new CompletableFuture<>();
+                inFlight.add(request);
+                limiter.submit(() -> request);
+            }
+            inFlight.poll().complete("ok");
+        }
+        assertTrue(limiter.getLimit() >= 8, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void multiplicativeDecreaseOnOverload() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-overload", config(0), new AgentHubConfig.ConcurrencyLimit(10, 1, 10));
+
+        fail(limiter, new HttpStatusException(429, "too many requests"));
+        assertEquals(7, limiter.getLimit());
+        fail(limiter, new HttpStatusException(503, "service unavailable"));
+        assertEquals(4, limiter.getLimit());
+
+        // 与服务端负载无关的失败不下调
+        fail(limiter, new HttpStatusException(404, "not found"));
+        fail(limiter, new IOException("connection reset"));
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void multiplicativeDecreaseOnLatencySpike() throws Exception {
+        AgentHubConfig.Concurrency config = config(0);
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-latency", config, new AgentHubConfig.ConcurrencyLimit(10, 1, 10));
+        InMemoryMetricsRegistry.CounterImpl latencyDecrease = (InMemoryMetricsRegistry.CounterImpl) AgentHubMetrics.registry()
+                .counter("agent_hub_concurrency_decrease_total", "group", "test-latency", "reason", "latency");
+        long before = latencyDecrease.count();
+
+        // 建立基线
+        for (int i = 0; i < 25; i++) {
+            complete(limiter, 5);
+        }
+        // 延迟突增到基线的数十倍
+        for (int i = 0; i < 3; i++) {
+            complete(limiter, 200);
+        }
+        assertTrue(latencyDecrease.count() > before);
+        assertTrue(limiter.getLimit() <= 7, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void decreaseCooldownSkipsBurstOfFailures() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-cooldown", config(TimeUnit.MINUTES.toMillis(1)), new AgentHubConfig.ConcurrencyLimit(10, 1, 10));
+
+        // 同一批在途请求先后失败，只下调一次
+        for (int i = 0; i < 5; i++) {
+            fail(limiter, new HttpStatusException(429, "too many requests"));
+        }
+        assertEquals(7, limiter.getLimit());
+    }
+
+    @Test
+    void limitNeverBelowMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-min", config(0), new AgentHubConfig.ConcurrencyLimit(10, 3, 10));
+
+        for (int i = 0; i < 20; i++) {
+            fail(limiter, new HttpStatusException(503, "service unavailable"));
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void queuedRequestDispatchedAfterRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.create(
+                "test-queue", config(0), new AgentHubConfig.ConcurrencyLimit(2, 1, 2));
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        CompletableFuture<String> third = new CompletableFuture<>();
+
+        CompletableFuture<String> firstResult = limiter.submit(() -> {
+            started.incrementAndGet();
+            return first;
+        });
+        limiter.submit(() -> {
+            started.incrementAndGet();
+            return second;
+        });
+        CompletableFuture<String> thirdResult = limiter.submit(() -> {
+            started.incrementAndGet();
+            return third;
+        });
+        assertEquals(2, started.get());
+        assertEquals(2, limiter.getInFlight());
+        assertFalse(thirdResult.isDone());
+
+        first.complete("first");
+        assertEquals("first", firstResult.get(1, TimeUnit.SECONDS));
+        // 排队的请求在释放名额后由分发线程发起
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.get() < 3 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(3, started.get());
+        third.complete("third");
+        assertEquals("third", thirdResult.get(1, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+        second.complete("second");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void fail(AdaptiveConcurrencyLimiter limiter, Throwable throwable) {
+        limiter.submit(() -> CompletableFuture.failedFuture(throwable));
+    }
+
+    /**
+     * 发起一个请求，delayMillis 后完成
+     */
+    private static void complete(AdaptiveConcurrencyLimiter limiter, long delayMillis) throws Exception {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        CompletableFuture<String> result = limiter.submit(() -> request);
+        TimeUnit.MILLISECONDS.sleep(delayMillis);
+        request.complete("ok");
+        result.get(1, TimeUnit.SECONDS);
+    }
+
+    private static AgentHubConfig.Concurrency config(long decreaseCooldownMillis) {
+        AgentHubConfig.Concurrency config = new AgentHubConfig.Concurrency();
+        config.setDecreaseCooldownMillis(decreaseCooldownMillis);
+        return config;
+    }
+}
@@ -0,0 +1,45 @@
+package cn.com.vortexa.agent_hub.resilience;
+
+
+import cn.com.vortexa.agent_hub.transport.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class ResilientCallerTest {
+
+    @Test
+    void transientByStatusCode() {
+        for (int code : new int[]{429, 500, 503, 505, 599}) {
+            assertTrue(ResilientCaller.isTransient(new CompletionException(new HttpStatusException(code, ""))), "code " + code);
+            assertTrue(ResilientCaller.isOverload(new HttpStatusException(code, "")), "code " + code);
+        }
+        for (int code : new int[]{400, 401, 404, 409}) {
+            assertFalse(ResilientCaller.isTransient(new HttpStatusException(code, "")), "code " + code);
+            assertFalse(ResilientCaller.isOverload(new HttpStatusException(code, "")), "code " + code);
+        }
+    }
+
+    @Test
+    void networkErrorIsTransientButNotOverload() {
+        assertTrue(ResilientCaller.isTransient(new CompletionException(new IOException("connection reset"))));
+        assertTrue(ResilientCaller.isTransient(new TimeoutException()));
+        assertFalse(ResilientCaller.isOverload(new IOException("connection reset")));
+    }
+
+    @Test
+    void businessErrorMentioningStatusIsNotTransient() {
+        // 业务错误信息中出现的数字不能当作状态码
+        assertFalse(ResilientCaller.isTransient(new IllegalStateException("question 503 already answered")));
+        assertFalse(ResilientCaller.isOverload(new IllegalStateException("quiz 429 not found")));
+    }
+}
@@ -0,0 +1,80 @@
+package cn.com.vortexa.agent_hub.session;
+
+
+import cn.com.vortexa.agent_hub.dto.AccountSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class AccountSessionStoreTest {
+    private static final int ACCOUNT_COUNT = 5000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedSessionsAndVerifiedAtSurviveReload() throws InterruptedException {
+        Path file = dir.resolve(AccountSessionStore.DEFAULT_FILE_NAME);
+        long expireAt = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+        AccountSession verified;
+        try (AccountSessionStore store = new AccountSessionStore(file)) {
+            for (int i = 0; i < ACCOUNT_COUNT; i++) {
+                store.save(i, "cookie-" + i, expireAt);
+            }
+            store.invalidate(1);
+            AccountSession saved = store.getValid(0);
+            TimeUnit.MILLISECONDS.sleep(5);
+            verified = store.markVerified(saved);
+            // 缓存中的对象被替换，原对象不变
+            assertSame(verified, store.getValid(0));
+            assertTrue(verified.getVerifiedAt() > saved.getVerifiedAt());
+        }
+
+        try (AccountSessionStore reloaded = new AccountSessionStore(file)) {
+            assertNull(reloaded.getValid(1));
+            assertEquals("cookie-2", reloaded.getValid(2).getCookie());
+            AccountSession session = reloaded.getValid(0);
+            assertNotNull(session);
+            assertEquals(verified.getVerifiedAt(), session.getVerifiedAt());
+            assertTrue(session.getVerifiedAt() > 0);
+        }
+    }
+
+    @Test
+    void markVerifiedDoesNotOverwriteNewerLogin() {
+        Path file = dir.resolve("relogin.json");
+        long expireAt = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+        try (AccountSessionStore store = new AccountSessionStore(file)) {
+            store.save(1, "old-cookie", expireAt);
+            AccountSession probed = store.getValid(1);
+            store.save(1, "new-cookie", expireAt);
+
+            store.markVerified(probed);
+            assertEquals("new-cookie", store.getValid(1).getCookie());
+        }
+    }
+
+    @Test
+    void pendingChangesAreWrittenByScheduler() throws InterruptedException {
+        Path file = dir.resolve("scheduled.json");
+        try (AccountSessionStore store = new AccountSessionStore(file)) {
+            store.save(1, "cookie", System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+            TimeUnit.MILLISECONDS.sleep(1500);
+            try (AccountSessionStore reloaded = new AccountSessionStore(file)) {
+                assertNotNull(reloaded.getValid(1));
+            }
+        }
+    }
+}
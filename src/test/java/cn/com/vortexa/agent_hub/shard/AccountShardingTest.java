@@ -0,0 +1,135 @@
+package cn.com.vortexa.agent_hub.shard;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 进程内模拟多个实例共享同一个租约目录，校验分片均衡、并发认领互斥与节点下线后的接管
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+class AccountShardingTest {
+    private static final int ACCOUNT_COUNT = 10000;
+    private static final List<String> NODE_IDS = List.of("node-1", "node-2", "node-3");
+    private static final List<String> ACCOUNT_IDS = IntStream.rangeClosed(1, ACCOUNT_COUNT).mapToObj(String::valueOf).toList();
+
+    @TempDir
+    Path storeDir;
+
+    private final Map<String, AccountSharding> nodes = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String nodeId : NODE_IDS) {
+            nodes.put(nodeId, new AccountSharding(shardConfig(nodeId), storeDir));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.values().forEach(AccountSharding::close);
+    }
+
+    @Test
+    void ownedAccountsCoverAllWithoutOverlapAndBalanced() {
+        Set<String> seen = new HashSet<>();
+        double expected = (double) ACCOUNT_COUNT / NODE_IDS.size();
+        for (AccountSharding sharding : nodes.values()) {
+            List<String> owned = sharding.owned(ACCOUNT_IDS);
+            owned.forEach(accountId -> assertTrue(seen.add(accountId), "account [" + accountId + "] owned by more than one node"));
+            double deviation = Math.abs(owned.size() - expected) / expected;
+            assertTrue(deviation < 0.15, sharding.getNodeId() + " owns " + owned.size() + ", deviation " + deviation);
+        }
+        assertEquals(ACCOUNT_COUNT, seen.size());
+    }
+
+    @Test
+    void concurrentClaimLeasesEachAccountOnce() {
+        Map<String, CompletableFuture<Set<String>>> futures = new LinkedHashMap<>();
+        nodes.forEach((nodeId, sharding) -> futures.put(nodeId, CompletableFuture.supplyAsync(() -> sharding.claim(ACCOUNT_IDS))));
+
+        Set<String> seen = new HashSet<>();
+        futures.forEach((nodeId, future) -> future.join().forEach(accountId ->
+                assertTrue(seen.add(accountId), "account [" + accountId + "] leased by more than one node")));
+        assertEquals(ACCOUNT_COUNT, seen.size());
+    }
+
+    @Test
+    void survivorsTakeOverAfterLeaseExpired() throws InterruptedException {
+        List<AccountSharding> all = new ArrayList<>(nodes.values());
+        AccountSharding crashed = all.get(all.size() - 1);
+        List<AccountSharding> survivors = all.subList(0, all.size() - 1);
+
+        // 下线节点持有租约后停止心跳，模拟进程在处理途中退出
+        Set<String> orphan = crashed.claim(ACCOUNT_IDS);
+        assertFalse(orphan.isEmpty());
+        crashed.close();
+        long crashAt = System.currentTimeMillis();
+
+        AgentHubConfig.Shard config = shardConfig(crashed.getNodeId());
+        long leaseExpireAt = crashAt + TimeUnit.SECONDS.toMillis(config.getLeaseSeconds());
+        long takeoverDeadline = leaseExpireAt + TimeUnit.SECONDS.toMillis(config.getHeartbeatSeconds() * 4);
+        Set<String> takenOver = new HashSet<>();
+        while (System.currentTimeMillis() < takeoverDeadline && takenOver.size() < orphan.size()) {
+            for (AccountSharding survivor : survivors) {
+                Set<String> acquired = survivor.claim(orphan);
+                if (!acquired.isEmpty()) {
+                    assertTrue(System.currentTimeMillis() >= leaseExpireAt - 200, "taken over before lease expired");
+                }
+                takenOver.addAll(acquired);
+            }
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+        assertEquals(orphan, takenOver);
+    }
+
+    @Test
+    void renewDropsLeaseTakenByOtherNode() throws InterruptedException {
+        ShardLeaseStore slow = new ShardLeaseStore(storeDir.resolve("lease"), "slow", 200);
+        ShardLeaseStore other = new ShardLeaseStore(storeDir.resolve("lease"), "other", 200);
+
+        assertEquals(Set.of("1", "2"), slow.tryAcquire(List.of("1", "2")));
+        // 续期停顿超过租约时长，期间账户 1 被其他节点获取
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(Set.of("1"), other.tryAcquire(List.of("1")));
+
+        assertEquals(Set.of("1"), slow.renew());
+        assertFalse(slow.isHeld("1"));
+        assertTrue(slow.isHeld("2"));
+        assertTrue(other.isHeld("1"));
+    }
+
+    /**
+     * 缩短心跳与租约时长，使接管在几秒内完成
+     */
+    private static AgentHubConfig.Shard shardConfig(String nodeId) {
+        AgentHubConfig.Shard config = new AgentHubConfig.Shard();
+        config.setEnabled(true);
+        config.setNodeId(nodeId);
+        config.setNodes(new ArrayList<>(NODE_IDS));
+        config.setHeartbeatSeconds(1);
+        config.setNodeTimeoutSeconds(3);
+        config.setLeaseSeconds(5);
+        return config;
+    }
+}
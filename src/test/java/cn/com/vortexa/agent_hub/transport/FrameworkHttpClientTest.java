@@ -0,0 +1,62 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class FrameworkHttpClientTest {
+
+    @Test
+    void statusInFrameworkMessageBecomesStatusException() {
+        Throwable translated = FrameworkHttpClient.toStatusException(
+                new CompletionException(new RuntimeException("request error, code 502, Bad Gateway")));
+        HttpStatusException statusException = assertInstanceOf(HttpStatusException.class, translated);
+        assertEquals(502, statusException.getCode());
+
+        assertEquals(401, ((HttpStatusException) FrameworkHttpClient.toStatusException(
+                new ExecutionException(new RuntimeException("request error, code 401, Unauthorized")))).getCode());
+    }
+
+    @Test
+    void numbersOutsideStatusFormatAreNotStatus() {
+        // 超时时长
+        RuntimeException timeout = new RuntimeException("timed out after 500 ms");
+        assertSame(timeout, FrameworkHttpClient.toStatusException(timeout));
+        SocketTimeoutException socketTimeout = new SocketTimeoutException("Read timed out after 502 ms");
+        assertSame(socketTimeout, FrameworkHttpClient.toStatusException(new CompletionException(socketTimeout)).getCause());
+
+        // 业务响应体中的数字
+        RuntimeException business = new RuntimeException("{\"code\":401,\"message\":\"quiz 401 not found\"}");
+        assertSame(business, FrameworkHttpClient.toStatusException(business));
+        IllegalStateException answer = new IllegalStateException("request error, code 429, question answer is not correct");
+        assertSame(answer, FrameworkHttpClient.toStatusException(answer));
+
+        // 状态码格式只出现在更深的 cause 中
+        RuntimeException nested = new RuntimeException("login failed", new RuntimeException("request error, code 503"));
+        assertSame(nested, FrameworkHttpClient.toStatusException(nested));
+        // 不在开头
+        RuntimeException notAnchored = new RuntimeException("retry after request error, code 500");
+        assertSame(notAnchored, FrameworkHttpClient.toStatusException(notAnchored));
+    }
+
+    @Test
+    void otherErrorIsKept() {
+        IOException ioException = new IOException("connection reset");
+        assertSame(ioException, FrameworkHttpClient.toStatusException(ioException));
+
+        HttpStatusException statusException = new HttpStatusException(404, "not found 500");
+        assertSame(statusException, FrameworkHttpClient.toStatusException(statusException));
+    }
+}
@@ -0,0 +1,195 @@
+package cn.com.vortexa.agent_hub.transport;
+
+
+import cn.com.vortexa.agent_hub.config.AgentHubConfig;
+import cn.com.vortexa.common.constants.HttpMethod;
+import com.alibaba.fastjson.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地 TLS 替身上对比“每次请求新建客户端”与按代理复用连接池的 TLS 握手次数和单请求延迟
+ *
+ * @author helei
+ * @since 2025-09-06
+ */
+@Slf4j
+class HttpTransportTest {
+    private static final int REQUEST_COUNT = 200;
+    private static final long SLOW_MILLIS = 300;
+
+    private MockWebServer server;
+    private HandshakeCertificates clientCertificates;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate)
+                .build();
+        clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(certificate.certificate())
+                .build();
+
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath() != null && request.getPath().startsWith("/api/slow")) {
+                    return new MockResponse().setBody("{\"code\":0}").setHeadersDelay(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return new MockResponse().setBody("{\"code\":0}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void sameGatewayWithDifferentCredentialUsesSeparateClient() {
+        try (HttpTransport transport = new HttpTransport(new AgentHubConfig.Transport())) {
+            Map<String, Object> alice = Map.of("host", "gw.proxy", "port", 7000, "username", "alice", "password", "p1");
+            Map<String, Object> bob = Map.of("host", "gw.proxy", "port", 7000, "username", "bob", "password", "p2");
+
+            assertNotSame(transport.client(alice), transport.client(bob));
+            assertSame(transport.client(alice), transport.client(Map.of(
+                    "host", "gw.proxy", "port", 7000, "username", "alice", "password", "p1")));
+        }
+    }
+
+    @Test
+    void proxyTypeReadsProtocolField() {
+        // 主机名、账号中出现 socks 不影响类型
+        assertEquals(Proxy.Type.HTTP, HttpTransport.proxyType(new JSONObject(Map.of(
+                "host", "socks.gw.proxy", "port", 7000, "username", "socks-user", "proxyProtocol", "HTTP"))));
+        assertEquals(Proxy.Type.HTTP, HttpTransport.proxyType(new JSONObject(Map.of("host", "socks.gw.proxy", "port", 7000))));
+        assertEquals(Proxy.Type.SOCKS, HttpTransport.proxyType(new JSONObject(Map.of(
+                "host", "gw.proxy", "port", 1080, "proxyProtocol", "socks5"))));
+        assertNull(HttpTransport.proxyType(new JSONObject(Map.of("host", "gw.proxy", "port", 1080, "proxyProtocol", "QUIC"))));
+
+        try (HttpTransport transport = new HttpTransport(new AgentHubConfig.Transport())) {
+            assertInstanceOf(PooledHttpClient.class, transport.client(Map.of(
+                    "host", "socks.gw.proxy", "port", 7000, "username", "u", "password", "p", "proxyProtocol", "HTTP")));
+            // SOCKS 带认证交给框架
+            assertInstanceOf(FrameworkHttpClient.class, transport.client(Map.of(
+                    "host", "gw.proxy", "port", 1080, "username", "u", "password", "p", "proxyProtocol", "SOCKS5")));
+        }
+    }
+
+    @Test
+    void pooledClientReusesTlsConnection() {
+        String url = server.url("/api/ping").toString();
+
+        // 基线：每次请求一个新客户端与连接池，相当于不复用连接
+        long[] baselineNanos = new long[REQUEST_COUNT];
+        long baselineHandshakes = 0;
+        OkHttpClient base = baseBuilder().build();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            PooledHttpClient client = new PooledHttpClient(
+                    base.newBuilder().connectionPool(new ConnectionPool()).build(), Proxy.NO_PROXY, null);
+            long start = System.nanoTime();
+            client.request(url, HttpMethod.GET, Map.of(), null).join();
+            baselineNanos[i] = System.nanoTime() - start;
+            baselineHandshakes += client.getHandshakes();
+            client.close();
+        }
+
+        AgentHubConfig.Transport config = new AgentHubConfig.Transport();
+        config.setWarmUpUrls(List.of(url));
+        long[] pooledNanos = new long[REQUEST_COUNT];
+        long pooledHandshakes;
+        try (HttpTransport transport = new HttpTransport(config, baseBuilder())) {
+            transport.warmUp(Collections.singletonList(null)).join();
+            PooledHttpClient client = (PooledHttpClient) transport.client(null);
+            for (int i = 0; i < REQUEST_COUNT; i++) {
+                long start = System.nanoTime();
+                client.request(url, HttpMethod.GET, Map.of(), null).join();
+                pooledNanos[i] = System.nanoTime() - start;
+            }
+            pooledHandshakes = client.getHandshakes();
+            log.info("[Transport Benchmark] {}", transport.report());
+        }
+
+        log.info("[Transport Benchmark] per-request client: handshakes {}, p50 {} us, p99 {} us",
+                baselineHandshakes, percentileMicros(baselineNanos, 0.5), percentileMicros(baselineNanos, 0.99));
+        log.info("[Transport Benchmark] pooled client: handshakes {}, p50 {} us, p99 {} us",
+                pooledHandshakes, percentileMicros(pooledNanos, 0.5), percentileMicros(pooledNanos, 0.99));
+
+        assertEquals(REQUEST_COUNT, baselineHandshakes);
+        // 预热建立的连接被后续全部请求复用
+        assertEquals(1, pooledHandshakes);
+        assertTrue(percentileMicros(pooledNanos, 0.5) < percentileMicros(baselineNanos, 0.5),
+                "pooled p50 should be lower than per-request client p50");
+    }
+
+    @Test
+    void exchangeTimerExcludesDispatcherQueue() {
+        String url = server.url("/api/slow").toString();
+        okhttp3.Dispatcher dispatcher = new okhttp3.Dispatcher();
+        dispatcher.setMaxRequests(1);
+        PooledHttpClient client = new PooledHttpClient(baseBuilder().dispatcher(dispatcher).build(), Proxy.NO_PROXY, null);
+
+        // 调度器只允许一个在途请求，第二个请求先排队一个慢响应的时长
+        ExchangeTimer first = new ExchangeTimer();
+        ExchangeTimer second = new ExchangeTimer();
+        long start = System.nanoTime();
+        CompletableFuture<String> firstFuture = ExchangeTimer.bind(first,
+                () -> client.request(url, HttpMethod.GET, Map.of(), null));
+        CompletableFuture<String> secondFuture = ExchangeTimer.bind(second,
+                () -> client.request(url, HttpMethod.GET, Map.of(), null));
+        CompletableFuture.allOf(firstFuture, secondFuture).join();
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        client.close();
+
+        long secondMillis = TimeUnit.NANOSECONDS.toMillis(second.elapsedNanos(-1));
+        assertTrue(totalMillis >= 2 * SLOW_MILLIS, "requests should be serialized, total " + totalMillis);
+        assertTrue(secondMillis >= SLOW_MILLIS && secondMillis < 2 * SLOW_MILLIS,
+                "exchange time should not include queueing, got " + secondMillis);
+        assertEquals(-1, new ExchangeTimer().elapsedNanos(-1));
+    }
+
+    private OkHttpClient.Builder baseBuilder() {
+        return new OkHttpClient.Builder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager());
+    }
+
+    private static long percentileMicros(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+    }
+}
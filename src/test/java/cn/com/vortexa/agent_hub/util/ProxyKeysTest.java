@@ -0,0 +1,36 @@
+package cn.com.vortexa.agent_hub.util;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @author helei
+ * @since 2025-09-06
+ */
+class ProxyKeysTest {
+
+    @Test
+    void keyWithoutCredentialIsHostPort() {
+        assertEquals("10.0.0.1:8080", ProxyKeys.of(Map.of("host", "10.0.0.1", "port", 8080)));
+        assertEquals(ProxyKeys.NO_PROXY, ProxyKeys.of(null));
+    }
+
+    @Test
+    void sameGatewayWithDifferentCredentialHasDifferentKey() {
+        String alice = ProxyKeys.of(Map.of("host", "gw.proxy", "port", 7000, "username", "alice", "password", "p1"));
+        String bob = ProxyKeys.of(Map.of("host", "gw.proxy", "port", 7000, "username", "bob", "password", "p1"));
+        String aliceAgain = ProxyKeys.of(Map.of("host", "gw.proxy", "port", 7000, "username", "alice", "password", "p1"));
+
+        assertNotEquals(alice, bob);
+        assertEquals(alice, aliceAgain);
+        assertFalse(alice.contains("alice") || alice.contains("p1"), alice);
+        assertEquals("gw.proxy:7000", ProxyKeys.address(alice));
+        assertEquals("gw.proxy:7000", ProxyKeys.address(bob));
+    }
+}